@@ -0,0 +1,72 @@
+package com.example.taskmanagement.benchmark;
+
+import com.example.taskmanagement.model.TaskExecution;
+import com.example.taskmanagement.service.CommandExecutionService;
+import com.example.taskmanagement.service.CommandValidationCache;
+import com.example.taskmanagement.service.CommandValidationService;
+import com.example.taskmanagement.service.ExecutionMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of running a command: process start, reading and capturing its output, and
+ * waiting for it to exit. The output-heavy command writes about 1.3 MB, beyond the kept head and tail.
+ * Each command is run both directly and through {@code sh -c}, to show what the intermediate shell costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandExecutionBenchmark {
+    
+    private static final Map<String, String> COMMANDS = Map.of(
+        "trivial", "echo hello",
+        "output-heavy", "seq 1 200000"
+    );
+    
+    @Param({"trivial", "output-heavy"})
+    private String command;
+    
+    @Param({"true", "false"})
+    private boolean directExec;
+    
+    private final CommandExecutionService commandExecutionService = new CommandExecutionService();
+    
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExecutionMetrics executionMetrics = new ExecutionMetrics();
+        ReflectionTestUtils.setField(executionMetrics, "meterRegistry", registry);
+        ReflectionTestUtils.invokeMethod(executionMetrics, "init");
+        CommandValidationCache commandValidationCache = new CommandValidationCache();
+        ReflectionTestUtils.setField(commandValidationCache, "commandValidationService", new CommandValidationService());
+        ReflectionTestUtils.setField(commandValidationCache, "meterRegistry", registry);
+        ReflectionTestUtils.invokeMethod(commandValidationCache, "init");
+        ReflectionTestUtils.setField(commandExecutionService, "executionMetrics", executionMetrics);
+        ReflectionTestUtils.setField(commandExecutionService, "commandValidationCache", commandValidationCache);
+        ReflectionTestUtils.setField(commandExecutionService, "directExec", directExec);
+        // Measure capture in memory; spilling adds disk writes that depend on the machine
+        ReflectionTestUtils.setField(commandExecutionService, "spillEnabled", false);
+    }
+    
+    @Benchmark
+    public TaskExecution executeCommand() {
+        return commandExecutionService.executeCommand(COMMANDS.get(command));
+    }
+}
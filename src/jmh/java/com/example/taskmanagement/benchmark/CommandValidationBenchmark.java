@@ -0,0 +1,74 @@
+package com.example.taskmanagement.benchmark;
+
+import com.example.taskmanagement.service.CommandValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of a mix of commands as they are saved and executed: mostly harmless commands,
+ * some rejected by the blocked command list and some by the dangerous pattern rules
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandValidationBenchmark {
+    
+    private static final String[] CORPUS = {
+        "echo Hello World",
+        "hostname",
+        "whoami",
+        "date",
+        "uptime",
+        "ls -la /var/log/nginx",
+        "df -h",
+        "free -m",
+        "ps aux",
+        "cat /var/log/syslog",
+        "grep -c ERROR /var/log/app/application.log",
+        "curl -s -o /dev/null -w %{http_code} http://localhost:8080/api/health",
+        "java -version",
+        "git --no-pager log -1 --format=%H",
+        "echo backup finished at 02:00 for database orders-primary",
+        "tail -n 100 /var/log/app/application.log",
+        "rm -rf /tmp/cache",
+        "sudo systemctl restart nginx",
+        "shutdown -r now",
+        "echo test > /tmp/out.txt",
+        "cat /etc/passwd | grep root",
+        "ls && whoami",
+        "cat ../../../etc/shadow",
+        "echo $(id)",
+        "kill -9 1234",
+        "dir C:\\Windows\\System32"
+    };
+    
+    private final CommandValidationService validationService = new CommandValidationService();
+    
+    @Benchmark
+    @OperationsPerInvocation(26)
+    public void validateCorpus(Blackhole blackhole) {
+        for (String command : CORPUS) {
+            blackhole.consume(validationService.validateCommand(command));
+        }
+    }
+    
+    @Benchmark
+    public Object validateLongValidCommand() {
+        return validationService.validateCommand(
+            "grep -E 'timeout|refused|reset by peer' /var/log/app/application.log --count --max-count 1000000");
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.taskmanagement.benchmark;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a task as returned by the API, with a growing execution history
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSerializationBenchmark {
+    
+    @Param({"0", "100", "10000"})
+    private int executions;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private Task task;
+    
+    @Setup
+    public void setUp() {
+        task = new Task("65f1c0a2b3d4e5f601234567", "Disk usage", "Ops", "df -h");
+        long start = 1704067200000L;
+        for (int i = 0; i < executions; i++) {
+            TaskExecution execution = new TaskExecution(new Date(start + i * 60000L), new Date(start + i * 60000L + 35),
+                "Filesystem      Size  Used Avail Use% Mounted on\n/dev/sda1        98G   41G   53G  44% /\n");
+            execution.setId(String.format("65f1c0a2b3d4e5f6%08x", i));
+            execution.setTaskId(task.getId());
+            execution.setStatus(ExecutionStatus.COMPLETED);
+            execution.setExitCode(0);
+            execution.setOutputBytes(execution.getOutput().length());
+            task.addTaskExecution(execution);
+        }
+    }
+    
+    @Benchmark
+    public byte[] serializeTask() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(task);
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.taskmanagement;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
@@ -9,13 +12,22 @@ import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
  */
 @SpringBootApplication
 public class TaskManagementApplication extends AbstractMongoClientConfiguration {
-
+    
+    @Value("${spring.data.mongodb.uri:mongodb://localhost:27017/taskmanagement}")
+    private String mongoUri;
+    
     public static void main(String[] args) {
         SpringApplication.run(TaskManagementApplication.class, args);
     }
-
+    
     @Override
     protected String getDatabaseName() {
         return "taskmanagement";
     }
+    
+    @Override
+    protected void configureClientSettings(MongoClientSettings.Builder builder) {
+        // The client is built here rather than by Boot, so apply the configured server explicitly
+        builder.applyConnectionString(new ConnectionString(mongoUri));
+    }
 }
\ No newline at end of file
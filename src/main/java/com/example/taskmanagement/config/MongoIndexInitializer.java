@@ -0,0 +1,59 @@
+package com.example.taskmanagement.config;
+
+import com.example.taskmanagement.model.ExecutionJob;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Ensures the indexes declared on the document classes exist once the application is up.
+ * Runs in the background so that an unreachable database does not delay startup.
+ */
+@Component
+public class MongoIndexInitializer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+    
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Task.class, TaskExecution.class, ExecutionJob.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${task-management.mongo.ensure-indexes:true}")
+    private boolean ensureIndexes;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!ensureIndexes) {
+            return;
+        }
+        Thread thread = new Thread(this::ensureIndexes, "mongo-index-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    void ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver =
+            new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> documentClass : INDEXED_DOCUMENTS) {
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(documentClass);
+                resolver.resolveIndexFor(documentClass).forEach(indexOps::ensureIndex);
+                logger.info("Indexes ensured for {}", documentClass.getSimpleName());
+            } catch (Exception e) {
+                logger.warn("Could not ensure indexes for {}: {}", documentClass.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -1,23 +1,55 @@
 package com.example.taskmanagement.controller;
 
+import com.example.taskmanagement.dto.BatchExecutionRequest;
+import com.example.taskmanagement.dto.BatchExecutionResult;
+import com.example.taskmanagement.dto.BatchItemResult;
+import com.example.taskmanagement.dto.BulkSaveResult;
+import com.example.taskmanagement.dto.ExecutionStatsSummary;
+import com.example.taskmanagement.dto.ExecutionView;
+import com.example.taskmanagement.model.ExecutionRollup;
 import com.example.taskmanagement.model.Task;
 import com.example.taskmanagement.model.TaskExecution;
+import com.example.taskmanagement.service.AdmissionRejectedException;
+import com.example.taskmanagement.service.BatchExecutionService;
+import com.example.taskmanagement.service.ExecutionOutputHub;
+import com.example.taskmanagement.service.TaskExecutionEngine;
+import com.example.taskmanagement.service.TaskScheduler;
 import com.example.taskmanagement.service.TaskService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
- * REST Controller for task management operations
+ * REST Controller for task management operations.
+ * Replaced by ReactiveTaskController when running with the "reactive" profile.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api")
 @CrossOrigin(origins = "*") // Enable CORS for testing
 public class TaskController {
@@ -27,12 +59,38 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
     
+    @Autowired
+    private TaskExecutionEngine taskExecutionEngine;
+    
+    @Autowired
+    private BatchExecutionService batchExecutionService;
+    
+    @Autowired
+    private TaskScheduler taskScheduler;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${task-management.execution.stream.timeout-ms:600000}")
+    private long streamTimeoutMs;
+    
+    @Value("${task-management.bulk.max-items:10000}")
+    private int bulkMaxItems;
+    
+    @Value("${task-management.batch.stream-timeout-ms:600000}")
+    private long batchStreamTimeoutMs;
+    
     /**
      * GET /api/tasks - Get all tasks
      * GET /api/tasks?id={taskId} - Get task by ID
+     * GET /api/tasks?limit={n}&cursor={cursor}&executions={NONE|COUNT|LAST}&last={n} - Get one page of tasks
      */
     @GetMapping("/tasks")
-    public ResponseEntity<?> getTasks(@RequestParam(required = false) String id) {
+    public ResponseEntity<?> getTasks(@RequestParam(required = false) String id,
+                                      @RequestParam(required = false) Integer limit,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) ExecutionView executions,
+                                      @RequestParam(defaultValue = "5") int last) {
         try {
             if (id != null && !id.trim().isEmpty()) {
                 // Get single task by ID
@@ -40,16 +98,25 @@ public class TaskController {
                 Optional<Task> task = taskService.getTaskById(id.trim());
                 
                 if (task.isPresent()) {
-                    return ResponseEntity.ok(task.get());
+                    return ResponseEntity.ok(withNextFireTime(task.get()));
                 } else {
                     return ResponseEntity.notFound().build();
                 }
+            } else if (limit != null || cursor != null || executions != null) {
+                // Get one page of tasks
+                logger.info("GET /api/tasks?limit={}&cursor={}&executions={}", limit, cursor, executions);
+                ExecutionView view = executions != null ? executions : ExecutionView.COUNT;
+                return ResponseEntity.ok(taskService.getTaskPage(cursor, limit, view, last));
             } else {
                 // Get all tasks
                 logger.info("GET /api/tasks");
                 List<Task> tasks = taskService.getAllTasks();
+                tasks.forEach(this::withNextFireTime);
                 return ResponseEntity.ok(tasks);
             }
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid task listing request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid request: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Error getting tasks", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -66,7 +133,7 @@ public class TaskController {
             logger.info("PUT /api/tasks - {}", task.getName());
             
             Task savedTask = taskService.saveTask(task);
-            return ResponseEntity.ok(savedTask);
+            return ResponseEntity.ok(withNextFireTime(savedTask));
             
         } catch (IllegalArgumentException e) {
             logger.warn("Validation error creating/updating task", e);
@@ -78,6 +145,58 @@ public class TaskController {
         }
     }
     
+    private Task withNextFireTime(Task task) {
+        if (task.getSchedule() != null) {
+            task.setNextFireTime(taskScheduler.getNextFireTime(task.getId()).orElse(null));
+        }
+        return task;
+    }
+    
+    /**
+     * PUT /api/tasks/bulk - Create or update many tasks, given as a JSON array or as
+     * newline-delimited JSON (application/x-ndjson). Responds with a result per task.
+     */
+    @PutMapping(value = "/tasks/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> bulkCreateOrUpdateTasks(InputStream body) {
+        try {
+            logger.info("PUT /api/tasks/bulk");
+            
+            List<Task> tasks = readTasks(body);
+            if (tasks.isEmpty()) {
+                return ResponseEntity.badRequest().body("Request contains no tasks");
+            }
+            
+            BulkSaveResult result = taskService.saveTasks(tasks);
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid bulk request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid request: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error saving tasks in bulk", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error saving tasks: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Read tasks one at a time from a JSON array or a sequence of JSON documents
+     */
+    private List<Task> readTasks(InputStream body) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (MappingIterator<Task> iterator = objectMapper.readerFor(Task.class).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                if (tasks.size() == bulkMaxItems) {
+                    throw new IllegalArgumentException("At most " + bulkMaxItems + " tasks can be saved per request");
+                }
+                tasks.add(iterator.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed task at index " + tasks.size() + ": " + e.getOriginalMessage());
+        }
+        return tasks;
+    }
+    
     /**
      * DELETE /api/tasks/{id} - Delete a task by ID
      */
@@ -101,18 +220,20 @@ public class TaskController {
     }
     
     /**
-     * GET /api/tasks/search?name={searchString} - Find tasks by name
+     * GET /api/tasks/search?name={searchString}[&page={page}&size={size}] - Find tasks by name
      */
     @GetMapping("/tasks/search")
-    public ResponseEntity<?> findTasksByName(@RequestParam String name) {
+    public ResponseEntity<?> findTasksByName(@RequestParam String name,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(required = false) Integer size) {
         try {
-            logger.info("GET /api/tasks/search?name={}", name);
+            logger.info("GET /api/tasks/search?name={}&page={}&size={}", name, page, size);
             
             if (name == null || name.trim().isEmpty()) {
                 return ResponseEntity.badRequest().body("Search name parameter is required");
             }
             
-            List<Task> tasks = taskService.findTasksByName(name.trim());
+            List<Task> tasks = taskService.findTasksByName(name.trim(), page, size);
             
             if (tasks.isEmpty()) {
                 return ResponseEntity.notFound().build();
@@ -120,6 +241,9 @@ public class TaskController {
             
             return ResponseEntity.ok(tasks);
             
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid request: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Error searching tasks by name", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -129,11 +253,19 @@ public class TaskController {
     
     /**
      * PUT /api/tasks/{id}/execute - Execute a task command
+     * PUT /api/tasks/{id}/execute?async=true - Queue a task command and return 202 with the execution ID
      */
     @PutMapping("/tasks/{id}/execute")
-    public ResponseEntity<?> executeTask(@PathVariable String id) {
+    public ResponseEntity<?> executeTask(@PathVariable String id,
+                                         @RequestParam(defaultValue = "false") boolean async) {
         try {
-            logger.info("PUT /api/tasks/{}/execute", id);
+            logger.info("PUT /api/tasks/{}/execute?async={}", id, async);
+            
+            if (async) {
+                TaskExecution accepted = taskExecutionEngine.submit(id);
+                URI statusUri = URI.create("/api/tasks/" + id + "/executions/" + accepted.getId());
+                return ResponseEntity.accepted().location(statusUri).body(accepted);
+            }
             
             TaskExecution taskExecution = taskService.executeTask(id);
             return ResponseEntity.ok(taskExecution);
@@ -141,6 +273,15 @@ public class TaskController {
         } catch (IllegalArgumentException e) {
             logger.warn("Task execution error", e);
             return ResponseEntity.badRequest().body("Execution error: " + e.getMessage());
+        } catch (AdmissionRejectedException e) {
+            logger.warn("Task execution rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage() + ", please retry later");
+        } catch (RejectedExecutionException e) {
+            logger.warn("Task execution rejected, worker pool is saturated");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Execution queue is full, please retry later");
         } catch (Exception e) {
             logger.error("Error executing task", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -148,6 +289,268 @@ public class TaskController {
         }
     }
     
+    /**
+     * PUT /api/tasks/execute - Execute many tasks concurrently, selected by ID or by owner and/or name,
+     * and respond with all results once the batch has finished
+     */
+    @PutMapping(value = "/tasks/execute", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> executeTasks(@RequestBody BatchExecutionRequest request) {
+        try {
+            logger.info("PUT /api/tasks/execute");
+            
+            BatchExecutionService.Plan plan = batchExecutionService.plan(request);
+            BatchExecutionResult result = batchExecutionService.run(plan);
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid batch execution request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid request: " + e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Batch execution capacity is exhausted, please retry later");
+        } catch (Exception e) {
+            logger.error("Error executing tasks", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error executing tasks: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * PUT /api/tasks/execute with Accept: application/x-ndjson - Execute many tasks concurrently
+     * and stream each result as a line of JSON as soon as its task finishes
+     */
+    @PutMapping(value = "/tasks/execute", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> executeTasksStreaming(@RequestBody BatchExecutionRequest request) {
+        try {
+            logger.info("PUT /api/tasks/execute (streaming)");
+            
+            BatchExecutionService.Plan plan = batchExecutionService.plan(request);
+            ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchStreamTimeoutMs);
+            batchExecutionService.start(plan, item -> sendLine(emitter, item))
+                .whenComplete((ignored, error) -> emitter.complete());
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+            
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid batch execution request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid request: " + e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Batch execution capacity is exhausted, please retry later");
+        } catch (Exception e) {
+            logger.error("Error executing tasks", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error executing tasks: " + e.getMessage());
+        }
+    }
+    
+    private void sendLine(ResponseBodyEmitter emitter, BatchItemResult item) {
+        try {
+            // One send per line, so lines from concurrent workers never interleave
+            emitter.send(objectMapper.writeValueAsString(item) + "\n", MediaType.TEXT_PLAIN);
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the batch still runs to completion and is stored
+            logger.debug("Could not stream batch result of task {}: {}", item.getTaskId(), e.getMessage());
+        }
+    }
+    
+    /**
+     * GET /api/tasks/{id}/stats - Get run count, failure rate and duration percentiles of a task
+     */
+    @GetMapping("/tasks/{id}/stats")
+    public ResponseEntity<?> getTaskStats(@PathVariable String id) {
+        try {
+            logger.info("GET /api/tasks/{}/stats", id);
+            
+            Optional<ExecutionStatsSummary> stats = taskService.getExecutionStats(id);
+            if (stats.isPresent()) {
+                return ResponseEntity.ok(stats.get());
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+            
+        } catch (Exception e) {
+            logger.error("Error getting task statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving task statistics: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * GET /api/tasks/stats?owner={owner} - Get the combined statistics of all tasks of an owner
+     */
+    @GetMapping("/tasks/stats")
+    public ResponseEntity<?> getOwnerStats(@RequestParam String owner) {
+        try {
+            logger.info("GET /api/tasks/stats?owner={}", owner);
+            
+            if (owner.trim().isEmpty()) {
+                return ResponseEntity.badRequest().body("Owner parameter is required");
+            }
+            
+            Optional<ExecutionStatsSummary> stats = taskService.getOwnerExecutionStats(owner.trim());
+            if (stats.isPresent()) {
+                return ResponseEntity.ok(stats.get());
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+            
+        } catch (Exception e) {
+            logger.error("Error getting owner statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving owner statistics: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * GET /api/tasks/{id}/executions/rollup - Get the aggregate of executions removed by the retention policy
+     */
+    @GetMapping("/tasks/{id}/executions/rollup")
+    public ResponseEntity<?> getExecutionRollup(@PathVariable String id) {
+        try {
+            logger.info("GET /api/tasks/{}/executions/rollup", id);
+            
+            Optional<ExecutionRollup> rollup = taskService.getExecutionRollup(id);
+            if (rollup.isPresent()) {
+                return ResponseEntity.ok(rollup.get());
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+            
+        } catch (Exception e) {
+            logger.error("Error getting execution roll-up", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving execution roll-up: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * GET /api/tasks/{id}/executions/{execId} - Poll the status of an execution
+     */
+    @GetMapping("/tasks/{id}/executions/{execId}")
+    public ResponseEntity<?> getExecution(@PathVariable String id, @PathVariable String execId) {
+        try {
+            logger.info("GET /api/tasks/{}/executions/{}", id, execId);
+            
+            Optional<TaskExecution> taskExecution = taskExecutionEngine.getExecution(id, execId);
+            if (taskExecution.isPresent()) {
+                return ResponseEntity.ok(taskExecution.get());
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+            
+        } catch (Exception e) {
+            logger.error("Error getting execution", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving execution: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * DELETE /api/tasks/{id}/executions/{execId} - Cancel a queued or running execution
+     */
+    @DeleteMapping("/tasks/{id}/executions/{execId}")
+    public ResponseEntity<?> cancelExecution(@PathVariable String id, @PathVariable String execId) {
+        try {
+            logger.info("DELETE /api/tasks/{}/executions/{}", id, execId);
+            
+            switch (taskExecutionEngine.cancel(id, execId)) {
+                case CANCELLED:
+                    return ResponseEntity.ok().body("Execution cancelled");
+                case ALREADY_FINISHED:
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body("Execution has already finished");
+                default:
+                    return ResponseEntity.notFound().build();
+            }
+            
+        } catch (Exception e) {
+            logger.error("Error cancelling execution", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error cancelling execution: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * GET /api/tasks/{id}/executions/{execId}/output - Get the complete output of an execution,
+     * including any part that was left out of the stored preview
+     */
+    @GetMapping("/tasks/{id}/executions/{execId}/output")
+    public ResponseEntity<?> getExecutionOutput(@PathVariable String id, @PathVariable String execId) {
+        try {
+            logger.info("GET /api/tasks/{}/executions/{}/output", id, execId);
+            
+            Optional<TaskExecution> taskExecution = taskExecutionEngine.getExecution(id, execId);
+            if (taskExecution.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            String outputRef = taskExecution.get().getOutputRef();
+            if (outputRef != null) {
+                Path spillFile = Paths.get(outputRef);
+                if (Files.isReadable(spillFile)) {
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .body(new FileSystemResource(spillFile));
+                }
+                logger.warn("Full output of execution {} is no longer available at {}", execId, outputRef);
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(taskExecution.get().getOutput() != null ? taskExecution.get().getOutput() : "");
+            
+        } catch (Exception e) {
+            logger.error("Error getting execution output", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving execution output: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * GET /api/tasks/{id}/executions/{execId}/stream - Stream the output of an execution as server-sent events.
+     * Sends "output" events while the command runs and a final "end" event carrying the finished execution.
+     */
+    @GetMapping(value = "/tasks/{id}/executions/{execId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamExecutionOutput(@PathVariable String id, @PathVariable String execId) {
+        try {
+            logger.info("GET /api/tasks/{}/executions/{}/stream", id, execId);
+            
+            SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+            ExecutionOutputHub.Subscriber subscriber = new ExecutionOutputHub.Subscriber() {
+                @Override
+                public void onOutput(String text) throws IOException {
+                    emitter.send(SseEmitter.event().name("output").data(text, MediaType.TEXT_PLAIN));
+                }
+                
+                @Override
+                public void onComplete(TaskExecution execution) throws IOException {
+                    emitter.send(SseEmitter.event().name("end").data(execution, MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                }
+                
+                @Override
+                public void onDropped(String reason) {
+                    try {
+                        emitter.send(SseEmitter.event().name("dropped").data(reason, MediaType.TEXT_PLAIN));
+                    } catch (IOException | IllegalStateException e) {
+                        logger.debug("Could not notify dropped stream subscriber: {}", e.getMessage());
+                    }
+                    emitter.complete();
+                }
+            };
+            emitter.onCompletion(() -> taskExecutionEngine.unsubscribe(execId, subscriber));
+            emitter.onTimeout(() -> taskExecutionEngine.unsubscribe(execId, subscriber));
+            
+            if (!taskExecutionEngine.subscribe(id, execId, subscriber)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(emitter);
+            
+        } catch (Exception e) {
+            logger.error("Error streaming execution output", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error streaming execution output: " + e.getMessage());
+        }
+    }
+    
     /**
      * GET /api/health - Health check endpoint
      */
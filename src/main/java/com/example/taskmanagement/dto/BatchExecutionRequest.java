@@ -0,0 +1,46 @@
+package com.example.taskmanagement.dto;
+
+import java.util.List;
+
+/**
+ * Selects the tasks of a batch execution, either by ID or by owner and/or name
+ */
+public class BatchExecutionRequest {
+    
+    private List<String> taskIds;
+    private String owner;
+    private String name;
+    private Integer parallelism;
+    
+    public List<String> getTaskIds() {
+        return taskIds;
+    }
+    
+    public void setTaskIds(List<String> taskIds) {
+        this.taskIds = taskIds;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public Integer getParallelism() {
+        return parallelism;
+    }
+    
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.taskmanagement.dto;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+
+import java.util.List;
+
+/**
+ * Aggregated result of a batch execution, with one entry per task in order of completion
+ */
+public class BatchExecutionResult {
+    
+    private final List<BatchItemResult> items;
+    private final int completed;
+    private final int failed;
+    private final long durationMs;
+    
+    public BatchExecutionResult(List<BatchItemResult> items, long durationMs) {
+        this.items = items;
+        this.completed = (int) items.stream().filter(item -> item.getStatus() == ExecutionStatus.COMPLETED).count();
+        this.failed = items.size() - completed;
+        this.durationMs = durationMs;
+    }
+    
+    public List<BatchItemResult> getItems() {
+        return items;
+    }
+    
+    public int getCompleted() {
+        return completed;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public long getDurationMs() {
+        return durationMs;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.taskmanagement.dto;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.TaskExecution;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one task of a batch execution. Tasks that could not be run carry an error instead of a status.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    
+    private final String taskId;
+    private final String executionId;
+    private final ExecutionStatus status;
+    private final Integer exitCode;
+    private final Long durationMs;
+    private final String output;
+    private final Boolean outputTruncated;
+    private final String error;
+    private final Long retryAfterSeconds;
+    
+    private BatchItemResult(String taskId, String executionId, ExecutionStatus status, Integer exitCode,
+                            Long durationMs, String output, Boolean outputTruncated, String error,
+                            Long retryAfterSeconds) {
+        this.taskId = taskId;
+        this.executionId = executionId;
+        this.status = status;
+        this.exitCode = exitCode;
+        this.durationMs = durationMs;
+        this.output = output;
+        this.outputTruncated = outputTruncated;
+        this.error = error;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    /**
+     * @param taskId Task ID
+     * @param execution Finished execution
+     * @param maxOutputChars Longest output to include
+     * @return Result carrying the status and the start of the output
+     */
+    public static BatchItemResult executed(String taskId, TaskExecution execution, int maxOutputChars) {
+        String output = execution.getOutput();
+        boolean truncated = execution.isOutputTruncated();
+        if (output != null && output.length() > maxOutputChars) {
+            output = output.substring(0, maxOutputChars);
+            truncated = true;
+        }
+        Long durationMs = execution.getStartTime() != null && execution.getEndTime() != null
+            ? execution.getEndTime().getTime() - execution.getStartTime().getTime() : null;
+        return new BatchItemResult(taskId, execution.getId(), execution.getStatus(), execution.getExitCode(),
+            durationMs, output, truncated, null, null);
+    }
+    
+    public static BatchItemResult skipped(String taskId, String error) {
+        return new BatchItemResult(taskId, null, null, null, null, null, null, error, null);
+    }
+    
+    /**
+     * @param taskId Task ID
+     * @param error Why the task was not run
+     * @param retryAfterSeconds Suggested wait before running it again
+     * @return Result of a task refused because its owner was over their execution limits
+     */
+    public static BatchItemResult rejected(String taskId, String error, long retryAfterSeconds) {
+        return new BatchItemResult(taskId, null, null, null, null, null, null, error, retryAfterSeconds);
+    }
+    
+    public String getTaskId() {
+        return taskId;
+    }
+    
+    public String getExecutionId() {
+        return executionId;
+    }
+    
+    public ExecutionStatus getStatus() {
+        return status;
+    }
+    
+    public Integer getExitCode() {
+        return exitCode;
+    }
+    
+    public Long getDurationMs() {
+        return durationMs;
+    }
+    
+    public String getOutput() {
+        return output;
+    }
+    
+    public Boolean getOutputTruncated() {
+        return outputTruncated;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public Long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.taskmanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one item of a bulk request
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+    
+    private final int index;
+    private final String id;
+    private final boolean success;
+    private final String error;
+    
+    private BulkItemResult(int index, String id, boolean success, String error) {
+        this.index = index;
+        this.id = id;
+        this.success = success;
+        this.error = error;
+    }
+    
+    public static BulkItemResult saved(int index, String id) {
+        return new BulkItemResult(index, id, true, null);
+    }
+    
+    public static BulkItemResult failed(int index, String id, String error) {
+        return new BulkItemResult(index, id, false, error);
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public String getError() {
+        return error;
+    }
+}
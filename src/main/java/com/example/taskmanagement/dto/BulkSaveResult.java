@@ -0,0 +1,31 @@
+package com.example.taskmanagement.dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk create/update: one entry per submitted task, in submission order
+ */
+public class BulkSaveResult {
+    
+    private final List<BulkItemResult> items;
+    private final int saved;
+    private final int failed;
+    
+    public BulkSaveResult(List<BulkItemResult> items) {
+        this.items = items;
+        this.saved = (int) items.stream().filter(BulkItemResult::isSuccess).count();
+        this.failed = items.size() - saved;
+    }
+    
+    public List<BulkItemResult> getItems() {
+        return items;
+    }
+    
+    public int getSaved() {
+        return saved;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.taskmanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Execution statistics of a task, or of all tasks of an owner.
+ * Durations are in milliseconds; percentiles are within 2% of the exact value and are null
+ * until an execution with a duration has been recorded.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExecutionStatsSummary {
+    
+    private final String taskId;
+    private final String owner;
+    private final Integer tasks;
+    private final long runs;
+    private final long failures;
+    private final double failureRate;
+    private final Double meanDurationMs;
+    private final Double p50DurationMs;
+    private final Double p95DurationMs;
+    private final Double p99DurationMs;
+    
+    public ExecutionStatsSummary(String taskId, String owner, Integer tasks, long runs, long failures,
+                                 Double meanDurationMs, Double p50DurationMs, Double p95DurationMs,
+                                 Double p99DurationMs) {
+        this.taskId = taskId;
+        this.owner = owner;
+        this.tasks = tasks;
+        this.runs = runs;
+        this.failures = failures;
+        this.failureRate = runs > 0 ? (double) failures / runs : 0;
+        this.meanDurationMs = meanDurationMs;
+        this.p50DurationMs = p50DurationMs;
+        this.p95DurationMs = p95DurationMs;
+        this.p99DurationMs = p99DurationMs;
+    }
+    
+    public String getTaskId() {
+        return taskId;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public Integer getTasks() {
+        return tasks;
+    }
+    
+    public long getRuns() {
+        return runs;
+    }
+    
+    public long getFailures() {
+        return failures;
+    }
+    
+    public double getFailureRate() {
+        return failureRate;
+    }
+    
+    public Double getMeanDurationMs() {
+        return meanDurationMs;
+    }
+    
+    public Double getP50DurationMs() {
+        return p50DurationMs;
+    }
+    
+    public Double getP95DurationMs() {
+        return p95DurationMs;
+    }
+    
+    public Double getP99DurationMs() {
+        return p99DurationMs;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.taskmanagement.dto;
+
+/**
+ * How much execution history to include with each task of a listing
+ */
+public enum ExecutionView {
+    /** No execution information */
+    NONE,
+    /** Only the number of executions */
+    COUNT,
+    /** The most recent executions, oldest first */
+    LAST
+}
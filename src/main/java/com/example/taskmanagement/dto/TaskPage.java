@@ -0,0 +1,37 @@
+package com.example.taskmanagement.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated task listing.
+ * Pass {@code nextCursor} back as the {@code cursor} parameter to fetch the following page;
+ * it is null on the last page.
+ */
+public class TaskPage {
+    
+    private final List<TaskSummary> items;
+    private final int limit;
+    private final String nextCursor;
+    
+    public TaskPage(List<TaskSummary> items, int limit, String nextCursor) {
+        this.items = items;
+        this.limit = limit;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<TaskSummary> getItems() {
+        return items;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.taskmanagement.dto;
+
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Projection of a task used in paginated listings, carrying only the requested execution view
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskSummary {
+    
+    private final String id;
+    private final String name;
+    private final String owner;
+    private final String command;
+    private Long executionCount;
+    private List<TaskExecution> taskExecutions;
+    
+    public TaskSummary(Task task) {
+        this.id = task.getId();
+        this.name = task.getName();
+        this.owner = task.getOwner();
+        this.command = task.getCommand();
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public String getCommand() {
+        return command;
+    }
+    
+    public Long getExecutionCount() {
+        return executionCount;
+    }
+    
+    public void setExecutionCount(Long executionCount) {
+        this.executionCount = executionCount;
+    }
+    
+    public List<TaskExecution> getTaskExecutions() {
+        return taskExecutions;
+    }
+    
+    public void setTaskExecutions(List<TaskExecution> taskExecutions) {
+        this.taskExecutions = taskExecutions;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.taskmanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Execution waiting in the shared queue or leased by the node running it, keyed by the execution ID.
+ * A job can be claimed once availableAt has passed: queued jobs are available from the time they
+ * were enqueued, and a lease moves availableAt forward for as long as its node keeps renewing it.
+ * The job is removed once its execution has been stored. Scheduled runs are keyed by their task and
+ * nominal time, so the nodes that all fire the same schedule queue a single job between them.
+ */
+@Document(collection = "execution_jobs")
+public class ExecutionJob {
+    
+    @Id
+    private String id;
+    
+    private String taskId;
+    
+    private Date enqueuedAt;
+    
+    @Indexed(name = "available_idx")
+    private Date availableAt;
+    
+    // Node holding the lease, null while queued
+    private String leaseOwner;
+    
+    // Number of times the job has been claimed
+    private int attempts;
+    
+    private boolean cancelRequested;
+    
+    // Nominal time of a scheduled run, null for runs requested through the API
+    private Date scheduledAt;
+    
+    // Default constructor
+    public ExecutionJob() {}
+    
+    public ExecutionJob(String id, String taskId, Date enqueuedAt) {
+        this.id = id;
+        this.taskId = taskId;
+        this.enqueuedAt = enqueuedAt;
+        this.availableAt = enqueuedAt;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getTaskId() {
+        return taskId;
+    }
+    
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+    
+    public Date getEnqueuedAt() {
+        return enqueuedAt;
+    }
+    
+    public void setEnqueuedAt(Date enqueuedAt) {
+        this.enqueuedAt = enqueuedAt;
+    }
+    
+    public Date getAvailableAt() {
+        return availableAt;
+    }
+    
+    public void setAvailableAt(Date availableAt) {
+        this.availableAt = availableAt;
+    }
+    
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+    
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+    
+    public void setCancelRequested(boolean cancelRequested) {
+        this.cancelRequested = cancelRequested;
+    }
+    
+    public Date getScheduledAt() {
+        return scheduledAt;
+    }
+    
+    public void setScheduledAt(Date scheduledAt) {
+        this.scheduledAt = scheduledAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "ExecutionJob{" +
+                "id='" + id + '\'' +
+                ", taskId='" + taskId + '\'' +
+                ", leaseOwner='" + leaseOwner + '\'' +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
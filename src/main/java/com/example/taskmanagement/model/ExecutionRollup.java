@@ -0,0 +1,156 @@
+package com.example.taskmanagement.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Aggregate of the executions of a task that were pruned from its history by the retention policy.
+ * Stored once per task, so the totals survive at constant cost however many executions are folded in.
+ */
+@Document(collection = "execution_rollups")
+public class ExecutionRollup {
+    
+    @Id
+    private String taskId;
+    
+    private long runs;
+    
+    // Executions that did not complete successfully
+    private long failures;
+    
+    // Durations cover only executions with both a start and an end time
+    private long totalDurationMs;
+    
+    private Long minDurationMs;
+    
+    private Long maxDurationMs;
+    
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss.SSSXXX")
+    private Date firstStartTime;
+    
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss.SSSXXX")
+    private Date lastStartTime;
+    
+    // Newest execution folded in; it and every older one are never counted again
+    @JsonIgnore
+    private String lastExecutionId;
+    
+    // SHA-256 of the stored output of the newest execution folded in
+    private String lastOutputHash;
+    
+    @JsonIgnore
+    @Version
+    private Long version;
+    
+    // Default constructor
+    public ExecutionRollup() {}
+    
+    public ExecutionRollup(String taskId) {
+        this.taskId = taskId;
+    }
+    
+    // Getters and Setters
+    public String getTaskId() {
+        return taskId;
+    }
+    
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+    
+    public long getRuns() {
+        return runs;
+    }
+    
+    public void setRuns(long runs) {
+        this.runs = runs;
+    }
+    
+    public long getFailures() {
+        return failures;
+    }
+    
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+    
+    public long getTotalDurationMs() {
+        return totalDurationMs;
+    }
+    
+    public void setTotalDurationMs(long totalDurationMs) {
+        this.totalDurationMs = totalDurationMs;
+    }
+    
+    public Long getMinDurationMs() {
+        return minDurationMs;
+    }
+    
+    public void setMinDurationMs(Long minDurationMs) {
+        this.minDurationMs = minDurationMs;
+    }
+    
+    public Long getMaxDurationMs() {
+        return maxDurationMs;
+    }
+    
+    public void setMaxDurationMs(Long maxDurationMs) {
+        this.maxDurationMs = maxDurationMs;
+    }
+    
+    public Date getFirstStartTime() {
+        return firstStartTime;
+    }
+    
+    public void setFirstStartTime(Date firstStartTime) {
+        this.firstStartTime = firstStartTime;
+    }
+    
+    public Date getLastStartTime() {
+        return lastStartTime;
+    }
+    
+    public void setLastStartTime(Date lastStartTime) {
+        this.lastStartTime = lastStartTime;
+    }
+    
+    public String getLastExecutionId() {
+        return lastExecutionId;
+    }
+    
+    public void setLastExecutionId(String lastExecutionId) {
+        this.lastExecutionId = lastExecutionId;
+    }
+    
+    public String getLastOutputHash() {
+        return lastOutputHash;
+    }
+    
+    public void setLastOutputHash(String lastOutputHash) {
+        this.lastOutputHash = lastOutputHash;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    @Override
+    public String toString() {
+        return "ExecutionRollup{" +
+                "taskId='" + taskId + '\'' +
+                ", runs=" + runs +
+                ", failures=" + failures +
+                ", totalDurationMs=" + totalDurationMs +
+                ", lastStartTime=" + lastStartTime +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.taskmanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running totals of all executions of a task, updated in place as each execution is recorded.
+ * Durations are kept as a histogram with logarithmic buckets (see DurationSketch), so percentiles
+ * are read from a single document and histograms of several tasks can be merged.
+ * Unlike the execution history these totals are never pruned.
+ */
+@Document(collection = "execution_stats")
+public class ExecutionStats {
+    
+    @Id
+    private String taskId;
+    
+    private long runs;
+    
+    // Executions that did not complete successfully
+    private long failures;
+    
+    // Durations cover only executions with both a start and an end time
+    private long totalDurationMs;
+    
+    // Execution count per duration bucket index
+    private Map<String, Long> durationBuckets = new HashMap<>();
+    
+    // Default constructor
+    public ExecutionStats() {}
+    
+    public ExecutionStats(String taskId) {
+        this.taskId = taskId;
+    }
+    
+    // Getters and Setters
+    public String getTaskId() {
+        return taskId;
+    }
+    
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+    
+    public long getRuns() {
+        return runs;
+    }
+    
+    public void setRuns(long runs) {
+        this.runs = runs;
+    }
+    
+    public long getFailures() {
+        return failures;
+    }
+    
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+    
+    public long getTotalDurationMs() {
+        return totalDurationMs;
+    }
+    
+    public void setTotalDurationMs(long totalDurationMs) {
+        this.totalDurationMs = totalDurationMs;
+    }
+    
+    public Map<String, Long> getDurationBuckets() {
+        return durationBuckets;
+    }
+    
+    public void setDurationBuckets(Map<String, Long> durationBuckets) {
+        this.durationBuckets = durationBuckets;
+    }
+    
+    @Override
+    public String toString() {
+        return "ExecutionStats{" +
+                "taskId='" + taskId + '\'' +
+                ", runs=" + runs +
+                ", failures=" + failures +
+                ", totalDurationMs=" + totalDurationMs +
+                ", durationBuckets=" + durationBuckets.size() +
+                '}';
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.taskmanagement.model;
+
+/**
+ * Lifecycle status of a task execution
+ */
+public enum ExecutionStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    TIMED_OUT,
+    CANCELLED
+}
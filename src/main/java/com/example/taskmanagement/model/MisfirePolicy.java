@@ -0,0 +1,10 @@
+package com.example.taskmanagement.model;
+
+/**
+ * What a schedule does when a fire time was missed by more than the misfire threshold,
+ * for example because the execution pool was saturated
+ */
+public enum MisfirePolicy {
+    FIRE_NOW,
+    SKIP
+}
@@ -0,0 +1,88 @@
+package com.example.taskmanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Execution output shared by all executions that produced the same content, keyed by its SHA-256.
+ * The blob is removed once no stored execution references it any more.
+ */
+@Document(collection = "output_blobs")
+public class OutputBlob {
+    
+    @Id
+    private String hash;
+    
+    // UTF-8 bytes of the output, deflated when that makes them smaller
+    private byte[] data;
+    
+    private boolean compressed;
+    
+    // Size of the output before compression, in bytes
+    private long size;
+    
+    // Number of stored executions with this output
+    private long refs;
+    
+    // Default constructor
+    public OutputBlob() {}
+    
+    public OutputBlob(String hash, byte[] data, boolean compressed, long size) {
+        this.hash = hash;
+        this.data = data;
+        this.compressed = compressed;
+        this.size = size;
+    }
+    
+    // Getters and Setters
+    public String getHash() {
+        return hash;
+    }
+    
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+    
+    public byte[] getData() {
+        return data;
+    }
+    
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+    
+    public boolean isCompressed() {
+        return compressed;
+    }
+    
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public void setSize(long size) {
+        this.size = size;
+    }
+    
+    public long getRefs() {
+        return refs;
+    }
+    
+    public void setRefs(long refs) {
+        this.refs = refs;
+    }
+    
+    @Override
+    public String toString() {
+        return "OutputBlob{" +
+                "hash='" + hash + '\'' +
+                ", size=" + size +
+                ", stored=" + (data != null ? data.length : 0) +
+                ", compressed=" + compressed +
+                ", refs=" + refs +
+                '}';
+    }
+}
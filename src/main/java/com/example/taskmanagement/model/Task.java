@@ -1,11 +1,20 @@
 package com.example.taskmanagement.model;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -20,12 +29,46 @@ public class Task {
     @NotBlank(message = "Task name is required")
     private String name;
     
+    // Indexed for owner-level statistics and batch selection by owner
     @NotBlank(message = "Task owner is required")
+    @Indexed(name = "owner_idx")
     private String owner;
     
     @NotBlank(message = "Command is required")
     private String command;
     
+    // Read-only commands may opt in to having their result reused for a while instead of running again
+    private boolean idempotent;
+    
+    // How long a result of an idempotent task is reused; the configured default when not set
+    private Integer resultTtlSeconds;
+    
+    // Time limit of each execution; the configured default when not set
+    @Min(value = 1, message = "Timeout must be at least 1 second")
+    private Integer timeoutSeconds;
+    
+    // Runs the task periodically when set, see TaskScheduler
+    @Valid
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private TaskSchedule schedule;
+    
+    // When the scheduler will next run the task; filled in on read, never stored
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss.SSSXXX")
+    private Date nextFireTime;
+    
+    // Search fields derived from the name on every save, see TaskNameIndex
+    @JsonIgnore
+    private String nameLower;
+    
+    @JsonIgnore
+    @Indexed(name = "name_grams_idx")
+    private List<String> nameGrams;
+    
+    // Executions live in the task_executions collection and are attached on read
+    @Transient
     @NotNull
     private List<TaskExecution> taskExecutions = new ArrayList<>();
     
@@ -82,6 +125,62 @@ public class Task {
         this.command = command;
     }
     
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+    
+    public void setIdempotent(boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+    
+    public Integer getResultTtlSeconds() {
+        return resultTtlSeconds;
+    }
+    
+    public void setResultTtlSeconds(Integer resultTtlSeconds) {
+        this.resultTtlSeconds = resultTtlSeconds;
+    }
+    
+    public Integer getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+    
+    public void setTimeoutSeconds(Integer timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+    
+    public TaskSchedule getSchedule() {
+        return schedule;
+    }
+    
+    public void setSchedule(TaskSchedule schedule) {
+        this.schedule = schedule;
+    }
+    
+    public Date getNextFireTime() {
+        return nextFireTime;
+    }
+    
+    public void setNextFireTime(Date nextFireTime) {
+        this.nextFireTime = nextFireTime;
+    }
+    
+    public String getNameLower() {
+        return nameLower;
+    }
+    
+    public void setNameLower(String nameLower) {
+        this.nameLower = nameLower;
+    }
+    
+    public List<String> getNameGrams() {
+        return nameGrams;
+    }
+    
+    public void setNameGrams(List<String> nameGrams) {
+        this.nameGrams = nameGrams;
+    }
+    
     public List<TaskExecution> getTaskExecutions() {
         return taskExecutions;
     }
@@ -104,6 +203,10 @@ public class Task {
                 ", name='" + name + '\'' +
                 ", owner='" + owner + '\'' +
                 ", command='" + command + '\'' +
+                ", idempotent=" + idempotent +
+                ", resultTtlSeconds=" + resultTtlSeconds +
+                ", timeoutSeconds=" + timeoutSeconds +
+                ", schedule=" + schedule +
                 ", taskExecutions=" + taskExecutions +
                 '}';
     }
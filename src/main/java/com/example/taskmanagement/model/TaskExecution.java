@@ -1,19 +1,29 @@
 package com.example.taskmanagement.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotNull;
 import java.util.Date;
 
 /**
- * TaskExecution entity representing the execution of a task command
+ * TaskExecution entity representing the execution of a task command.
+ * Stored in its own collection, keyed by the owning task and start time.
  */
+@Document(collection = "task_executions")
+@CompoundIndex(name = "task_start_idx", def = "{'taskId': 1, 'startTime': -1}")
 public class TaskExecution {
     
     @Id
     private String id;
     
+    private String taskId;
+    
     @NotNull(message = "Start time is required")
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss.SSSXXX")
     private Date startTime;
@@ -23,6 +33,29 @@ public class TaskExecution {
     
     private String output;
     
+    private ExecutionStatus status;
+    
+    private Integer exitCode;
+    
+    // Total size of the command output; output itself may only hold a head/tail preview
+    private long outputBytes;
+    
+    private boolean outputTruncated;
+    
+    // Location of the complete output when it was too large to keep in the document
+    @JsonIgnore
+    private String outputRef;
+    
+    // Content hash of the output when it is stored in the shared output_blobs collection;
+    // output is then left out of the stored document and filled in on read
+    @JsonIgnore
+    private String outputHash;
+    
+    // Set on a memoized result returned in place of a new execution; never stored
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean cached;
+    
     // Default constructor
     public TaskExecution() {}
     
@@ -42,6 +75,14 @@ public class TaskExecution {
         this.id = id;
     }
     
+    public String getTaskId() {
+        return taskId;
+    }
+    
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+    
     public Date getStartTime() {
         return startTime;
     }
@@ -66,13 +107,75 @@ public class TaskExecution {
         this.output = output;
     }
     
+    public ExecutionStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(ExecutionStatus status) {
+        this.status = status;
+    }
+    
+    public Integer getExitCode() {
+        return exitCode;
+    }
+    
+    public void setExitCode(Integer exitCode) {
+        this.exitCode = exitCode;
+    }
+    
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+    
+    public void setOutputBytes(long outputBytes) {
+        this.outputBytes = outputBytes;
+    }
+    
+    public boolean isOutputTruncated() {
+        return outputTruncated;
+    }
+    
+    public void setOutputTruncated(boolean outputTruncated) {
+        this.outputTruncated = outputTruncated;
+    }
+    
+    public String getOutputRef() {
+        return outputRef;
+    }
+    
+    public void setOutputRef(String outputRef) {
+        this.outputRef = outputRef;
+    }
+    
+    public String getOutputHash() {
+        return outputHash;
+    }
+    
+    public void setOutputHash(String outputHash) {
+        this.outputHash = outputHash;
+    }
+    
+    public boolean isCached() {
+        return cached;
+    }
+    
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+    
     @Override
     public String toString() {
         return "TaskExecution{" +
                 "id='" + id + '\'' +
+                ", taskId='" + taskId + '\'' +
                 ", startTime=" + startTime +
                 ", endTime=" + endTime +
                 ", output='" + output + '\'' +
+                ", status=" + status +
+                ", exitCode=" + exitCode +
+                ", outputBytes=" + outputBytes +
+                ", outputTruncated=" + outputTruncated +
+                ", cached=" + cached +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.example.taskmanagement.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Objects;
+
+/**
+ * When a task runs on its own: either a cron expression or a fixed rate
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskSchedule {
+    
+    // Spring cron syntax with seconds, e.g. "0 */5 * * * *"
+    private String cron;
+    
+    private Long fixedRateSeconds;
+    
+    // Time zone the cron expression is evaluated in; the server's zone when not set
+    private String zone;
+    
+    // Each run is delayed by a stable per-task offset below this; the configured default when not set
+    private Integer jitterSeconds;
+    
+    private MisfirePolicy misfirePolicy;
+    
+    // Default constructor
+    public TaskSchedule() {}
+    
+    // Copy constructor
+    public TaskSchedule(TaskSchedule other) {
+        this.cron = other.cron;
+        this.fixedRateSeconds = other.fixedRateSeconds;
+        this.zone = other.zone;
+        this.jitterSeconds = other.jitterSeconds;
+        this.misfirePolicy = other.misfirePolicy;
+    }
+    
+    // Getters and Setters
+    public String getCron() {
+        return cron;
+    }
+    
+    public void setCron(String cron) {
+        this.cron = cron;
+    }
+    
+    public Long getFixedRateSeconds() {
+        return fixedRateSeconds;
+    }
+    
+    public void setFixedRateSeconds(Long fixedRateSeconds) {
+        this.fixedRateSeconds = fixedRateSeconds;
+    }
+    
+    public String getZone() {
+        return zone;
+    }
+    
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+    
+    public Integer getJitterSeconds() {
+        return jitterSeconds;
+    }
+    
+    public void setJitterSeconds(Integer jitterSeconds) {
+        this.jitterSeconds = jitterSeconds;
+    }
+    
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+    
+    public void setMisfirePolicy(MisfirePolicy misfirePolicy) {
+        this.misfirePolicy = misfirePolicy;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TaskSchedule)) {
+            return false;
+        }
+        TaskSchedule other = (TaskSchedule) o;
+        return Objects.equals(cron, other.cron)
+                && Objects.equals(fixedRateSeconds, other.fixedRateSeconds)
+                && Objects.equals(zone, other.zone)
+                && Objects.equals(jitterSeconds, other.jitterSeconds)
+                && misfirePolicy == other.misfirePolicy;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(cron, fixedRateSeconds, zone, jitterSeconds, misfirePolicy);
+    }
+    
+    @Override
+    public String toString() {
+        return "TaskSchedule{" +
+                "cron='" + cron + '\'' +
+                ", fixedRateSeconds=" + fixedRateSeconds +
+                ", zone='" + zone + '\'' +
+                ", jitterSeconds=" + jitterSeconds +
+                ", misfirePolicy=" + misfirePolicy +
+                '}';
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.taskmanagement.repository;
+
+import com.example.taskmanagement.model.ExecutionRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for ExecutionRollup entity operations, keyed by task ID
+ */
+@Repository
+public interface ExecutionRollupRepository extends MongoRepository<ExecutionRollup, String> {
+}
@@ -0,0 +1,60 @@
+package com.example.taskmanagement.repository;
+
+import com.example.taskmanagement.model.TaskExecution;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for TaskExecution entity operations
+ */
+@Repository
+public interface TaskExecutionRepository extends MongoRepository<TaskExecution, String> {
+    
+    /**
+     * Find all executions of a task in chronological order
+     * @param taskId The task ID
+     * @return List of executions, oldest first
+     */
+    List<TaskExecution> findByTaskIdOrderByStartTimeAsc(String taskId);
+    
+    /**
+     * Find the most recent executions of a task
+     * @param taskId The task ID
+     * @param pageable Page limiting the number of executions returned
+     * @return List of executions, newest first
+     */
+    List<TaskExecution> findByTaskIdOrderByStartTimeDesc(String taskId, Pageable pageable);
+    
+    /**
+     * Find all executions of the given tasks in chronological order
+     * @param taskIds The task IDs
+     * @return List of executions, oldest first
+     */
+    List<TaskExecution> findByTaskIdInOrderByStartTimeAsc(Collection<String> taskIds);
+    
+    /**
+     * Find a single execution belonging to a task
+     * @param id The execution ID
+     * @param taskId The task ID
+     * @return Optional TaskExecution
+     */
+    Optional<TaskExecution> findByIdAndTaskId(String id, String taskId);
+    
+    /**
+     * Find the executions of a task whose full output was spilled outside the document
+     * @param taskId The task ID
+     * @return List of executions with an output reference
+     */
+    List<TaskExecution> findByTaskIdAndOutputRefNotNull(String taskId);
+    
+    /**
+     * Delete all executions of a task
+     * @param taskId The task ID
+     */
+    void deleteByTaskId(String taskId);
+}
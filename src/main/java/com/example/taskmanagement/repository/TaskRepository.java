@@ -2,7 +2,6 @@ package com.example.taskmanagement.repository;
 
 import com.example.taskmanagement.model.Task;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,14 +13,6 @@ import java.util.Optional;
 @Repository
 public interface TaskRepository extends MongoRepository<Task, String> {
     
-    /**
-     * Find tasks by name containing the given string (case-insensitive)
-     * @param name The string to search for in task names
-     * @return List of tasks with names containing the search string
-     */
-    @Query("{'name': {'$regex': ?0, '$options': 'i'}}")
-    List<Task> findByNameContainingIgnoreCase(String name);
-    
     /**
      * Find task by exact ID
      * @param id The task ID
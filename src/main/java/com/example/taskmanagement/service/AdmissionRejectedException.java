@@ -0,0 +1,23 @@
+package com.example.taskmanagement.service;
+
+/**
+ * Thrown when an execution is refused because its owner exceeded their rate or concurrency limit
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final long retryAfterSeconds;
+    
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    /**
+     * @return Seconds after which the request may succeed, for the Retry-After header
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
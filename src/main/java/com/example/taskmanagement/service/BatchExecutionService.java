@@ -0,0 +1,320 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.dto.BatchExecutionRequest;
+import com.example.taskmanagement.dto.BatchExecutionResult;
+import com.example.taskmanagement.dto.BatchItemResult;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs many tasks in one call. A batch is executed by a number of workers, capped by the requested
+ * and configured parallelism, that take tasks from a shared queue; finished executions are stored
+ * in batches rather than one insert per task. Each task is admitted against its owner's limits
+ * before it runs, and reported as rejected if its owner is over them.
+ */
+@Service
+public class BatchExecutionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchExecutionService.class);
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private CommandExecutionService commandExecutionService;
+    
+    @Autowired
+    private CommandValidationCache commandValidationCache;
+    
+    @Autowired
+    private ExecutionHistoryService executionHistoryService;
+    
+    @Autowired
+    private OwnerAdmissionControl admissionControl;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${task-management.batch.max-tasks:1000}")
+    private int maxTasks;
+    
+    @Value("${task-management.batch.default-parallelism:8}")
+    private int defaultParallelism;
+    
+    @Value("${task-management.batch.max-parallelism:32}")
+    private int maxParallelism;
+    
+    @Value("${task-management.batch.queue-capacity:256}")
+    private int queueCapacity;
+    
+    @Value("${task-management.batch.persist-batch-size:50}")
+    private int persistBatchSize;
+    
+    @Value("${task-management.batch.output-preview-chars:1024}")
+    private int outputPreviewChars;
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            maxParallelism, maxParallelism, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "batch-exec-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+    
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * A resolved batch, ready to run
+     */
+    public static class Plan {
+        private final List<Task> tasks;
+        private final List<BatchItemResult> skipped;
+        private final int parallelism;
+        
+        Plan(List<Task> tasks, List<BatchItemResult> skipped, int parallelism) {
+            this.tasks = tasks;
+            this.skipped = skipped;
+            this.parallelism = parallelism;
+        }
+        
+        public int size() {
+            return tasks.size() + skipped.size();
+        }
+    }
+    
+    /**
+     * Resolve the tasks of a batch. Tasks that do not exist or whose command is invalid are reported
+     * as skipped rather than failing the batch.
+     * @param request Task IDs, or an owner and/or name filter
+     * @return Plan to pass to {@link #start} or {@link #run}
+     * @throws IllegalArgumentException if the request does not give exactly one kind of selection,
+     *                                  or selects too many tasks
+     */
+    public Plan plan(BatchExecutionRequest request) {
+        boolean byId = request.getTaskIds() != null && !request.getTaskIds().isEmpty();
+        boolean byFilter = isSet(request.getOwner()) || isSet(request.getName());
+        if (byId == byFilter) {
+            throw new IllegalArgumentException("Specify either taskIds or an owner and/or name filter");
+        }
+        
+        List<BatchItemResult> skipped = new ArrayList<>();
+        List<Task> tasks;
+        if (byId) {
+            List<String> taskIds = new ArrayList<>(new LinkedHashSet<>(request.getTaskIds()));
+            checkSize(taskIds.size());
+            Map<String, Task> found = find(Criteria.where("_id").in(taskIds), taskIds.size()).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+            tasks = new ArrayList<>(taskIds.size());
+            for (String taskId : taskIds) {
+                Task task = found.get(taskId);
+                if (task != null) {
+                    tasks.add(task);
+                } else {
+                    skipped.add(BatchItemResult.skipped(taskId, "Task not found with ID: " + taskId));
+                }
+            }
+        } else {
+            Criteria criteria = isSet(request.getName())
+                ? TaskNameIndex.containing(request.getName().trim()) : new Criteria();
+            if (isSet(request.getOwner())) {
+                criteria = criteria.and("owner").is(request.getOwner().trim());
+            }
+            tasks = find(criteria, maxTasks + 1);
+            checkSize(tasks.size());
+        }
+        
+        List<Task> runnable = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            CommandValidationService.ValidationResult validationResult =
+                commandValidationCache.validateCommand(task.getCommand());
+            if (validationResult.isValid()) {
+                runnable.add(task);
+            } else {
+                skipped.add(BatchItemResult.skipped(task.getId(),
+                    "Command validation failed: " + validationResult.getMessage()));
+            }
+        }
+        
+        int requested = request.getParallelism() != null ? request.getParallelism() : defaultParallelism;
+        int parallelism = Math.max(1, Math.min(Math.min(requested, maxParallelism), Math.max(1, runnable.size())));
+        return new Plan(runnable, skipped, parallelism);
+    }
+    
+    /**
+     * Start running a planned batch
+     * @param plan Resolved batch
+     * @param results Receives each result as soon as it is known, possibly from several threads at once;
+     *                must not throw
+     * @return Completes once every task has finished and all executions are stored
+     * @throws RejectedExecutionException if the batch workers are saturated
+     */
+    public CompletableFuture<Void> start(Plan plan, Consumer<BatchItemResult> results) {
+        plan.skipped.forEach(results);
+        if (plan.tasks.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        Queue<Task> pending = new ConcurrentLinkedQueue<>(plan.tasks);
+        List<TaskExecution> unsaved = new ArrayList<>();
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        // One share per worker plus one for this thread while it submits;
+        // whoever releases the last share stores the remaining executions
+        AtomicInteger shares = new AtomicInteger(plan.parallelism + 1);
+        Runnable release = () -> {
+            if (shares.decrementAndGet() == 0) {
+                persist(unsaved);
+                finished.complete(null);
+            }
+        };
+        Runnable worker = () -> {
+            try {
+                Task task;
+                while ((task = pending.poll()) != null) {
+                    TaskExecution execution = execute(task, results);
+                    if (execution == null) {
+                        continue;
+                    }
+                    List<TaskExecution> toSave = null;
+                    synchronized (unsaved) {
+                        unsaved.add(execution);
+                        if (unsaved.size() >= persistBatchSize) {
+                            toSave = new ArrayList<>(unsaved);
+                            unsaved.clear();
+                        }
+                    }
+                    if (toSave != null) {
+                        persist(toSave);
+                    }
+                }
+            } finally {
+                release.run();
+            }
+        };
+        
+        int started = 0;
+        try {
+            for (; started < plan.parallelism; started++) {
+                executor.execute(worker);
+            }
+        } catch (RejectedExecutionException e) {
+            if (started == 0) {
+                logger.warn("Batch execution workers saturated, rejecting batch of {} tasks", plan.tasks.size());
+                throw e;
+            }
+            // The workers that did start work through the whole queue
+            logger.debug("Batch running with {} of {} workers", started, plan.parallelism);
+            shares.addAndGet(started - plan.parallelism);
+        }
+        release.run();
+        return finished;
+    }
+    
+    /**
+     * Run a planned batch and wait for all results
+     * @param plan Resolved batch
+     * @return Aggregated result
+     * @throws RejectedExecutionException if the batch workers are saturated
+     * @throws InterruptedException if interrupted while waiting; the remaining tasks still run
+     */
+    public BatchExecutionResult run(Plan plan) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        List<BatchItemResult> items = Collections.synchronizedList(new ArrayList<>(plan.size()));
+        try {
+            start(plan, items::add).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return new BatchExecutionResult(new ArrayList<>(items), System.currentTimeMillis() - startTime);
+    }
+    
+    private TaskExecution execute(Task task, Consumer<BatchItemResult> results) {
+        try {
+            admissionControl.acquire(task.getOwner());
+        } catch (AdmissionRejectedException e) {
+            results.accept(BatchItemResult.rejected(task.getId(), e.getMessage(), e.getRetryAfterSeconds()));
+            return null;
+        }
+        TaskExecution execution;
+        try {
+            execution = commandExecutionService.executeCommand(task.getCommand(), taskService.newExecution(),
+                task.getTimeoutSeconds());
+            execution.setTaskId(task.getId());
+        } catch (Exception e) {
+            logger.error("Batch execution of task {} failed", task.getId(), e);
+            results.accept(BatchItemResult.skipped(task.getId(), "Execution failed: " + e.getMessage()));
+            return null;
+        } finally {
+            admissionControl.release(task.getOwner());
+        }
+        results.accept(BatchItemResult.executed(task.getId(), execution, outputPreviewChars));
+        return execution;
+    }
+    
+    private void persist(List<TaskExecution> executions) {
+        if (executions.isEmpty()) {
+            return;
+        }
+        try {
+            executionHistoryService.recordAll(executions);
+        } catch (Exception e) {
+            logger.error("Failed to record {} batch executions", executions.size(), e);
+        }
+    }
+    
+    private List<Task> find(Criteria criteria, int limit) {
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        query.fields().include("_id").include("name").include("owner").include("command").include("timeoutSeconds");
+        return mongoTemplate.find(query, Task.class);
+    }
+    
+    private void checkSize(int size) {
+        if (size > maxTasks) {
+            throw new IllegalArgumentException("At most " + maxTasks + " tasks can be executed per batch");
+        }
+    }
+    
+    private static boolean isSet(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.taskmanagement.service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Captures process output in a fixed amount of memory.
+ * The first {@code headLimit} and the last {@code tailLimit} bytes are retained for a preview;
+ * once the output no longer fits, the complete stream is written to a spill file instead.
+ */
+public class BoundedOutputCapture implements Closeable {
+    
+    private final byte[] head;
+    private final byte[] tail;
+    private final Path spillDir;
+    private final String spillName;
+    
+    private int headLength;
+    // Ring buffer over tail: tailStart is the oldest byte, tailLength the number of valid bytes
+    private int tailStart;
+    private int tailLength;
+    private long totalBytes;
+    
+    private Path spillFile;
+    private OutputStream spillStream;
+    
+    /**
+     * @param headLimit Number of leading bytes to keep in memory
+     * @param tailLimit Number of trailing bytes to keep in memory
+     * @param spillDir Directory for the full output once it exceeds the limits, or null to discard the middle
+     * @param spillName File name prefix for the spill file
+     */
+    public BoundedOutputCapture(int headLimit, int tailLimit, Path spillDir, String spillName) {
+        this.head = new byte[Math.max(0, headLimit)];
+        this.tail = new byte[Math.max(0, tailLimit)];
+        this.spillDir = spillDir;
+        this.spillName = spillName;
+    }
+    
+    /**
+     * Append a chunk of output
+     * @param buffer Source buffer
+     * @param offset Offset of the first byte
+     * @param length Number of bytes
+     * @throws IOException if the spill file cannot be written
+     */
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+        if (spillStream == null && spillDir != null && totalBytes + length > head.length + tail.length) {
+            openSpill();
+        }
+        if (spillStream != null) {
+            spillStream.write(buffer, offset, length);
+        }
+        totalBytes += length;
+        
+        int toHead = Math.min(length, head.length - headLength);
+        System.arraycopy(buffer, offset, head, headLength, toHead);
+        headLength += toHead;
+        offset += toHead;
+        length -= toHead;
+        
+        if (length > 0 && tail.length > 0) {
+            // Only the last tail.length bytes of this chunk can survive
+            if (length > tail.length) {
+                offset += length - tail.length;
+                length = tail.length;
+            }
+            int writePosition = (tailStart + tailLength) % tail.length;
+            int firstPart = Math.min(length, tail.length - writePosition);
+            System.arraycopy(buffer, offset, tail, writePosition, firstPart);
+            System.arraycopy(buffer, offset + firstPart, tail, 0, length - firstPart);
+            
+            int newLength = tailLength + length;
+            if (newLength > tail.length) {
+                // The oldest bytes were overwritten
+                tailStart = (tailStart + newLength - tail.length) % tail.length;
+                tailLength = tail.length;
+            } else {
+                tailLength = newLength;
+            }
+        }
+    }
+    
+    /**
+     * @return Total number of bytes written, including any that were not retained in memory
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    /**
+     * @return true if some of the output is missing from the preview
+     */
+    public boolean isTruncated() {
+        return totalBytes > headLength + tailLength;
+    }
+    
+    /**
+     * @return The file holding the complete output, or null if everything fit in memory or spilling is disabled
+     */
+    public Path getSpillFile() {
+        return spillFile;
+    }
+    
+    /**
+     * Build a preview of the output: everything if it fit, otherwise head and tail around an omission marker
+     * @param charset Charset used to decode the output
+     * @return Preview text
+     */
+    public String preview(Charset charset) {
+        byte[] tailBytes = tailInOrder();
+        if (!isTruncated()) {
+            byte[] all = new byte[headLength + tailBytes.length];
+            System.arraycopy(head, 0, all, 0, headLength);
+            System.arraycopy(tailBytes, 0, all, headLength, tailBytes.length);
+            return new String(all, charset);
+        }
+        long omitted = totalBytes - headLength - tailLength;
+        return new String(head, 0, headLength, charset)
+                + "\n... [" + omitted + " bytes omitted] ...\n"
+                + new String(tailBytes, charset);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (spillStream != null) {
+            spillStream.close();
+            spillStream = null;
+        }
+    }
+    
+    private void openSpill() throws IOException {
+        Files.createDirectories(spillDir);
+        spillFile = Files.createTempFile(spillDir, spillName + "-", ".log");
+        spillStream = new BufferedOutputStream(Files.newOutputStream(spillFile));
+        // Everything so far is still in memory, in order: the head followed by the tail
+        spillStream.write(head, 0, headLength);
+        spillStream.write(tailInOrder());
+    }
+    
+    private byte[] tailInOrder() {
+        byte[] ordered = new byte[tailLength];
+        int firstPart = Math.min(tailLength, tail.length - tailStart);
+        System.arraycopy(tail, tailStart, ordered, 0, firstPart);
+        System.arraycopy(tail, 0, ordered, firstPart, tailLength - firstPart);
+        return ordered;
+    }
+}
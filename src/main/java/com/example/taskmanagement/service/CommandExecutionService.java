@@ -1,24 +1,87 @@
 package com.example.taskmanagement.service;
 
+import com.example.taskmanagement.model.ExecutionStatus;
 import com.example.taskmanagement.model.TaskExecution;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
- * Service for executing shell commands and capturing their output
+ * Service for executing shell commands and capturing their output.
+ * Commands that need no shell features are executed directly from their parsed arguments,
+ * saving the start of an intermediate shell; all others run through {@code sh -c}.
  */
 @Service
 public class CommandExecutionService {
     
     private static final Logger logger = LoggerFactory.getLogger(CommandExecutionService.class);
-    private static final int COMMAND_TIMEOUT_SECONDS = 30; // 30 seconds timeout
+    private static final int READ_CHUNK_BYTES = 8192;
+    private static final boolean WINDOWS = System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("win");
+    
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+    
+    @Autowired
+    private CommandValidationCache commandValidationCache;
+    
+    @Value("${task-management.execution.direct-exec:true}")
+    private boolean directExec = true;
+    
+    @Value("${task-management.execution.default-timeout-seconds:30}")
+    private int defaultTimeoutSeconds = 30;
+    
+    @Value("${task-management.execution.max-timeout-seconds:3600}")
+    private int maxTimeoutSeconds = 3600;
+    
+    @Value("${task-management.execution.output.drain-timeout-ms:5000}")
+    private long drainTimeoutMs = 5000;
+    
+    @Value("${task-management.execution.output.head-bytes:65536}")
+    private int outputHeadBytes = 65536;
+    
+    @Value("${task-management.execution.output.tail-bytes:65536}")
+    private int outputTailBytes = 65536;
+    
+    @Value("${task-management.execution.output.spill-enabled:true}")
+    private boolean spillEnabled;
+    
+    @Value("${task-management.execution.output.spill-dir:${java.io.tmpdir}/task-management-output}")
+    private String spillDir;
+    
+    // Queued and running executions that can be cancelled, keyed by execution ID
+    private final Map<String, RunningCommand> runningCommands = new ConcurrentHashMap<>();
+    
+    // Reads command output; one thread per running command, reused between commands
+    private final ExecutorService outputPumps = Executors.newCachedThreadPool(new PumpThreadFactory());
+    
+    @PreDestroy
+    void stop() {
+        outputPumps.shutdownNow();
+    }
     
     /**
      * Executes a shell command and returns a TaskExecution with the results
@@ -26,79 +89,328 @@ public class CommandExecutionService {
      * @return TaskExecution containing execution details and output
      */
     public TaskExecution executeCommand(String command) {
+        return executeCommand(command, new TaskExecution());
+    }
+    
+    /**
+     * Executes a shell command and records the results on the given TaskExecution
+     * @param command The command to execute
+     * @param taskExecution The execution to populate (its ID, if any, is preserved)
+     * @return The populated TaskExecution
+     */
+    public TaskExecution executeCommand(String command, TaskExecution taskExecution) {
+        return executeCommand(command, taskExecution, OutputListener.NONE);
+    }
+    
+    /**
+     * Executes a shell command with a time limit and records the results on the given TaskExecution
+     * @param command The command to execute
+     * @param taskExecution The execution to populate (its ID, if any, is preserved)
+     * @param timeoutSeconds Time limit, or null for the configured default
+     * @return The populated TaskExecution
+     */
+    public TaskExecution executeCommand(String command, TaskExecution taskExecution, Integer timeoutSeconds) {
+        return executeCommand(command, taskExecution, OutputListener.NONE, timeoutSeconds);
+    }
+    
+    /**
+     * Executes a shell command, passing output to a listener as it is produced
+     * @param command The command to execute
+     * @param taskExecution The execution to populate (its ID, if any, is preserved)
+     * @param outputListener Listener receiving every chunk of output as it is read
+     * @return The populated TaskExecution
+     */
+    public TaskExecution executeCommand(String command, TaskExecution taskExecution, OutputListener outputListener) {
+        return executeCommand(command, taskExecution, outputListener, null);
+    }
+    
+    /**
+     * Executes a shell command, passing output to a listener as it is produced. Output is read on a
+     * separate thread while this one waits for the process with a deadline, so a command that never
+     * closes its output still times out. A command that times out or is cancelled is killed together
+     * with all processes it started. An execution with an ID can be cancelled while it runs.
+     * @param command The command to execute
+     * @param taskExecution The execution to populate (its ID, if any, is preserved)
+     * @param outputListener Listener receiving every chunk of output as it is read
+     * @param timeoutSeconds Time limit, or null for the configured default
+     * @return The populated TaskExecution
+     */
+    public TaskExecution executeCommand(String command, TaskExecution taskExecution, OutputListener outputListener,
+                                        Integer timeoutSeconds) {
         Date startTime = new Date();
-        StringBuilder output = new StringBuilder();
+        StringBuilder messages = new StringBuilder();
         Date endTime;
+        ExecutionStatus status = ExecutionStatus.FAILED;
+        Integer exitCode = null;
+        Charset charset = Charset.defaultCharset();
+        int timeout = resolveTimeout(timeoutSeconds);
+        BoundedOutputCapture capture = new BoundedOutputCapture(outputHeadBytes, outputTailBytes,
+            spillEnabled ? Paths.get(spillDir) : null,
+            taskExecution.getId() != null ? taskExecution.getId() : "execution");
+        Timer.Sample sample = executionMetrics.start();
+        ExecutionMetrics.Stages stages = executionMetrics.stages();
+        RunningCommand running = taskExecution.getId() != null
+            ? runningCommands.computeIfAbsent(taskExecution.getId(), id -> new RunningCommand()) : new RunningCommand();
         
         try {
-            logger.info("Executing command: {}", command);
-            
-            // Determine the appropriate command executor based on OS
-            ProcessBuilder processBuilder = createProcessBuilder(command);
-            processBuilder.redirectErrorStream(true); // Combine stdout and stderr
-            
-            Process process = processBuilder.start();
-            
-            // Read the output
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()))) {
+            if (running.isCancelled()) {
+                // Cancelled while it was still queued
+                status = ExecutionStatus.CANCELLED;
+                appendMessage(messages, "Command was cancelled before it started");
+                logger.info("Command cancelled before it started: {}", command);
+            } else {
+                logger.info("Executing command: {}", command);
+                
+                stages.begin(ExecutionMetrics.Stage.SPAWN);
+                Process process = startProcess(command, ProcessBuilder.Redirect.PIPE);
+                running.attach(process);
+                
+                // Read the output in fixed-size chunks on another thread; memory use is bounded by the capture limits
+                Future<?> pump = outputPumps.submit(() -> {
+                    pump(process, capture, outputListener);
+                    return null;
+                });
                 
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
+                // Wait for process to complete with a real deadline
+                stages.begin(ExecutionMetrics.Stage.WAIT);
+                boolean finished = process.waitFor(timeout, TimeUnit.SECONDS);
+                if (!finished) {
+                    destroyTree(process);
                 }
-            }
-            
-            // Wait for process to complete with timeout
-            boolean finished = process.waitFor(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            endTime = new Date();
-            
-            if (!finished) {
-                process.destroyForcibly();
-                output.append("Command timed out after ").append(COMMAND_TIMEOUT_SECONDS).append(" seconds");
-                logger.warn("Command timed out: {}", command);
-            } else {
-                int exitCode = process.exitValue();
-                if (exitCode != 0) {
-                    output.append("Command exited with code: ").append(exitCode);
-                    logger.warn("Command failed with exit code {}: {}", exitCode, command);
+                
+                // Collect the output that was still buffered when the process ended
+                stages.begin(ExecutionMetrics.Stage.READ);
+                drain(pump, process, command, !finished || running.isCancelled());
+                stages.end(true);
+                
+                if (running.isCancelled()) {
+                    status = ExecutionStatus.CANCELLED;
+                    executionMetrics.cancellation();
+                    appendMessage(messages, "Command was cancelled");
+                    logger.info("Command cancelled: {}", command);
+                } else if (!finished) {
+                    status = ExecutionStatus.TIMED_OUT;
+                    executionMetrics.timeout();
+                    appendMessage(messages, "Command timed out after " + timeout + " seconds");
+                    logger.warn("Command timed out: {}", command);
+                } else {
+                    exitCode = process.exitValue();
+                    if (exitCode != 0) {
+                        executionMetrics.nonZeroExit();
+                        appendMessage(messages, "Command exited with code: " + exitCode);
+                        logger.warn("Command failed with exit code {}: {}", exitCode, command);
+                    } else {
+                        status = ExecutionStatus.COMPLETED;
+                    }
                 }
             }
+            endTime = new Date();
             
         } catch (IOException e) {
             endTime = new Date();
-            output.append("Error executing command: ").append(e.getMessage());
+            stages.end(false);
+            executionMetrics.ioError();
+            appendMessage(messages, "Error executing command: " + e.getMessage());
             logger.error("IOException while executing command: {}", command, e);
         } catch (InterruptedException e) {
             endTime = new Date();
-            output.append("Command execution was interrupted: ").append(e.getMessage());
+            stages.end(false);
+            running.cancel();
+            appendMessage(messages, "Command execution was interrupted: " + e.getMessage());
             logger.error("InterruptedException while executing command: {}", command, e);
             Thread.currentThread().interrupt(); // Restore interrupted status
         } catch (Exception e) {
             endTime = new Date();
-            output.append("Unexpected error: ").append(e.getMessage());
+            stages.end(false);
+            running.cancel();
+            appendMessage(messages, "Unexpected error: " + e.getMessage());
             logger.error("Unexpected error while executing command: {}", command, e);
+        } finally {
+            if (taskExecution.getId() != null) {
+                runningCommands.remove(taskExecution.getId(), running);
+            }
+            closeQuietly(capture);
         }
         
-        TaskExecution taskExecution = new TaskExecution();
+        String preview;
+        synchronized (capture) {
+            preview = capture.preview(charset);
+        }
         taskExecution.setStartTime(startTime);
         taskExecution.setEndTime(endTime);
-        taskExecution.setOutput(output.toString().trim());
+        taskExecution.setOutput(joinOutput(preview, messages).trim());
+        taskExecution.setStatus(status);
+        taskExecution.setExitCode(exitCode);
+        taskExecution.setOutputBytes(capture.getTotalBytes());
+        taskExecution.setOutputTruncated(capture.isTruncated());
+        Path spillFile = capture.getSpillFile();
+        taskExecution.setOutputRef(spillFile != null ? spillFile.toAbsolutePath().toString() : null);
+        executionMetrics.outputBytes(capture.getTotalBytes());
+        executionMetrics.command(sample, status);
         
-        logger.info("Command execution completed: {} -> {}", command, taskExecution.getOutput());
+        logger.info("Command execution completed: {} -> {} ({} bytes of output{})", command, status,
+                   capture.getTotalBytes(), capture.isTruncated() ? ", truncated" : "");
         return taskExecution;
     }
     
     /**
-     * Creates a ProcessBuilder appropriate for the current operating system
+     * Allow an execution to be cancelled before it starts, while it waits in a queue.
+     * Must be followed by running or {@link #release releasing} the execution.
+     * @param executionId Execution ID
+     */
+    public void reserve(String executionId) {
+        runningCommands.putIfAbsent(executionId, new RunningCommand());
+    }
+    
+    /**
+     * Forget a reserved execution that will not run
+     * @param executionId Execution ID
+     */
+    public void release(String executionId) {
+        runningCommands.remove(executionId);
+    }
+    
+    /**
+     * Cancel a queued or running execution, killing its command and every process the command started
+     * @param executionId Execution ID
+     * @return false if no such execution is queued or running
+     */
+    public boolean cancel(String executionId) {
+        RunningCommand running = runningCommands.get(executionId);
+        if (running == null) {
+            return false;
+        }
+        logger.info("Cancelling execution {}", executionId);
+        running.cancel();
+        return true;
+    }
+    
+    /**
+     * @param timeoutSeconds Time limit of a task, or null
+     * @return The time limit to apply, in seconds
+     */
+    public int resolveTimeout(Integer timeoutSeconds) {
+        return timeoutSeconds != null ? timeoutSeconds : defaultTimeoutSeconds;
+    }
+    
+    /**
+     * Check the time limit of a task before it is saved
+     * @param timeoutSeconds Time limit, or null for the default
+     * @throws IllegalArgumentException if the limit exceeds the configured maximum
+     */
+    public void validateTimeout(Integer timeoutSeconds) {
+        if (timeoutSeconds != null && timeoutSeconds > maxTimeoutSeconds) {
+            throw new IllegalArgumentException("Timeout must not exceed " + maxTimeoutSeconds + " seconds");
+        }
+    }
+    
+    /**
+     * Forcibly kill a process and all of its descendants
+     * @param process Process to kill
+     */
+    public static void destroyTree(Process process) {
+        // Collect the descendants first; once the parent is gone they are no longer reachable from it
+        List<ProcessHandle> descendants = process.descendants().collect(Collectors.toList());
+        process.destroyForcibly();
+        descendants.forEach(ProcessHandle::destroyForcibly);
+    }
+    
+    private void pump(Process process, BoundedOutputCapture capture, OutputListener outputListener) throws IOException {
+        try (InputStream input = process.getInputStream()) {
+            byte[] chunk = new byte[READ_CHUNK_BYTES];
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                synchronized (capture) {
+                    capture.write(chunk, 0, read);
+                }
+                outputListener.onOutput(chunk, 0, read);
+            }
+        }
+    }
+    
+    private void drain(Future<?> pump, Process process, String command, boolean killed)
+            throws IOException, InterruptedException {
+        try {
+            pump.get(drainTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (killed && e.getCause() instanceof IOException) {
+                // Killing the process may close its output while it is being read
+                logger.debug("Output of killed command ended with: {}", e.getCause().getMessage());
+            } else if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else {
+                throw new IllegalStateException(e.getCause());
+            }
+        } catch (TimeoutException e) {
+            // A process that escaped the kill still holds the output open; stop waiting for it
+            logger.warn("Output of command did not end {} ms after it exited, abandoning it: {}", drainTimeoutMs, command);
+            destroyTree(process);
+            pump.cancel(true);
+        }
+    }
+    
+    private void appendMessage(StringBuilder messages, String message) {
+        if (messages.length() > 0) {
+            messages.append('\n');
+        }
+        messages.append(message);
+    }
+    
+    private String joinOutput(String preview, StringBuilder messages) {
+        if (messages.length() == 0) {
+            return preview;
+        }
+        if (preview.isEmpty() || preview.endsWith("\n")) {
+            return preview + messages;
+        }
+        return preview + "\n" + messages;
+    }
+    
+    private void closeQuietly(BoundedOutputCapture capture) {
+        try {
+            capture.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close output spill file {}", capture.getSpillFile(), e);
+        }
+    }
+    
+    /**
+     * Starts a command with stderr merged into stdout, directly if it needs no shell
+     * @param command The command to execute, already validated
+     * @param output Where the combined output goes
+     * @return The started process
+     * @throws IOException if the process cannot be started
+     */
+    public Process startProcess(String command, ProcessBuilder.Redirect output) throws IOException {
+        List<String> argv = directArgv(command);
+        if (argv != null) {
+            try {
+                return new ProcessBuilder(argv).redirectErrorStream(true).redirectOutput(output).start();
+            } catch (IOException e) {
+                // Not an executable on the PATH; the shell reports it the same way it always has
+                logger.debug("Direct execution of {} failed, falling back to the shell: {}", argv.get(0), e.getMessage());
+            }
+        }
+        return createProcessBuilder(command).redirectErrorStream(true).redirectOutput(output).start();
+    }
+    
+    private List<String> directArgv(String command) {
+        if (!directExec || WINDOWS || commandValidationCache == null) {
+            return null;
+        }
+        CommandValidationService.ValidationResult validationResult = commandValidationCache.validateCommand(command);
+        return validationResult.isValid() ? validationResult.getArgv() : null;
+    }
+    
+    /**
+     * Creates a ProcessBuilder running the command through the shell of the current operating system
      * @param command The command to execute
      * @return ProcessBuilder configured for the current OS
      */
     private ProcessBuilder createProcessBuilder(String command) {
-        String os = System.getProperty("os.name").toLowerCase();
         ProcessBuilder processBuilder;
         
-        if (os.contains("win")) {
+        if (WINDOWS) {
             // Windows
             processBuilder = new ProcessBuilder("cmd", "/c", command);
         } else {
@@ -108,4 +420,44 @@ public class CommandExecutionService {
         
         return processBuilder;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Cancellation state of one execution and its process, once started
+     */
+    private static final class RunningCommand {
+        private boolean cancelled;
+        private Process process;
+        
+        synchronized void attach(Process process) {
+            this.process = process;
+            if (cancelled) {
+                destroyTree(process);
+            }
+        }
+        
+        synchronized void cancel() {
+            cancelled = true;
+            if (process != null) {
+                destroyTree(process);
+            }
+        }
+        
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+    }
+    
+    /**
+     * Names output reader threads so they are recognisable in thread dumps
+     */
+    private static class PumpThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "output-pump-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.taskmanagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Bounded cache of command validation verdicts, shared by task saves and executions.
+ * Entries are keyed by the exact command and the version of the rules that produced them,
+ * and are evicted by size and age. Hits and misses are published as cache.* metrics.
+ */
+@Service
+public class CommandValidationCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CommandValidationCache.class);
+    
+    static final String CACHE_NAME = "command-validation";
+    
+    @Autowired
+    private CommandValidationService commandValidationService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${task-management.validation.cache.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${task-management.validation.cache.max-size:10000}")
+    private long maxSize = 10000;
+    
+    @Value("${task-management.validation.cache.ttl-seconds:3600}")
+    private long ttlSeconds = 3600;
+    
+    private Cache<Key, CommandValidationService.ValidationResult> cache;
+    
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        logger.info("Command validation cache: enabled={}, maxSize={}, ttl={}s", enabled, maxSize, ttlSeconds);
+    }
+    
+    /**
+     * Validate a command, reusing an earlier verdict for the same command and rules
+     * @param command The command to validate
+     * @return ValidationResult containing validation status and message
+     */
+    public CommandValidationService.ValidationResult validateCommand(String command) {
+        if (!enabled || command == null) {
+            return commandValidationService.validateCommand(command);
+        }
+        return cache.get(new Key(commandValidationService.getRulesVersion(), command),
+            key -> commandValidationService.validateCommand(key.command));
+    }
+    
+    /**
+     * Drop all cached verdicts
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+    
+    /**
+     * Cache key: a command under a specific version of the rules
+     */
+    private static final class Key {
+        private final int rulesVersion;
+        private final String command;
+        
+        Key(int rulesVersion, String command) {
+            this.rulesVersion = rulesVersion;
+            this.command = command;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return rulesVersion == other.rulesVersion && command.equals(other.command);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(rulesVersion, command);
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.taskmanagement.service;
 
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.Set;
 
 /**
- * Service for validating shell commands to prevent malicious code execution
+ * Service for validating shell commands to prevent malicious code execution.
+ * The rules are compiled once into a first-token hash table and an Aho-Corasick automaton,
+ * so each command is checked in a single pass without allocating.
+ * Accepted commands that use no shell features are also split into an argument vector,
+ * which lets them be executed directly instead of through {@code sh -c}.
  */
 @Service
 public class CommandValidationService {
@@ -25,22 +33,60 @@ public class CommandValidationService {
         "nc", "netcat", "telnet", "ssh", "ftp", "wget", "curl"
     );
     
-    // Patterns for dangerous operations
-    private static final List<Pattern> DANGEROUS_PATTERNS = Arrays.asList(
-        Pattern.compile(".*>.*", Pattern.CASE_INSENSITIVE), // File redirection
-        Pattern.compile(".*>>.*", Pattern.CASE_INSENSITIVE), // File append
-        Pattern.compile(".*\\|.*", Pattern.CASE_INSENSITIVE), // Piping (can be dangerous)
-        Pattern.compile(".*&.*", Pattern.CASE_INSENSITIVE), // Background execution
-        Pattern.compile(".*;.*", Pattern.CASE_INSENSITIVE), // Command chaining
-        Pattern.compile(".*&&.*", Pattern.CASE_INSENSITIVE), // Conditional execution
-        Pattern.compile(".*\\|\\|.*", Pattern.CASE_INSENSITIVE), // OR execution
-        Pattern.compile(".*`.*`.*", Pattern.CASE_INSENSITIVE), // Command substitution
-        Pattern.compile(".*\\$\\(.*\\).*", Pattern.CASE_INSENSITIVE), // Command substitution
-        Pattern.compile(".*<.*", Pattern.CASE_INSENSITIVE), // Input redirection
-        Pattern.compile(".*/dev/.*", Pattern.CASE_INSENSITIVE), // Device access
-        Pattern.compile(".*/proc/.*", Pattern.CASE_INSENSITIVE), // Process filesystem access
-        Pattern.compile(".*/sys/.*", Pattern.CASE_INSENSITIVE) // System filesystem access
+    // Substrings for dangerous operations (matched case-insensitively anywhere in the command)
+    private static final List<String> DANGEROUS_SUBSTRINGS = Arrays.asList(
+        ">", // File redirection
+        ">>", // File append
+        "|", // Piping (can be dangerous)
+        "&", // Background execution
+        ";", // Command chaining
+        "&&", // Conditional execution
+        "||", // OR execution
+        "<", // Input redirection
+        "/dev/", // Device access
+        "/proc/", // Process filesystem access
+        "/sys/", // System filesystem access
+        "\n", // Line breaks separate commands in a shell script
+        "\r"
     );
+    // Command substitution: `...` and $(...) are dangerous only when the closing part follows
+    private static final String BACKTICK = "`";
+    private static final String SUBSTITUTION_OPEN = "$(";
+    private static final char SUBSTITUTION_CLOSE = ')';
+    
+    private static final List<String> TRAVERSAL_SUBSTRINGS = Arrays.asList("../", "..\\");
+    
+    private static final List<String> SYSTEM_DIRECTORY_SUBSTRINGS = Arrays.asList("/etc/", "c:\\windows\\");
+    
+    // Characters that the shell would interpret outside of quotes: globs, braces, tilde, comments, subshells
+    private static final String SHELL_SYNTAX = "*?[]{}~#()!;&|<>";
+    
+    // Words that only the shell understands, or whose shell version behaves differently from the program
+    private static final Set<String> SHELL_ONLY_WORDS = new HashSet<>(Arrays.asList(
+        ".", ":", "alias", "bg", "break", "case", "cd", "command", "continue", "declare", "do", "done",
+        "elif", "else", "esac", "eval", "exec", "exit", "export", "fg", "fi", "for", "function",
+        "getopts", "hash", "if", "jobs", "let", "local", "read", "readonly", "return", "select",
+        "set", "shift", "source", "then", "time", "times", "trap", "type", "typeset", "ulimit",
+        "umask", "unalias", "unset", "until", "wait", "while"
+    ));
+    
+    private static final ValidationResult EMPTY =
+        new ValidationResult(false, "Command cannot be empty");
+    private static final ValidationResult DANGEROUS_PATTERN =
+        new ValidationResult(false, "Command contains dangerous patterns and is not allowed");
+    private static final ValidationResult TRAVERSAL =
+        new ValidationResult(false, "Directory traversal is not allowed");
+    private static final ValidationResult SYSTEM_DIRECTORY =
+        new ValidationResult(false, "Access to system directories is not allowed");
+    private static final ValidationResult VALID =
+        new ValidationResult(true, "Command is valid");
+    
+    // Identifies this rule set, so verdicts cached under older rules are never reused
+    private static final int RULES_VERSION = Objects.hash(DANGEROUS_COMMANDS, DANGEROUS_SUBSTRINGS,
+        BACKTICK, SUBSTITUTION_OPEN, SUBSTITUTION_CLOSE, TRAVERSAL_SUBSTRINGS, SYSTEM_DIRECTORY_SUBSTRINGS);
+    
+    private static final CommandTable COMMAND_TABLE = new CommandTable(DANGEROUS_COMMANDS);
+    private static final SubstringAutomaton AUTOMATON = new SubstringAutomaton();
     
     /**
      * Validates if a command is safe to execute
@@ -48,43 +94,302 @@ public class CommandValidationService {
      * @return ValidationResult containing validation status and message
      */
     public ValidationResult validateCommand(String command) {
-        if (StringUtils.isBlank(command)) {
-            return new ValidationResult(false, "Command cannot be empty");
+        if (command == null || isBlank(command, 0, command.length())) {
+            return EMPTY;
         }
         
-        // Trim and normalize the command
-        String normalizedCommand = command.trim().toLowerCase();
+        // Trim the command the way String.trim() does, without copying it
+        int start = 0;
+        int end = command.length();
+        while (start < end && command.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && command.charAt(end - 1) <= ' ') {
+            end--;
+        }
         
-        // Check for dangerous commands
-        for (String dangerousCmd : DANGEROUS_COMMANDS) {
-            if (normalizedCommand.startsWith(dangerousCmd + " ") || 
-                normalizedCommand.equals(dangerousCmd)) {
-                return new ValidationResult(false, 
-                    "Command '" + dangerousCmd + "' is not allowed for security reasons");
+        // Check for dangerous commands: the first space-separated word
+        int tokenEnd = start;
+        while (tokenEnd < end && command.charAt(tokenEnd) != ' ') {
+            tokenEnd++;
+        }
+        ValidationResult blockedCommand = COMMAND_TABLE.find(command, start, tokenEnd);
+        if (blockedCommand != null) {
+            return blockedCommand;
+        }
+        
+        // Check for dangerous patterns, traversal and system directories in one pass
+        ValidationResult result = AUTOMATON.scan(command, start, end);
+        if (result != VALID) {
+            return result;
+        }
+        List<String> argv = parseArgv(command, start, end);
+        return argv != null ? new ValidationResult(true, VALID.getMessage(), argv) : VALID;
+    }
+    
+    /**
+     * Split a command into the arguments the shell would pass to the program, if that needs no shell.
+     * Words are separated by unquoted spaces or tabs, and single and double quotes are removed the way
+     * the shell removes them. Expansions, escapes, globs, assignments and shell-only words are not
+     * interpreted here, so commands using them are left to the shell.
+     * @param command The command
+     * @param start Index of the first character
+     * @param end Index after the last character
+     * @return The argument vector, or null if the command must run through the shell
+     */
+    static List<String> parseArgv(String command, int start, int end) {
+        List<String> argv = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean inWord = false;
+        char quote = 0;
+        for (int i = start; i < end; i++) {
+            char c = command.charAt(i);
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                } else {
+                    word.append(c);
+                }
+                continue;
+            }
+            if (c == '$' || c == '`' || c == '\\') {
+                return null;
+            }
+            if (quote == '"') {
+                if (c == '"') {
+                    quote = 0;
+                } else {
+                    word.append(c);
+                }
+                continue;
             }
+            if (c == ' ' || c == '\t') {
+                if (inWord) {
+                    argv.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+                continue;
+            }
+            if (SHELL_SYNTAX.indexOf(c) >= 0 || (c == '=' && argv.isEmpty())) {
+                // An unquoted '=' in the first word makes it a variable assignment
+                return null;
+            }
+            inWord = true;
+            if (c == '\'' || c == '"') {
+                quote = c;
+            } else {
+                word.append(c);
+            }
+        }
+        if (quote != 0) {
+            return null;
+        }
+        if (inWord) {
+            argv.add(word.toString());
+        }
+        if (argv.isEmpty() || SHELL_ONLY_WORDS.contains(argv.get(0))) {
+            return null;
+        }
+        // The echo built into sh and the echo program disagree on options such as -e
+        if (argv.get(0).equals("echo") && argv.size() > 1 && argv.get(1).startsWith("-")) {
+            return null;
+        }
+        return argv;
+    }
+    
+    /**
+     * @return Version of the validation rules; changes whenever a rule is added, removed or edited
+     */
+    public int getRulesVersion() {
+        return RULES_VERSION;
+    }
+    
+    private static boolean isBlank(String command, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(command.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
         }
+        return Character.toLowerCase(c);
+    }
+    
+    /**
+     * Open-addressing hash table of blocked first words, compared case-insensitively in place
+     */
+    private static final class CommandTable {
+        private final char[][] keys;
+        private final ValidationResult[] results;
+        private final int mask;
+        
+        CommandTable(List<String> commands) {
+            int capacity = Integer.highestOneBit(commands.size() * 4);
+            keys = new char[capacity][];
+            results = new ValidationResult[capacity];
+            mask = capacity - 1;
+            for (String command : commands) {
+                char[] key = command.toCharArray();
+                int slot = hash(command, 0, command.length()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                results[slot] = new ValidationResult(false,
+                    "Command '" + command + "' is not allowed for security reasons");
+            }
+        }
+        
+        ValidationResult find(String command, int start, int end) {
+            int slot = hash(command, start, end) & mask;
+            while (keys[slot] != null) {
+                if (matches(keys[slot], command, start, end)) {
+                    return results[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+        
+        private static int hash(String text, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + fold(text.charAt(i));
+            }
+            return hash ^ (hash >>> 16);
+        }
+        
+        private static boolean matches(char[] key, String text, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != fold(text.charAt(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Aho-Corasick automaton over all forbidden substrings. Every state carries the set of
+     * rule categories matched on reaching it, so one scan finds every rule that applies.
+     */
+    private static final class SubstringAutomaton {
+        private static final int PATTERN = 1;
+        private static final int TRAVERSAL_RULE = 1 << 1;
+        private static final int SYSTEM_DIRECTORY_RULE = 1 << 2;
+        private static final int BACKTICK_SEEN = 1 << 3;
+        private static final int SUBSTITUTION_OPENED = 1 << 4;
+        
+        // ASCII characters have their own transitions; everything else shares one
+        private static final int ALPHABET = 129;
+        private static final int OTHER = 128;
+        
+        private final int[][] transitions;
+        private final int[] outputs;
         
-        // Check for dangerous patterns
-        for (Pattern pattern : DANGEROUS_PATTERNS) {
-            if (pattern.matcher(command).matches()) {
-                return new ValidationResult(false, 
-                    "Command contains dangerous patterns and is not allowed");
+        SubstringAutomaton() {
+            List<int[]> gotoTable = new ArrayList<>();
+            List<Integer> outputList = new ArrayList<>();
+            gotoTable.add(newRow());
+            outputList.add(0);
+            
+            for (String substring : DANGEROUS_SUBSTRINGS) {
+                add(gotoTable, outputList, substring, PATTERN);
+            }
+            for (String substring : TRAVERSAL_SUBSTRINGS) {
+                add(gotoTable, outputList, substring, TRAVERSAL_RULE);
+            }
+            for (String substring : SYSTEM_DIRECTORY_SUBSTRINGS) {
+                add(gotoTable, outputList, substring, SYSTEM_DIRECTORY_RULE);
+            }
+            add(gotoTable, outputList, BACKTICK, BACKTICK_SEEN);
+            add(gotoTable, outputList, SUBSTITUTION_OPEN, SUBSTITUTION_OPENED);
+            
+            transitions = gotoTable.toArray(new int[0][]);
+            outputs = outputList.stream().mapToInt(Integer::intValue).toArray();
+            
+            // Breadth-first construction of failure links, folded directly into the transitions
+            int[] failure = new int[transitions.length];
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int next = transitions[0][symbol];
+                if (next > 0) {
+                    failure[next] = 0;
+                    queue.add(next);
+                } else {
+                    transitions[0][symbol] = 0;
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                outputs[state] |= outputs[failure[state]];
+                for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                    int next = transitions[state][symbol];
+                    if (next > 0) {
+                        failure[next] = transitions[failure[state]][symbol];
+                        queue.add(next);
+                    } else {
+                        transitions[state][symbol] = transitions[failure[state]][symbol];
+                    }
+                }
             }
         }
         
-        // Additional checks for specific dangerous strings
-        if (normalizedCommand.contains("../") || normalizedCommand.contains("..\\")) {
-            return new ValidationResult(false, 
-                "Directory traversal is not allowed");
+        ValidationResult scan(String command, int start, int end) {
+            int state = 0;
+            int matched = 0;
+            int backticks = 0;
+            for (int i = start; i < end; i++) {
+                char c = fold(command.charAt(i));
+                if (c == SUBSTITUTION_CLOSE && (matched & SUBSTITUTION_OPENED) != 0) {
+                    return DANGEROUS_PATTERN;
+                }
+                state = transitions[state][c < OTHER ? c : OTHER];
+                int output = outputs[state];
+                if ((output & BACKTICK_SEEN) != 0 && ++backticks == 2) {
+                    return DANGEROUS_PATTERN;
+                }
+                if ((output & PATTERN) != 0) {
+                    return DANGEROUS_PATTERN;
+                }
+                matched |= output;
+            }
+            if ((matched & TRAVERSAL_RULE) != 0) {
+                return TRAVERSAL;
+            }
+            if ((matched & SYSTEM_DIRECTORY_RULE) != 0) {
+                return SYSTEM_DIRECTORY;
+            }
+            return VALID;
         }
         
-        if (normalizedCommand.contains("/etc/") || normalizedCommand.contains("c:\\windows\\")) {
-            return new ValidationResult(false, 
-                "Access to system directories is not allowed");
+        private static void add(List<int[]> gotoTable, List<Integer> outputList, String substring, int category) {
+            int state = 0;
+            for (int i = 0; i < substring.length(); i++) {
+                char c = fold(substring.charAt(i));
+                int symbol = c < OTHER ? c : OTHER;
+                if (gotoTable.get(state)[symbol] == 0) {
+                    gotoTable.add(newRow());
+                    outputList.add(0);
+                    gotoTable.get(state)[symbol] = gotoTable.size() - 1;
+                }
+                state = gotoTable.get(state)[symbol];
+            }
+            outputList.set(state, outputList.get(state) | category);
         }
         
-        // Command is considered safe
-        return new ValidationResult(true, "Command is valid");
+        private static int[] newRow() {
+            return new int[ALPHABET];
+        }
     }
     
     /**
@@ -93,10 +398,16 @@ public class CommandValidationService {
     public static class ValidationResult {
         private final boolean valid;
         private final String message;
+        private final List<String> argv;
         
         public ValidationResult(boolean valid, String message) {
+            this(valid, message, null);
+        }
+        
+        public ValidationResult(boolean valid, String message, List<String> argv) {
             this.valid = valid;
             this.message = message;
+            this.argv = argv != null ? List.copyOf(argv) : null;
         }
         
         public boolean isValid() {
@@ -106,5 +417,12 @@ public class CommandValidationService {
         public String getMessage() {
             return message;
         }
+        
+        /**
+         * @return Arguments to execute the command with directly, or null if it must run through the shell
+         */
+        public List<String> getArgv() {
+            return argv;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,465 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionJob;
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs asynchronous executions on whichever node has a free worker, using the execution_jobs
+ * collection as a shared queue. The node receiving the request only enqueues the job; worker threads
+ * on every node claim the oldest available job with an atomic find-and-modify that leases it to
+ * their node, and renew the leases of their running jobs with heartbeats. A job whose node stops
+ * renewing becomes available again once its lease expires and is run by another node, up to
+ * max-attempts claims. A node stores a result only while it still holds the lease and no result is
+ * stored under the job's execution ID yet, and removes the job only after that write, so a run
+ * repeated after a crash is stored only once.
+ */
+@Service
+public class DistributedExecutionQueue {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DistributedExecutionQueue.class);
+    
+    static final String JOBS = "task.execution.queue.jobs";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private CommandExecutionService commandExecutionService;
+    
+    @Autowired
+    private ExecutionOutputHub executionOutputHub;
+    
+    @Autowired
+    private OwnerAdmissionControl admissionControl;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${task-management.distributed.enabled:false}")
+    private boolean enabled;
+    
+    // Identifies this node in leases; defaults to the process name plus a random suffix
+    @Value("${task-management.distributed.node-id:}")
+    private String nodeId;
+    
+    @Value("${task-management.distributed.workers:4}")
+    private int workers = 4;
+    
+    @Value("${task-management.distributed.poll-interval-ms:500}")
+    private long pollIntervalMs = 500;
+    
+    @Value("${task-management.distributed.lease-ms:30000}")
+    private long leaseMs = 30000;
+    
+    @Value("${task-management.distributed.heartbeat-ms:10000}")
+    private long heartbeatMs = 10000;
+    
+    @Value("${task-management.distributed.max-attempts:3}")
+    private int maxAttempts = 3;
+    
+    @Value("${task-management.distributed.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs = 30000;
+    
+    private Clock clock = Clock.systemUTC();
+    
+    // Jobs this node is running, with whether their lease has been lost to another node
+    private final Map<String, Boolean> leased = new ConcurrentHashMap<>();
+    
+    private final Object available = new Object();
+    
+    private volatile boolean running;
+    
+    private ExecutorService workerPool;
+    
+    private ScheduledExecutorService heartbeat;
+    
+    /**
+     * @return Whether asynchronous executions go through the shared queue
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * @return Name of this node in leases
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    /**
+     * Start the workers once the application is up, so that an unreachable database does not delay startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        running = true;
+        AtomicInteger counter = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "execution-queue-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::work);
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "execution-queue-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::renewLeases, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        logger.info("Distributed execution queue started on node {}: workers={}, lease={}ms, heartbeat={}ms",
+                   nodeId, workers, leaseMs, heartbeatMs);
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        synchronized (available) {
+            available.notifyAll();
+        }
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+            // Hand the unfinished jobs back right away instead of letting their leases expire
+            for (String executionId : leased.keySet()) {
+                mongoTemplate.updateFirst(leasedBy(executionId, nodeId),
+                    new Update().unset("leaseOwner").set("availableAt", now()).inc("attempts", -1), ExecutionJob.class);
+            }
+            logger.warn("Execution queue workers did not finish in time, {} jobs returned to the queue", leased.size());
+            workerPool.shutdownNow();
+        }
+        heartbeat.shutdownNow();
+    }
+    
+    /**
+     * Queue a task for execution on any node
+     * @param taskId Task ID
+     * @return The RUNNING execution, whose ID can be used to poll for the result
+     * @throws IllegalArgumentException if task is not found or its command is invalid
+     * @throws AdmissionRejectedException if the task's owner is over their execution rate
+     */
+    public TaskExecution enqueue(String taskId) {
+        Task task = taskService.prepareExecution(taskId);
+        // The concurrency slot is taken by the node that runs the job
+        admissionControl.acquireRate(task.getOwner());
+        ExecutionJob job = new ExecutionJob(new ObjectId().toHexString(), taskId, now());
+        mongoTemplate.insert(job);
+        count("enqueued");
+        synchronized (available) {
+            available.notify();
+        }
+        logger.info("Task {} queued for execution: {}", taskId, job.getId());
+        return pending(job);
+    }
+    
+    /**
+     * Queue a scheduled run of a task. Every node fires the schedule, but the job ID is derived from
+     * the task and nominal time, so only the first node to fire queues the run.
+     * @param taskId Task ID
+     * @param nominalMillis Nominal time of the run
+     * @return The RUNNING execution, queued by this node or another one
+     * @throws IllegalArgumentException if task is not found or its command is invalid
+     */
+    public TaskExecution enqueueScheduled(String taskId, long nominalMillis) {
+        taskService.prepareExecution(taskId);
+        ExecutionJob job = new ExecutionJob(scheduledJobId(taskId, nominalMillis), taskId, now());
+        job.setScheduledAt(new Date(nominalMillis));
+        try {
+            mongoTemplate.insert(job);
+        } catch (DuplicateKeyException e) {
+            logger.debug("Scheduled run {} of task {} was already queued by another node", job.getId(), taskId);
+            count("duplicate");
+            return pending(job);
+        }
+        Query query = new Query(Criteria.where("_id").is(job.getId()));
+        if (mongoTemplate.exists(query, TaskExecution.class)) {
+            // Another node fired late, after this run had already finished and its job was removed
+            mongoTemplate.remove(query, ExecutionJob.class);
+            logger.debug("Scheduled run {} of task {} was already run by another node", job.getId(), taskId);
+            count("duplicate");
+            return pending(job);
+        }
+        count("enqueued");
+        synchronized (available) {
+            available.notify();
+        }
+        logger.info("Scheduled run of task {} queued for execution: {}", taskId, job.getId());
+        return pending(job);
+    }
+    
+    /**
+     * @param taskId Task ID
+     * @param executionId Execution ID
+     * @return The execution as RUNNING if it is queued or running on any node
+     */
+    public Optional<TaskExecution> find(String taskId, String executionId) {
+        Query query = new Query(Criteria.where("_id").is(executionId).and("taskId").is(taskId));
+        return Optional.ofNullable(mongoTemplate.findOne(query, ExecutionJob.class)).map(DistributedExecutionQueue::pending);
+    }
+    
+    /**
+     * Cancel a queued job, or ask the node running it to cancel it at its next heartbeat
+     * @param executionId Execution ID
+     * @return false if no such job is queued or running
+     */
+    public boolean cancel(String executionId) {
+        if (leased.containsKey(executionId) && commandExecutionService.cancel(executionId)) {
+            return true;
+        }
+        return mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(executionId)),
+            new Update().set("cancelRequested", true), ExecutionJob.class).getMatchedCount() > 0;
+    }
+    
+    /**
+     * Lease the job that has been available the longest to this node
+     * @return The claimed job, or null if none is available
+     */
+    ExecutionJob claim() {
+        Date now = now();
+        Query query = new Query(Criteria.where("availableAt").lte(now)).with(Sort.by(Sort.Direction.ASC, "availableAt"));
+        Update update = new Update()
+            .set("leaseOwner", nodeId)
+            .set("availableAt", new Date(now.getTime() + leaseMs))
+            .inc("attempts", 1);
+        ExecutionJob job = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+            ExecutionJob.class);
+        if (job != null) {
+            count(job.getAttempts() > 1 ? "reclaimed" : "claimed");
+        }
+        return job;
+    }
+    
+    private void work() {
+        while (running) {
+            try {
+                ExecutionJob job = claim();
+                if (job != null) {
+                    process(job);
+                    continue;
+                }
+            } catch (Exception e) {
+                logger.warn("Execution queue worker failed: {}", e.getMessage());
+            }
+            synchronized (available) {
+                try {
+                    if (running) {
+                        available.wait(pollIntervalMs);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    void process(ExecutionJob job) {
+        String executionId = job.getId();
+        if (job.getAttempts() > maxAttempts) {
+            logger.warn("Execution {} of task {} abandoned after {} attempts", executionId, job.getTaskId(), maxAttempts);
+            if (complete(job, abandoned(job))) {
+                count("abandoned");
+            }
+            return;
+        }
+        Task task;
+        try {
+            // Uncached, as the task may have been changed through another node
+            task = taskService.prepareExecution(job.getTaskId(), false);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Dropping queued execution {}: {}", executionId, e.getMessage());
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(executionId)), ExecutionJob.class);
+            return;
+        }
+        // Scheduled runs are exempt from owner limits
+        boolean admitted = job.getScheduledAt() == null;
+        if (admitted && !admissionControl.tryStart(task.getOwner())) {
+            // Handed back without counting the attempt, for this or another node to retry later
+            mongoTemplate.updateFirst(leasedBy(executionId, nodeId), new Update().unset("leaseOwner")
+                .set("availableAt", new Date(now().getTime() + pollIntervalMs)).inc("attempts", -1), ExecutionJob.class);
+            count("deferred");
+            logger.debug("Owner {} is at their concurrent execution limit, deferring execution {}", task.getOwner(), executionId);
+            return;
+        }
+        leased.put(executionId, false);
+        TaskExecution taskExecution = new TaskExecution();
+        taskExecution.setId(executionId);
+        OutputListener outputListener = executionOutputHub.open(job.getTaskId(), executionId);
+        try {
+            commandExecutionService.reserve(executionId);
+            if (job.isCancelRequested()) {
+                commandExecutionService.cancel(executionId);
+            }
+            commandExecutionService.executeCommand(task.getCommand(), taskExecution, outputListener, task.getTimeoutSeconds());
+            if (Boolean.TRUE.equals(leased.get(executionId))) {
+                // Another node has the job now; its result is the one that counts
+                logger.warn("Lease of execution {} was lost, discarding its result", executionId);
+                count("lost");
+                return;
+            }
+            if (!complete(job, taskExecution)) {
+                logger.warn("Lease of execution {} expired before its result was stored, discarding it", executionId);
+                count("lost");
+                return;
+            }
+            count("completed");
+            logger.info("Queued execution {} of task {} finished on node {}: {}",
+                       executionId, job.getTaskId(), nodeId, taskExecution.getStatus());
+        } finally {
+            leased.remove(executionId);
+            executionOutputHub.close(executionId, taskExecution);
+            if (admitted) {
+                admissionControl.release(task.getOwner());
+            }
+        }
+    }
+    
+    /**
+     * Extend the leases of the jobs running on this node, and act on cancellations requested on other nodes
+     */
+    void renewLeases() {
+        for (String executionId : leased.keySet()) {
+            try {
+                ExecutionJob job = mongoTemplate.findAndModify(leasedBy(executionId, nodeId),
+                    new Update().set("availableAt", new Date(now().getTime() + leaseMs)),
+                    FindAndModifyOptions.options().returnNew(true), ExecutionJob.class);
+                if (job == null) {
+                    // Removed after another node stored it, or re-claimed after our lease expired
+                    leased.computeIfPresent(executionId, (id, lost) -> true);
+                    commandExecutionService.cancel(executionId);
+                } else if (job.isCancelRequested()) {
+                    commandExecutionService.cancel(executionId);
+                }
+            } catch (Exception e) {
+                logger.warn("Could not renew lease of execution {}: {}", executionId, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Store the result of a job leased to this node and remove the job
+     * @return false if the lease was lost, in which case nothing is stored
+     */
+    private boolean complete(ExecutionJob job, TaskExecution taskExecution) {
+        String executionId = job.getId();
+        // Renewing the lease both checks that it is still ours and leaves a full lease period for the write
+        if (mongoTemplate.updateFirst(leasedBy(executionId, nodeId),
+                new Update().set("availableAt", new Date(now().getTime() + leaseMs)), ExecutionJob.class)
+                .getMatchedCount() == 0) {
+            return false;
+        }
+        Query stored = new Query(Criteria.where("_id").is(executionId));
+        if (mongoTemplate.exists(stored, TaskExecution.class)) {
+            logger.debug("Execution {} was already stored by another node", executionId);
+        } else {
+            try {
+                // Stored before the job is removed, so not through write-behind
+                taskService.recordExecution(job.getTaskId(), taskExecution, true);
+            } catch (DuplicateKeyException e) {
+                logger.debug("Execution {} was stored by another node meanwhile", executionId);
+            }
+        }
+        // Unconditional, so that a node still running a re-claimed copy stops at its next heartbeat
+        mongoTemplate.remove(stored, ExecutionJob.class);
+        return true;
+    }
+    
+    private TaskExecution abandoned(ExecutionJob job) {
+        TaskExecution taskExecution = new TaskExecution();
+        taskExecution.setId(job.getId());
+        taskExecution.setStartTime(job.getEnqueuedAt());
+        taskExecution.setEndTime(now());
+        taskExecution.setStatus(ExecutionStatus.FAILED);
+        taskExecution.setOutput("Execution abandoned after " + maxAttempts + " attempts: the nodes running it stopped responding");
+        return taskExecution;
+    }
+    
+    private static TaskExecution pending(ExecutionJob job) {
+        TaskExecution taskExecution = new TaskExecution();
+        taskExecution.setId(job.getId());
+        taskExecution.setTaskId(job.getTaskId());
+        taskExecution.setStartTime(job.getEnqueuedAt());
+        taskExecution.setStatus(ExecutionStatus.RUNNING);
+        return taskExecution;
+    }
+    
+    /**
+     * @return ObjectId with the nominal time as its timestamp and a hash of the task and time as the rest
+     */
+    static String scheduledJobId(String taskId, long nominalMillis) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest((taskId + "@" + nominalMillis).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer id = ByteBuffer.allocate(12);
+        id.putInt((int) (nominalMillis / 1000));
+        id.put(hash, 0, 8);
+        return new ObjectId(id.array()).toHexString();
+    }
+    
+    private static Query leasedBy(String executionId, String nodeId) {
+        return new Query(Criteria.where("_id").is(executionId).and("leaseOwner").is(nodeId));
+    }
+    
+    private void count(String result) {
+        Counter.builder(JOBS).tag("result", result)
+            .description("Jobs of the distributed execution queue, by what happened to them")
+            .register(meterRegistry)
+            .increment();
+    }
+    
+    private Date now() {
+        return Date.from(clock.instant());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.taskmanagement.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable histogram of durations with logarithmic buckets. Bucket i holds durations in
+ * (GAMMA^(i-1), GAMMA^i] milliseconds, so every quantile is estimated within RELATIVE_ACCURACY of
+ * the true duration whatever the spread of values, and two sketches merge by adding their counts.
+ * A duration of an hour needs about 400 buckets, and most tasks use only a few dozen.
+ */
+public final class DurationSketch {
+    
+    /** Maximum relative error of an estimated quantile */
+    public static final double RELATIVE_ACCURACY = 0.02;
+    
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    
+    private final TreeMap<Integer, Long> counts = new TreeMap<>();
+    
+    private long count;
+    
+    /**
+     * Bucket of a duration. Durations below one millisecond share the bucket of one millisecond.
+     * @param durationMs Duration in milliseconds
+     * @return Bucket index
+     */
+    public static int bucketOf(long durationMs) {
+        return (int) Math.ceil(Math.log(Math.max(1, durationMs)) / LOG_GAMMA);
+    }
+    
+    /**
+     * Build a sketch from stored bucket counts
+     * @param buckets Count per bucket index, as stored in ExecutionStats
+     * @return New sketch
+     */
+    public static DurationSketch of(Map<String, Long> buckets) {
+        DurationSketch sketch = new DurationSketch();
+        sketch.addAll(buckets);
+        return sketch;
+    }
+    
+    /**
+     * Add one duration
+     * @param durationMs Duration in milliseconds
+     */
+    public void add(long durationMs) {
+        counts.merge(bucketOf(durationMs), 1L, Long::sum);
+        count++;
+    }
+    
+    /**
+     * Add stored bucket counts, merging another task's histogram into this one
+     * @param buckets Count per bucket index
+     */
+    public void addAll(Map<String, Long> buckets) {
+        if (buckets == null) {
+            return;
+        }
+        for (Map.Entry<String, Long> bucket : buckets.entrySet()) {
+            counts.merge(Integer.valueOf(bucket.getKey()), bucket.getValue(), Long::sum);
+            count += bucket.getValue();
+        }
+    }
+    
+    /**
+     * @return Number of durations added
+     */
+    public long count() {
+        return count;
+    }
+    
+    /**
+     * Estimate a quantile
+     * @param quantile Quantile between 0 and 1
+     * @return Estimated duration in milliseconds, or null if the sketch is empty
+     */
+    public Double quantile(double quantile) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = (long) Math.floor(quantile * (count - 1));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : counts.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return valueOf(bucket.getKey());
+            }
+        }
+        return valueOf(counts.lastKey());
+    }
+    
+    // The point of a bucket whose relative distance to both of its bounds is RELATIVE_ACCURACY
+    private static double valueOf(int bucket) {
+        return 2 * Math.pow(GAMMA, bucket) / (GAMMA + 1);
+    }
+}
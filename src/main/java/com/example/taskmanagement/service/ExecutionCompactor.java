@@ -0,0 +1,290 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionRollup;
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.TaskExecution;
+import com.example.taskmanagement.repository.ExecutionRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Enforces the execution history retention policy. Periodically, each task keeps only its newest
+ * keep-last executions and those younger than max-age-days; older executions are folded into the
+ * task's {@link ExecutionRollup} and then deleted. The roll-up records the newest execution it has
+ * counted, so a pass interrupted between the two steps never counts an execution twice, and
+ * concurrent passes on several nodes are reconciled by its version.
+ */
+@Service
+public class ExecutionCompactor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionCompactor.class);
+    
+    static final String COMPACTED = "task.execution.history.compacted";
+    static final String PASS_TIMER = "task.execution.history.compaction";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ExecutionRollupRepository executionRollupRepository;
+    
+    @Autowired
+    private ExecutionHistoryService executionHistoryService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${task-management.retention.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${task-management.retention.keep-last:1000}")
+    private int keepLast = 1000;
+    
+    @Value("${task-management.retention.max-age-days:0}")
+    private int maxAgeDays;
+    
+    @Value("${task-management.retention.interval-ms:3600000}")
+    private long intervalMs = 3600000;
+    
+    @Value("${task-management.retention.initial-delay-ms:60000}")
+    private long initialDelayMs = 60000;
+    
+    @Value("${task-management.retention.batch-size:500}")
+    private int batchSize = 500;
+    
+    private Clock clock = Clock.systemUTC();
+    
+    private ScheduledExecutorService compactor;
+    
+    private Counter compacted;
+    
+    private Timer passTimer;
+    
+    @PostConstruct
+    void init() {
+        compacted = Counter.builder(COMPACTED)
+            .description("Executions folded into roll-ups and deleted by the retention policy")
+            .register(meterRegistry);
+        passTimer = Timer.builder(PASS_TIMER)
+            .description("Time of one retention pass over all tasks")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Start compacting once the application is up, so that an unreachable database does not delay startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled || (keepLast <= 0 && maxAgeDays <= 0)) {
+            logger.info("Execution history retention disabled");
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "execution-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactAll, initialDelayMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Execution history retention: keepLast={}, maxAgeDays={}, interval={}ms",
+                   keepLast, maxAgeDays, intervalMs);
+    }
+    
+    @PreDestroy
+    void stop() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Apply the retention policy to every task with executions outside of it
+     * @return Number of executions folded and deleted
+     */
+    public long compactAll() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long total = 0;
+        try {
+            Date cutoff = cutoff();
+            List<Criteria> outside = new ArrayList<>();
+            if (keepLast > 0) {
+                outside.add(Criteria.where("count").gt(keepLast));
+            }
+            if (cutoff != null) {
+                outside.add(Criteria.where("oldest").lt(cutoff));
+            }
+            Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("taskId").count().as("count").min("startTime").as("oldest"),
+                Aggregation.match(new Criteria().orOperator(outside)))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+            try (Stream<Document> tasks = mongoTemplate.aggregateStream(aggregation, TaskExecution.class, Document.class)) {
+                for (Document task : (Iterable<Document>) tasks::iterator) {
+                    total += compactTask(task.getString("_id"), cutoff);
+                }
+            }
+            if (total > 0) {
+                logger.info("Folded {} executions into roll-ups", total);
+            }
+        } catch (Exception e) {
+            logger.warn("Execution history compaction failed: {}", e.getMessage());
+        } finally {
+            sample.stop(passTimer);
+        }
+        return total;
+    }
+    
+    /**
+     * Fold the executions of one task that fall outside the retention policy into its roll-up
+     * @param taskId Task ID
+     * @param cutoff Executions started before this are pruned, or null for no age limit
+     * @return Number of executions folded and deleted
+     */
+    long compactTask(String taskId, Date cutoff) {
+        Criteria prune = pruneCriteria(taskId, cutoff);
+        if (prune == null) {
+            return 0;
+        }
+        long total = 0;
+        while (true) {
+            Query query = new Query(prune)
+                .with(Sort.by(Sort.Direction.ASC, "startTime").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .limit(batchSize);
+            query.fields().exclude("output");
+            List<TaskExecution> batch = mongoTemplate.find(query, TaskExecution.class);
+            if (batch.isEmpty()) {
+                return total;
+            }
+            
+            ExecutionRollup rollup = executionRollupRepository.findById(taskId).orElseGet(() -> new ExecutionRollup(taskId));
+            if (fold(rollup, batch)) {
+                rollup.setLastOutputHash(findOutputHash(rollup.getLastExecutionId()));
+            }
+            try {
+                executionRollupRepository.save(rollup);
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                // Another node is compacting this task
+                logger.debug("Roll-up of task {} changed concurrently, skipping it this pass", taskId);
+                return total;
+            }
+            executionHistoryService.deleteExecutions(taskId, batch);
+            compacted.increment(batch.size());
+            total += batch.size();
+            if (batch.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+    
+    /**
+     * Match the executions of a task that are not among its newest keep-last, or started before the cutoff.
+     * Executions are ordered by start time and then ID, so executions started in the same millisecond
+     * are split consistently.
+     */
+    private Criteria pruneCriteria(String taskId, Date cutoff) {
+        List<Criteria> outside = new ArrayList<>();
+        if (keepLast > 0) {
+            Query boundary = new Query(Criteria.where("taskId").is(taskId))
+                .with(Sort.by(Sort.Direction.DESC, "startTime").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .skip(keepLast)
+                .limit(1);
+            boundary.fields().include("_id").include("startTime");
+            TaskExecution newestPruned = mongoTemplate.findOne(boundary, TaskExecution.class);
+            if (newestPruned != null) {
+                outside.add(new Criteria().orOperator(
+                    Criteria.where("startTime").lt(newestPruned.getStartTime()),
+                    Criteria.where("startTime").is(newestPruned.getStartTime()).and("_id").lte(newestPruned.getId())));
+            }
+        }
+        if (cutoff != null) {
+            outside.add(Criteria.where("startTime").lt(cutoff));
+        }
+        if (outside.isEmpty()) {
+            return null;
+        }
+        return new Criteria().andOperator(Criteria.where("taskId").is(taskId), new Criteria().orOperator(outside));
+    }
+    
+    /**
+     * Add executions to a roll-up, skipping those it already counts
+     * @param rollup Roll-up to update
+     * @param executions Executions of the task, oldest first
+     * @return Whether any execution was added
+     */
+    static boolean fold(ExecutionRollup rollup, List<TaskExecution> executions) {
+        boolean added = false;
+        for (TaskExecution execution : executions) {
+            if (isCounted(rollup, execution)) {
+                continue;
+            }
+            rollup.setRuns(rollup.getRuns() + 1);
+            if (execution.getStatus() != ExecutionStatus.COMPLETED) {
+                rollup.setFailures(rollup.getFailures() + 1);
+            }
+            if (execution.getStartTime() != null && execution.getEndTime() != null) {
+                long duration = Math.max(0, execution.getEndTime().getTime() - execution.getStartTime().getTime());
+                rollup.setTotalDurationMs(rollup.getTotalDurationMs() + duration);
+                rollup.setMinDurationMs(rollup.getMinDurationMs() == null
+                    ? duration : Math.min(rollup.getMinDurationMs(), duration));
+                rollup.setMaxDurationMs(rollup.getMaxDurationMs() == null
+                    ? duration : Math.max(rollup.getMaxDurationMs(), duration));
+            }
+            if (rollup.getFirstStartTime() == null) {
+                rollup.setFirstStartTime(execution.getStartTime());
+            }
+            rollup.setLastStartTime(execution.getStartTime());
+            rollup.setLastExecutionId(execution.getId());
+            added = true;
+        }
+        return added;
+    }
+    
+    private static boolean isCounted(ExecutionRollup rollup, TaskExecution execution) {
+        if (rollup.getLastStartTime() == null) {
+            return false;
+        }
+        int byTime = execution.getStartTime().compareTo(rollup.getLastStartTime());
+        return byTime < 0 || (byTime == 0 && execution.getId().compareTo(rollup.getLastExecutionId()) <= 0);
+    }
+    
+    private String findOutputHash(String executionId) {
+        Query query = new Query(Criteria.where("_id").is(executionId));
+        query.fields().include("output").include("outputHash");
+        TaskExecution execution = mongoTemplate.findOne(query, TaskExecution.class);
+        if (execution == null) {
+            return null;
+        }
+        // Outputs kept in a blob are already hashed the same way
+        return execution.getOutputHash() != null ? execution.getOutputHash() : OutputBlobStore.hash(execution.getOutput());
+    }
+    
+    private Date cutoff() {
+        return maxAgeDays > 0 ? Date.from(clock.instant().minus(Duration.ofDays(maxAgeDays))) : null;
+    }
+}
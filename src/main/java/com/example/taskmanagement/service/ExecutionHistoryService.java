@@ -0,0 +1,379 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionRollup;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import com.example.taskmanagement.repository.ExecutionRollupRepository;
+import com.example.taskmanagement.repository.TaskExecutionRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service owning reads and writes of the task_executions collection.
+ * Executions are insert-only; a task's history is never rewritten as a whole.
+ * With write-behind enabled, single executions are queued and inserted in batches by a background
+ * thread; until then they can be found by ID but are not yet part of their task's history.
+ */
+@Service
+public class ExecutionHistoryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionHistoryService.class);
+    
+    @Autowired
+    private TaskExecutionRepository taskExecutionRepository;
+    
+    @Autowired
+    private ExecutionRollupRepository executionRollupRepository;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TaskCache taskCache;
+    
+    @Autowired
+    private ExecutionStatsService executionStatsService;
+    
+    @Autowired
+    private OutputBlobStore outputBlobStore;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${task-management.write-behind.enabled:false}")
+    private boolean writeBehindEnabled;
+    
+    @Value("${task-management.write-behind.queue-capacity:10000}")
+    private int writeBehindCapacity = 10000;
+    
+    @Value("${task-management.write-behind.batch-size:200}")
+    private int writeBehindBatchSize = 200;
+    
+    @Value("${task-management.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs = 50;
+    
+    @Value("${task-management.write-behind.offer-timeout-ms:1000}")
+    private long offerTimeoutMs = 1000;
+    
+    @Value("${task-management.write-behind.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs = 30000;
+    
+    private ExecutionWriteBehind writeBehind;
+    
+    @PostConstruct
+    void init() {
+        if (writeBehindEnabled) {
+            writeBehind = new ExecutionWriteBehind(writeBehindCapacity, writeBehindBatchSize, flushIntervalMs,
+                offerTimeoutMs, this::insertQueued, this::insert, meterRegistry);
+            logger.info("Execution write-behind: capacity={}, batchSize={}, flushInterval={}ms",
+                       writeBehindCapacity, writeBehindBatchSize, flushIntervalMs);
+        }
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writeBehind != null) {
+            writeBehind.close(shutdownTimeoutMs);
+        }
+    }
+    
+    /**
+     * Store a finished execution of a task, or queue it when write-behind is enabled
+     * @param taskId Task ID
+     * @param taskExecution Finished execution
+     */
+    public void record(String taskId, TaskExecution taskExecution) {
+        taskExecution.setTaskId(taskId);
+        if (writeBehind != null) {
+            writeBehind.add(taskExecution);
+        } else {
+            insert(taskExecution);
+        }
+    }
+    
+    /**
+     * Store a finished execution of a task right away, even when write-behind is enabled
+     * @param taskId Task ID
+     * @param taskExecution Finished execution
+     */
+    public void store(String taskId, TaskExecution taskExecution) {
+        taskExecution.setTaskId(taskId);
+        insert(taskExecution);
+    }
+    
+    /**
+     * Store several finished executions with a single write. Each execution must carry its task ID.
+     * @param taskExecutions Finished executions
+     */
+    public void recordAll(Collection<TaskExecution> taskExecutions) {
+        if (taskExecutions.isEmpty()) {
+            return;
+        }
+        insertAll(taskExecutions);
+    }
+    
+    private void insert(TaskExecution taskExecution) {
+        TaskExecution stored = outputBlobStore.store(taskExecution);
+        try {
+            taskExecutionRepository.insert(stored);
+        } catch (RuntimeException e) {
+            // Drop the blob reference taken for an execution that was not stored
+            outputBlobStore.release(List.of(stored));
+            throw e;
+        }
+        taskCache.invalidateExecutions(taskExecution.getTaskId());
+        executionStatsService.record(taskExecution);
+        logger.debug("Recorded execution {} for task {}", taskExecution.getId(), taskExecution.getTaskId());
+    }
+    
+    private void insertAll(Collection<TaskExecution> taskExecutions) {
+        List<TaskExecution> stored = outputBlobStore.storeAll(taskExecutions);
+        try {
+            taskExecutionRepository.insert(stored);
+        } catch (RuntimeException e) {
+            outputBlobStore.release(unstored(stored, e));
+            throw e;
+        }
+        taskExecutions.stream().map(TaskExecution::getTaskId).distinct().forEach(taskCache::invalidateExecutions);
+        executionStatsService.recordAll(taskExecutions);
+        logger.debug("Recorded {} executions", taskExecutions.size());
+    }
+    
+    /**
+     * Get the execution history of a task
+     * @param taskId Task ID
+     * @return List of executions, oldest first
+     */
+    public List<TaskExecution> findByTask(String taskId) {
+        return outputBlobStore.resolve(taskExecutionRepository.findByTaskIdOrderByStartTimeAsc(taskId));
+    }
+    
+    /**
+     * Get the most recent executions of a task
+     * @param taskId Task ID
+     * @param count Maximum number of executions
+     * @return List of executions, oldest first
+     */
+    public List<TaskExecution> findLatest(String taskId, int count) {
+        List<TaskExecution> latest = new ArrayList<>(
+            taskExecutionRepository.findByTaskIdOrderByStartTimeDesc(taskId, PageRequest.of(0, count)));
+        Collections.reverse(latest);
+        return outputBlobStore.resolve(latest);
+    }
+    
+    /**
+     * Count the executions of several tasks with a single aggregation
+     * @param taskIds Task IDs
+     * @return Execution count per task ID; tasks without executions are absent
+     */
+    public Map<String, Long> countByTasks(Collection<String> taskIds) {
+        Map<String, Long> counts = new HashMap<>();
+        if (taskIds.isEmpty()) {
+            return counts;
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("taskId").in(taskIds)),
+            Aggregation.group("taskId").count().as("count"));
+        for (Document result : mongoTemplate.aggregate(aggregation, TaskExecution.class, Document.class)) {
+            counts.put(result.getString("_id"), ((Number) result.get("count")).longValue());
+        }
+        return counts;
+    }
+    
+    /**
+     * Find a single execution of a task
+     * @param taskId Task ID
+     * @param executionId Execution ID
+     * @return Optional TaskExecution
+     */
+    public Optional<TaskExecution> findExecution(String taskId, String executionId) {
+        if (writeBehind != null) {
+            Optional<TaskExecution> queued = writeBehind.find(executionId)
+                .filter(execution -> taskId.equals(execution.getTaskId()));
+            if (queued.isPresent()) {
+                return queued;
+            }
+        }
+        return outputBlobStore.resolve(taskExecutionRepository.findByIdAndTaskId(executionId, taskId));
+    }
+    
+    /**
+     * Attach execution history to a single task
+     * @param task Task to populate
+     * @return The same task
+     */
+    public Task attachExecutions(Task task) {
+        task.setTaskExecutions(findByTask(task.getId()));
+        return task;
+    }
+    
+    /**
+     * Attach execution history to several tasks using a single query
+     * @param tasks Tasks to populate
+     * @return The same tasks
+     */
+    public List<Task> attachExecutions(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return tasks;
+        }
+        List<String> taskIds = tasks.stream().map(Task::getId).collect(Collectors.toList());
+        Map<String, List<TaskExecution>> byTask = outputBlobStore
+                .resolve(taskExecutionRepository.findByTaskIdInOrderByStartTimeAsc(taskIds)).stream()
+                .collect(Collectors.groupingBy(TaskExecution::getTaskId));
+        for (Task task : tasks) {
+            task.setTaskExecutions(new ArrayList<>(byTask.getOrDefault(task.getId(), List.of())));
+        }
+        return tasks;
+    }
+    
+    /**
+     * Delete the execution history of a task, including its roll-up and statistics
+     * @param taskId Task ID
+     */
+    public void deleteByTask(String taskId) {
+        awaitQueuedWrites();
+        List<TaskExecution> spilled = taskExecutionRepository.findByTaskIdAndOutputRefNotNull(taskId);
+        List<TaskExecution> deduplicated = findWithOutputBlob(taskId);
+        taskExecutionRepository.deleteByTaskId(taskId);
+        outputBlobStore.release(deduplicated);
+        executionRollupRepository.deleteById(taskId);
+        executionStatsService.deleteByTask(taskId);
+        taskCache.invalidateExecutions(taskId);
+        spilled.forEach(this::deleteSpilledOutput);
+    }
+    
+    /**
+     * Delete some executions of a task, after they were folded into its roll-up
+     * @param taskId Task ID
+     * @param taskExecutions Executions to delete
+     */
+    public void deleteExecutions(String taskId, Collection<TaskExecution> taskExecutions) {
+        if (taskExecutions.isEmpty()) {
+            return;
+        }
+        taskExecutionRepository.deleteAllById(
+            taskExecutions.stream().map(TaskExecution::getId).collect(Collectors.toList()));
+        outputBlobStore.release(taskExecutions);
+        taskCache.invalidateExecutions(taskId);
+        taskExecutions.stream().filter(execution -> execution.getOutputRef() != null).forEach(this::deleteSpilledOutput);
+        logger.debug("Deleted {} executions of task {}", taskExecutions.size(), taskId);
+    }
+    
+    /**
+     * Get the aggregate of the executions of a task that were pruned by the retention policy
+     * @param taskId Task ID
+     * @return Roll-up of the task, with no runs if nothing was pruned yet
+     */
+    public ExecutionRollup findRollup(String taskId) {
+        return executionRollupRepository.findById(taskId).orElseGet(() -> new ExecutionRollup(taskId));
+    }
+    
+    /**
+     * Write a batch of queued executions. If the batch fails, the executions it did not store are
+     * retried one by one; those it did store keep the blob references taken for the batch.
+     */
+    private void insertQueued(List<TaskExecution> taskExecutions) {
+        try {
+            insertAll(taskExecutions);
+        } catch (RuntimeException e) {
+            List<TaskExecution> retry = unstored(taskExecutions, e);
+            logger.warn("Batch of {} queued executions failed, writing {} of them one by one: {}",
+                       taskExecutions.size(), retry.size(), e.getMessage());
+            List<TaskExecution> written = taskExecutions.stream().filter(execution -> !retry.contains(execution)).toList();
+            if (!written.isEmpty()) {
+                written.stream().map(TaskExecution::getTaskId).distinct().forEach(taskCache::invalidateExecutions);
+                executionStatsService.recordAll(written);
+            }
+            for (TaskExecution taskExecution : retry) {
+                try {
+                    insert(taskExecution);
+                } catch (DuplicateKeyException duplicate) {
+                    logger.debug("Queued execution {} was already stored", taskExecution.getId());
+                } catch (RuntimeException failed) {
+                    logger.error("Failed to record queued execution {} of task {}",
+                                taskExecution.getId(), taskExecution.getTaskId(), failed);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Find the executions of a failed batch insert that were not stored. The insert is ordered and
+     * stops at its first failing document, so everything from there on was not stored; when the
+     * error does not tell where it stopped, the executions are looked up by ID.
+     * @param batch Executions in the order they were inserted
+     * @param error Error of the insert
+     * @return Executions of the batch that are not in the database
+     */
+    private List<TaskExecution> unstored(List<TaskExecution> batch, RuntimeException error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulkError && !bulkError.getWriteErrors().isEmpty()) {
+                int first = bulkError.getWriteErrors().stream().mapToInt(BulkWriteError::getIndex).min().getAsInt();
+                return batch.subList(Math.min(first, batch.size()), batch.size());
+            }
+        }
+        List<String> ids = batch.stream().map(TaskExecution::getId).toList();
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        Set<String> found = mongoTemplate.find(query, TaskExecution.class).stream()
+            .map(TaskExecution::getId)
+            .collect(Collectors.toSet());
+        return batch.stream().filter(execution -> !found.contains(execution.getId())).toList();
+    }
+    
+    // Lets queued executions of a task reach the database before its history is deleted
+    private void awaitQueuedWrites() {
+        if (writeBehind == null) {
+            return;
+        }
+        try {
+            if (!writeBehind.awaitFlushed(shutdownTimeoutMs)) {
+                logger.warn("Queued executions not written within {}ms", shutdownTimeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private List<TaskExecution> findWithOutputBlob(String taskId) {
+        Query query = new Query(Criteria.where("taskId").is(taskId).and("outputHash").ne(null));
+        query.fields().include("outputHash");
+        return mongoTemplate.find(query, TaskExecution.class);
+    }
+    
+    private void deleteSpilledOutput(TaskExecution taskExecution) {
+        try {
+            Files.deleteIfExists(Paths.get(taskExecution.getOutputRef()));
+        } catch (IOException e) {
+            logger.warn("Could not delete spilled output {}", taskExecution.getOutputRef(), e);
+        }
+    }
+}
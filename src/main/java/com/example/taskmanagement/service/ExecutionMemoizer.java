@@ -0,0 +1,190 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Reuses recent results of tasks flagged as idempotent instead of running their command again.
+ * Concurrent executions of the same task share a single run: the first caller runs the command and
+ * the others wait for its result. Only completed executions are kept, each for its task's TTL.
+ * Results are keyed by task ID and command, so editing the command never returns a stale result.
+ */
+@Service
+public class ExecutionMemoizer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionMemoizer.class);
+    
+    static final String CACHE_NAME = "execution-results";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${task-management.memoization.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${task-management.memoization.max-size:10000}")
+    private long maxSize = 10000;
+    
+    @Value("${task-management.memoization.default-ttl-seconds:60}")
+    private long defaultTtlSeconds = 60;
+    
+    private AsyncCache<Key, Result> results;
+    
+    @PostConstruct
+    void init() {
+        results = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new ResultExpiry())
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+    }
+    
+    /**
+     * Execute a task, reusing a recent or in-progress result if the task is idempotent
+     * @param task Task to execute, already validated
+     * @param execute Runs and records a new execution of the task
+     * @return A new execution, or a copy of an earlier one marked as cached
+     */
+    public TaskExecution execute(Task task, Supplier<TaskExecution> execute) {
+        if (!enabled || !task.isIdempotent()) {
+            return execute.get();
+        }
+        
+        Key key = new Key(task.getId(), task.getCommand());
+        CompletableFuture<Result> mine = new CompletableFuture<>();
+        CompletableFuture<Result> current = results.get(key, (k, executor) -> mine);
+        if (current != mine) {
+            try {
+                TaskExecution shared = current.join().execution;
+                logger.debug("Reusing execution {} of idempotent task {}", shared.getId(), task.getId());
+                return cachedCopy(shared);
+            } catch (CompletionException e) {
+                // The run we waited for failed; the failed entry is dropped by the cache, so run our own
+                logger.debug("Shared execution of task {} failed, running again", task.getId());
+                return execute.get();
+            }
+        }
+        
+        TaskExecution execution;
+        try {
+            execution = execute.get();
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        mine.complete(new Result(execution, ttlNanos(task)));
+        if (execution.getStatus() != ExecutionStatus.COMPLETED) {
+            // Waiting callers still share this result, but later ones run the command again
+            results.asMap().remove(key, mine);
+        }
+        return execution;
+    }
+    
+    /**
+     * Forget the results of a task, after it was changed or deleted
+     * @param taskId Task ID
+     */
+    public void invalidate(String taskId) {
+        results.synchronous().asMap().keySet().removeIf(key -> key.taskId.equals(taskId));
+    }
+    
+    private long ttlNanos(Task task) {
+        long seconds = task.getResultTtlSeconds() != null ? task.getResultTtlSeconds() : defaultTtlSeconds;
+        return TimeUnit.SECONDS.toNanos(Math.max(0, seconds));
+    }
+    
+    private static TaskExecution cachedCopy(TaskExecution original) {
+        TaskExecution copy = new TaskExecution(original.getStartTime(), original.getEndTime(), original.getOutput());
+        copy.setId(original.getId());
+        copy.setTaskId(original.getTaskId());
+        copy.setStatus(original.getStatus());
+        copy.setExitCode(original.getExitCode());
+        copy.setOutputBytes(original.getOutputBytes());
+        copy.setOutputTruncated(original.isOutputTruncated());
+        copy.setOutputRef(original.getOutputRef());
+        copy.setCached(true);
+        return copy;
+    }
+    
+    /**
+     * A memoized execution and how long it may be reused
+     */
+    private static final class Result {
+        private final TaskExecution execution;
+        private final long ttlNanos;
+        
+        Result(TaskExecution execution, long ttlNanos) {
+            this.execution = execution;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+    
+    /**
+     * Expires each result after the TTL of its task, counted from when the run finished
+     */
+    private static final class ResultExpiry implements Expiry<Key, Result> {
+        @Override
+        public long expireAfterCreate(Key key, Result result, long currentTime) {
+            return result.ttlNanos;
+        }
+        
+        @Override
+        public long expireAfterUpdate(Key key, Result result, long currentTime, long currentDuration) {
+            return result.ttlNanos;
+        }
+        
+        @Override
+        public long expireAfterRead(Key key, Result result, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+    
+    /**
+     * Cache key: a task's command, as it was when it ran
+     */
+    private static final class Key {
+        private final String taskId;
+        private final String command;
+        
+        Key(String taskId, String command) {
+            this.taskId = taskId;
+            this.command = command;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return taskId.equals(other.taskId) && command.equals(other.command);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(taskId, command);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the execute path. Each stage of an execution is timed under task.execution.stage,
+ * tagged by stage and outcome, so a slow execution can be attributed to loading the task, validation,
+ * starting the process, the command producing its output, waiting for it to exit, or storing the result.
+ */
+@Component
+public class ExecutionMetrics {
+    
+    public static final String STAGE_TIMER = "task.execution.stage";
+    public static final String COMMAND_TIMER = "task.execution.command";
+    public static final String EXECUTION_TIMER = "task.execution.total";
+    public static final String TIMEOUTS = "task.execution.timeouts";
+    public static final String CANCELLATIONS = "task.execution.cancellations";
+    public static final String NON_ZERO_EXITS = "task.execution.nonzero.exits";
+    public static final String IO_ERRORS = "task.execution.io.errors";
+    public static final String OUTPUT_BYTES = "task.execution.output.bytes";
+    
+    /**
+     * Timed stages of an execution
+     */
+    public enum Stage {
+        LOAD,
+        VALIDATE,
+        SPAWN,
+        READ,
+        WAIT,
+        RECORD;
+        
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Counter timeouts;
+    
+    private Counter cancellations;
+    
+    private Counter nonZeroExits;
+    
+    private Counter ioErrors;
+    
+    private Counter outputBytes;
+    
+    @PostConstruct
+    void init() {
+        timeouts = Counter.builder(TIMEOUTS)
+            .description("Commands killed for exceeding their timeout")
+            .register(meterRegistry);
+        cancellations = Counter.builder(CANCELLATIONS)
+            .description("Running commands killed on request")
+            .register(meterRegistry);
+        nonZeroExits = Counter.builder(NON_ZERO_EXITS)
+            .description("Commands that exited with a non-zero code")
+            .register(meterRegistry);
+        ioErrors = Counter.builder(IO_ERRORS)
+            .description("Commands that could not be started or read")
+            .register(meterRegistry);
+        outputBytes = Counter.builder(OUTPUT_BYTES)
+            .description("Output produced by commands, including any part not kept")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * @return Timer of the stages of one execution, started in no stage
+     */
+    public Stages stages() {
+        return new Stages();
+    }
+    
+    /**
+     * @return Sample to pass to {@link #command} or {@link #execution}
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+    
+    /**
+     * Record a finished command
+     * @param sample Started before the command
+     * @param status Final status of the execution
+     */
+    public void command(Timer.Sample sample, ExecutionStatus status) {
+        sample.stop(Timer.builder(COMMAND_TIMER)
+            .description("Time to run a command, from starting the process to its exit")
+            .tag("outcome", status.name().toLowerCase(Locale.ROOT))
+            .register(meterRegistry));
+    }
+    
+    /**
+     * Record a synchronous task execution, from its request to its stored result
+     * @param sample Started before the execution
+     * @param outcome Final status, "cached" or "error"
+     */
+    public void execution(Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder(EXECUTION_TIMER)
+            .description("Time to execute a task on request, including loading, validation and storage")
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+    }
+    
+    public void timeout() {
+        timeouts.increment();
+    }
+    
+    public void cancellation() {
+        cancellations.increment();
+    }
+    
+    public void nonZeroExit() {
+        nonZeroExits.increment();
+    }
+    
+    public void ioError() {
+        ioErrors.increment();
+    }
+    
+    public void outputBytes(long bytes) {
+        outputBytes.increment(bytes);
+    }
+    
+    /**
+     * Times consecutive stages; starting a stage ends the previous one successfully.
+     * Used by a single thread.
+     */
+    public final class Stages {
+        private Stage current;
+        private long startNanos;
+        
+        private Stages() {}
+        
+        /**
+         * End the current stage successfully, if any, and start the given one
+         * @param stage Stage starting now
+         */
+        public void begin(Stage stage) {
+            end(true);
+            current = stage;
+            startNanos = meterRegistry.config().clock().monotonicTime();
+        }
+        
+        /**
+         * End the current stage, if any
+         * @param success false if the stage failed
+         */
+        public void end(boolean success) {
+            if (current == null) {
+                return;
+            }
+            long elapsed = meterRegistry.config().clock().monotonicTime() - startNanos;
+            Timer.builder(STAGE_TIMER)
+                .description("Time spent in each stage of an execution")
+                .tag("stage", current.tag)
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.TaskExecution;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans out the output of running executions to live subscribers.
+ * Each chunk is decoded once and shared by all subscribers; every subscriber is fed from its own
+ * bounded queue on a dispatcher thread, so a slow client never blocks the process output reader
+ * and is dropped instead of buffering without limit.
+ */
+@Service
+public class ExecutionOutputHub {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionOutputHub.class);
+    
+    // Queued in place of the finished execution when an execution is discarded before it ran
+    private static final Object ABORTED = new Object();
+    
+    @Value("${task-management.execution.stream.backlog-chars:65536}")
+    private int backlogChars = 65536;
+    
+    @Value("${task-management.execution.stream.max-pending-chunks:1024}")
+    private int maxPendingChunks = 1024;
+    
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    
+    private final ExecutorService dispatcher = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "output-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @PreDestroy
+    void stop() {
+        dispatcher.shutdownNow();
+    }
+    
+    /**
+     * Receives the output of one execution
+     */
+    public interface Subscriber {
+        
+        /**
+         * @param text Next piece of output
+         * @throws IOException if the subscriber can no longer be written to
+         */
+        void onOutput(String text) throws IOException;
+        
+        /**
+         * @param execution The finished execution
+         * @throws IOException if the subscriber can no longer be written to
+         */
+        void onComplete(TaskExecution execution) throws IOException;
+        
+        /**
+         * Called when the subscriber is dropped before the execution finished
+         * @param reason Why the subscriber was dropped
+         */
+        void onDropped(String reason);
+    }
+    
+    /**
+     * Open the output channel of an execution that is about to start
+     * @param taskId Task ID
+     * @param executionId Execution ID
+     * @return Listener to pass to the output reader
+     */
+    public OutputListener open(String taskId, String executionId) {
+        Channel channel = new Channel(taskId);
+        channels.put(executionId, channel);
+        return channel;
+    }
+    
+    /**
+     * Subscribe to the output of a running execution. The subscriber first receives the most recent output.
+     * @param taskId Task ID
+     * @param executionId Execution ID
+     * @param subscriber Subscriber
+     * @return false if the execution is not running (anymore) on this node
+     */
+    public boolean subscribe(String taskId, String executionId, Subscriber subscriber) {
+        Channel channel = channels.get(executionId);
+        return channel != null && channel.taskId.equals(taskId) && channel.subscribe(subscriber);
+    }
+    
+    /**
+     * Stop delivering output to a subscriber
+     * @param executionId Execution ID
+     * @param subscriber Subscriber
+     */
+    public void unsubscribe(String executionId, Subscriber subscriber) {
+        Channel channel = channels.get(executionId);
+        if (channel != null) {
+            channel.unsubscribe(subscriber);
+        }
+    }
+    
+    /**
+     * Close the channel of a finished execution, notifying all subscribers
+     * @param executionId Execution ID
+     * @param execution The finished execution, or null if it never ran
+     */
+    public void close(String executionId, TaskExecution execution) {
+        Channel channel = channels.remove(executionId);
+        if (channel != null) {
+            channel.close(execution);
+        }
+    }
+    
+    /**
+     * Output channel of a single execution
+     */
+    private class Channel implements OutputListener {
+        private final String taskId;
+        private final CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // Bytes of a multi-byte character split across chunks
+        private ByteBuffer pending = ByteBuffer.allocate(0);
+        private final Deque<String> backlog = new ArrayDeque<>();
+        private int backlogSize;
+        private final List<SubscriberQueue> subscribers = new CopyOnWriteArrayList<>();
+        private boolean closed;
+        
+        Channel(String taskId) {
+            this.taskId = taskId;
+        }
+        
+        @Override
+        public synchronized void onOutput(byte[] buffer, int offset, int length) {
+            String text = decode(buffer, offset, length, false);
+            if (text.isEmpty()) {
+                return;
+            }
+            backlog.addLast(text);
+            backlogSize += text.length();
+            while (backlogSize > backlogChars && backlog.size() > 1) {
+                backlogSize -= backlog.removeFirst().length();
+            }
+            for (SubscriberQueue queue : subscribers) {
+                queue.enqueue(text);
+            }
+        }
+        
+        synchronized boolean subscribe(Subscriber subscriber) {
+            if (closed) {
+                return false;
+            }
+            SubscriberQueue queue = new SubscriberQueue(subscriber);
+            if (!backlog.isEmpty()) {
+                queue.enqueue(String.join("", backlog));
+            }
+            subscribers.add(queue);
+            return true;
+        }
+        
+        void unsubscribe(Subscriber subscriber) {
+            subscribers.removeIf(queue -> queue.subscriber == subscriber);
+        }
+        
+        synchronized void close(TaskExecution execution) {
+            closed = true;
+            String rest = decode(new byte[0], 0, 0, true);
+            for (SubscriberQueue queue : subscribers) {
+                if (!rest.isEmpty()) {
+                    queue.enqueue(rest);
+                }
+                queue.enqueue(execution != null ? execution : ABORTED);
+            }
+            subscribers.clear();
+            backlog.clear();
+        }
+        
+        private String decode(byte[] buffer, int offset, int length, boolean endOfInput) {
+            ByteBuffer input;
+            if (pending.hasRemaining()) {
+                input = ByteBuffer.allocate(pending.remaining() + length);
+                input.put(pending).put(buffer, offset, length).flip();
+            } else {
+                input = ByteBuffer.wrap(buffer, offset, length);
+            }
+            CharBuffer output = CharBuffer.allocate((int) (input.remaining() * (double) decoder.maxCharsPerByte()) + 1);
+            decoder.decode(input, output, endOfInput);
+            if (endOfInput) {
+                decoder.flush(output);
+            }
+            // Keep an incomplete trailing character for the next chunk; the caller's buffer is reused
+            pending = ByteBuffer.allocate(input.remaining()).put(input).flip();
+            return output.flip().toString();
+        }
+    }
+    
+    /**
+     * Per-subscriber queue drained on the dispatcher, one drain at a time
+     */
+    private class SubscriberQueue {
+        private final Subscriber subscriber;
+        private final Queue<Object> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean dropped;
+        
+        SubscriberQueue(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+        
+        void enqueue(Object event) {
+            if (dropped) {
+                return;
+            }
+            if (size.incrementAndGet() > maxPendingChunks && !(event instanceof TaskExecution)) {
+                drop("subscriber is too slow");
+                return;
+            }
+            events.add(event);
+            schedule();
+        }
+        
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            try {
+                Object event;
+                while (!dropped && (event = events.poll()) != null) {
+                    size.decrementAndGet();
+                    if (event instanceof String) {
+                        subscriber.onOutput((String) event);
+                    } else if (event instanceof TaskExecution) {
+                        subscriber.onComplete((TaskExecution) event);
+                    } else {
+                        drop("execution did not run");
+                    }
+                }
+            } catch (Exception e) {
+                logger.debug("Dropping output subscriber: {}", e.getMessage());
+                dropped = true;
+            } finally {
+                draining.set(false);
+            }
+            if (!dropped && !events.isEmpty()) {
+                schedule();
+            }
+        }
+        
+        private void drop(String reason) {
+            dropped = true;
+            events.clear();
+            dispatcher.execute(() -> subscriber.onDropped(reason));
+        }
+    }
+}
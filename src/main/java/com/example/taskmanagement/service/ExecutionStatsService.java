@@ -0,0 +1,131 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.dto.ExecutionStatsSummary;
+import com.example.taskmanagement.model.ExecutionStats;
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.TaskExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maintains the execution statistics of each task. Every recorded execution increments its task's
+ * counters and duration bucket with a single upsert, so reading statistics never scans the history.
+ * Statistics are best effort: a failed update is logged and does not fail the execution.
+ */
+@Service
+public class ExecutionStatsService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionStatsService.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    /**
+     * Count a recorded execution
+     * @param taskExecution Finished execution, carrying its task ID
+     */
+    public void record(TaskExecution taskExecution) {
+        try {
+            mongoTemplate.upsert(byTask(taskExecution.getTaskId()), increment(taskExecution), ExecutionStats.class);
+        } catch (Exception e) {
+            logger.warn("Could not update statistics of task {}: {}", taskExecution.getTaskId(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Count several recorded executions with a single write
+     * @param taskExecutions Finished executions, each carrying its task ID
+     */
+    public void recordAll(Collection<TaskExecution> taskExecutions) {
+        if (taskExecutions.isEmpty()) {
+            return;
+        }
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ExecutionStats.class);
+            for (TaskExecution taskExecution : taskExecutions) {
+                bulk.upsert(byTask(taskExecution.getTaskId()), increment(taskExecution));
+            }
+            bulk.execute();
+        } catch (Exception e) {
+            logger.warn("Could not update statistics of {} executions: {}", taskExecutions.size(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Update that counts one execution in its task's statistics, to be applied as an upsert by task ID
+     * @param taskExecution Finished execution
+     * @return Update
+     */
+    public static Update increment(TaskExecution taskExecution) {
+        Update update = new Update().inc("runs", 1);
+        if (taskExecution.getStatus() != ExecutionStatus.COMPLETED) {
+            update.inc("failures", 1);
+        }
+        if (taskExecution.getStartTime() != null && taskExecution.getEndTime() != null) {
+            long duration = Math.max(0, taskExecution.getEndTime().getTime() - taskExecution.getStartTime().getTime());
+            update.inc("totalDurationMs", duration)
+                .inc("durationBuckets." + DurationSketch.bucketOf(duration), 1);
+        }
+        return update;
+    }
+    
+    /**
+     * Get the statistics of a task
+     * @param taskId Task ID
+     * @return Statistics, with no runs if the task was never executed
+     */
+    public ExecutionStatsSummary getTaskStats(String taskId) {
+        ExecutionStats stats = mongoTemplate.findById(taskId, ExecutionStats.class);
+        return summarize(taskId, null, null, stats != null ? List.of(stats) : List.of());
+    }
+    
+    /**
+     * Get the combined statistics of several tasks
+     * @param owner Owner of the tasks
+     * @param taskIds Task IDs
+     * @return Statistics over all executions of the tasks
+     */
+    public ExecutionStatsSummary getOwnerStats(String owner, Collection<String> taskIds) {
+        List<ExecutionStats> stats = taskIds.isEmpty()
+            ? List.of() : mongoTemplate.find(new Query(Criteria.where("_id").in(taskIds)), ExecutionStats.class);
+        return summarize(null, owner, taskIds.size(), stats);
+    }
+    
+    /**
+     * Delete the statistics of a task
+     * @param taskId Task ID
+     */
+    public void deleteByTask(String taskId) {
+        mongoTemplate.remove(byTask(taskId), ExecutionStats.class);
+    }
+    
+    static ExecutionStatsSummary summarize(String taskId, String owner, Integer tasks, Collection<ExecutionStats> stats) {
+        long runs = 0;
+        long failures = 0;
+        long totalDurationMs = 0;
+        DurationSketch durations = new DurationSketch();
+        for (ExecutionStats taskStats : stats) {
+            runs += taskStats.getRuns();
+            failures += taskStats.getFailures();
+            totalDurationMs += taskStats.getTotalDurationMs();
+            durations.addAll(taskStats.getDurationBuckets());
+        }
+        Double mean = durations.count() > 0 ? (double) totalDurationMs / durations.count() : null;
+        return new ExecutionStatsSummary(taskId, owner, tasks, runs, failures, mean,
+            durations.quantile(0.5), durations.quantile(0.95), durations.quantile(0.99));
+    }
+    
+    private static Query byTask(String taskId) {
+        return new Query(Criteria.where("_id").is(taskId));
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.TaskExecution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue of finished executions that a background thread writes in batches, once a batch is
+ * full or the oldest queued execution has waited for the flush interval. When the queue is full,
+ * callers wait up to the offer timeout and then write their execution themselves, so a slow database
+ * slows executions down instead of losing them. Queued executions can still be looked up by ID.
+ */
+final class ExecutionWriteBehind {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionWriteBehind.class);
+    
+    static final String QUEUE_DEPTH = "task.execution.writebehind.queue.depth";
+    static final String FLUSH_TIMER = "task.execution.writebehind.flush";
+    static final String OVERFLOWS = "task.execution.writebehind.overflows";
+    
+    // Longest the flusher waits without checking whether it was closed
+    private static final long CLOSE_CHECK_MS = 100;
+    
+    private final BlockingQueue<TaskExecution> queue;
+    private final Map<String, TaskExecution> pending = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final Consumer<List<TaskExecution>> writer;
+    private final Consumer<TaskExecution> directWriter;
+    private final Thread flusher;
+    private final Timer flushTimer;
+    private final Counter overflows;
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    
+    // Executions accepted so far and executions written so far, for flush barriers
+    private long accepted;
+    private long written;
+    private volatile boolean closed;
+    
+    /**
+     * @param capacity Maximum number of queued executions
+     * @param batchSize Maximum number of executions per write
+     * @param flushIntervalMs Longest time an execution waits for its batch to fill up
+     * @param offerTimeoutMs How long a caller waits for room in a full queue
+     * @param writer Writes a batch of executions
+     * @param directWriter Writes a single execution, on the caller's thread
+     * @param meterRegistry Registry for the queue depth, flush latency and overflow metrics
+     */
+    ExecutionWriteBehind(int capacity, int batchSize, long flushIntervalMs, long offerTimeoutMs,
+                         Consumer<List<TaskExecution>> writer, Consumer<TaskExecution> directWriter,
+                         MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.writer = writer;
+        this.directWriter = directWriter;
+        Gauge.builder(QUEUE_DEPTH, queue, BlockingQueue::size)
+            .description("Finished executions waiting to be written")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder(FLUSH_TIMER)
+            .description("Time to write one batch of queued executions")
+            .register(meterRegistry);
+        this.overflows = Counter.builder(OVERFLOWS)
+            .description("Executions written by their caller because the write-behind queue was full")
+            .register(meterRegistry);
+        this.flusher = new Thread(this::run, "execution-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+    
+    /**
+     * Queue a finished execution, or write it directly if the queue stays full or is closed
+     * @param taskExecution Finished execution, carrying its task ID
+     */
+    void add(TaskExecution taskExecution) {
+        boolean counted = false;
+        boolean queued = false;
+        // Held while offering, so that nothing is queued once close has started draining
+        closing.readLock().lock();
+        try {
+            if (!closed) {
+                counted = true;
+                synchronized (this) {
+                    accepted++;
+                }
+                pending.put(taskExecution.getId(), taskExecution);
+                try {
+                    queued = queue.offer(taskExecution, offerTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (!queued) {
+                    overflows.increment();
+                    pending.remove(taskExecution.getId());
+                }
+            }
+        } finally {
+            closing.readLock().unlock();
+        }
+        if (!queued) {
+            try {
+                directWriter.accept(taskExecution);
+            } finally {
+                if (counted) {
+                    written(1);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @param executionId Execution ID
+     * @return The execution if it is queued and not yet written
+     */
+    Optional<TaskExecution> find(String executionId) {
+        return Optional.ofNullable(pending.get(executionId));
+    }
+    
+    /**
+     * Wait until every execution queued before this call has been written
+     * @param timeoutMs Longest time to wait
+     * @return false if the timeout elapsed first
+     */
+    boolean awaitFlushed(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (this) {
+            long target = accepted;
+            while (written < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Stop accepting executions and write the queued ones
+     * @param timeoutMs Longest time to wait for the queue to drain
+     */
+    void close(long timeoutMs) throws InterruptedException {
+        closing.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        // Not interrupted, which could abort a write in progress; it notices within CLOSE_CHECK_MS
+        flusher.join(timeoutMs);
+        if (flusher.isAlive()) {
+            logger.warn("Write-behind queue did not drain in time, {} executions not written", queue.size());
+        }
+    }
+    
+    private void run() {
+        List<TaskExecution> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                TaskExecution first = queue.poll(Math.min(flushIntervalMs, CLOSE_CHECK_MS), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize && !closed) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    TaskExecution next = remaining > 0
+                        ? queue.poll(Math.min(remaining, CLOSE_CHECK_MS), TimeUnit.MILLISECONDS) : null;
+                    if (next == null && remaining > CLOSE_CHECK_MS) {
+                        continue;
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                logger.warn("Write-behind flusher interrupted, writing {} queued executions", queue.size());
+                closed = true;
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    private void flush(List<TaskExecution> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            writer.accept(new ArrayList<>(batch));
+        } catch (Exception e) {
+            logger.error("Failed to write {} queued executions", batch.size(), e);
+        } finally {
+            sample.stop(flushTimer);
+            batch.forEach(execution -> pending.remove(execution.getId()));
+            written(batch.size());
+        }
+    }
+    
+    private synchronized void written(int count) {
+        written += count;
+        notifyAll();
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.OutputBlob;
+import com.example.taskmanagement.model.TaskExecution;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores execution outputs of at least min-bytes once per distinct content, in the output_blobs
+ * collection, deflated when that makes them smaller. Executions then keep only the content hash, so
+ * a recurring task that prints the same output every run stores it once. Each blob counts the
+ * executions referencing it and is removed when the last one is deleted.
+ * Outputs stored inline by earlier versions are read as before.
+ */
+@Service
+public class OutputBlobStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutputBlobStore.class);
+    
+    static final String BLOBS = "task.execution.output.blobs";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${task-management.output-blobs.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${task-management.output-blobs.min-bytes:512}")
+    private int minBytes = 512;
+    
+    @Value("${task-management.output-blobs.compression-level:6}")
+    private int compressionLevel = 6;
+    
+    private Counter created;
+    
+    private Counter deduplicated;
+    
+    @PostConstruct
+    void init() {
+        created = Counter.builder(BLOBS).tag("result", "created")
+            .description("Execution outputs stored in the blob collection")
+            .register(meterRegistry);
+        deduplicated = Counter.builder(BLOBS).tag("result", "deduplicated")
+            .description("Execution outputs stored in the blob collection")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Move the output of an execution into a blob before the execution is stored.
+     * The reference is taken first, so that the blob is never removed while still referenced;
+     * if storing the execution then fails, the caller must {@link #release release} it.
+     * @param taskExecution Finished execution; not modified
+     * @return Execution to store: the same one if its output stays inline, otherwise a copy
+     *         without output that references the blob
+     */
+    public TaskExecution store(TaskExecution taskExecution) {
+        OutputBlob blob = encode(taskExecution.getOutput());
+        if (blob == null) {
+            return taskExecution;
+        }
+        UpdateResult result = mongoTemplate.upsert(byHash(blob.getHash()), reference(blob, 1), OutputBlob.class);
+        (result.getUpsertedId() != null ? created : deduplicated).increment();
+        return withoutOutput(taskExecution, blob.getHash());
+    }
+    
+    /**
+     * Move the outputs of several executions into blobs with a single write, see {@link #store(TaskExecution)}
+     * @param taskExecutions Finished executions; not modified
+     * @return Executions to store, in the same order
+     */
+    public List<TaskExecution> storeAll(Collection<TaskExecution> taskExecutions) {
+        List<TaskExecution> stored = new ArrayList<>(taskExecutions.size());
+        Map<String, OutputBlob> blobs = new LinkedHashMap<>();
+        Map<String, Integer> references = new HashMap<>();
+        for (TaskExecution taskExecution : taskExecutions) {
+            OutputBlob blob = encode(taskExecution.getOutput());
+            if (blob == null) {
+                stored.add(taskExecution);
+                continue;
+            }
+            blobs.putIfAbsent(blob.getHash(), blob);
+            references.merge(blob.getHash(), 1, Integer::sum);
+            stored.add(withoutOutput(taskExecution, blob.getHash()));
+        }
+        if (!blobs.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutputBlob.class);
+            for (OutputBlob blob : blobs.values()) {
+                bulk.upsert(byHash(blob.getHash()), reference(blob, references.get(blob.getHash())));
+            }
+            BulkWriteResult result = bulk.execute();
+            int total = references.values().stream().mapToInt(Integer::intValue).sum();
+            created.increment(result.getUpserts().size());
+            deduplicated.increment(total - result.getUpserts().size());
+        }
+        return stored;
+    }
+    
+    /**
+     * Fill in the outputs that are stored in blobs, fetching each distinct blob once
+     * @param taskExecutions Executions as read from the database
+     * @return The same executions
+     */
+    public <T extends Collection<TaskExecution>> T resolve(T taskExecutions) {
+        List<String> hashes = taskExecutions.stream()
+            .filter(OutputBlobStore::needsOutput)
+            .map(TaskExecution::getOutputHash)
+            .distinct()
+            .toList();
+        if (hashes.isEmpty()) {
+            return taskExecutions;
+        }
+        Map<String, String> outputs = new HashMap<>();
+        for (OutputBlob blob : mongoTemplate.find(new Query(Criteria.where("_id").in(hashes)), OutputBlob.class)) {
+            outputs.put(blob.getHash(), decode(blob));
+        }
+        fill(taskExecutions, outputs);
+        return taskExecutions;
+    }
+    
+    /**
+     * Fill in the output of a single execution, see {@link #resolve(Collection)}
+     * @param taskExecution Optional execution as read from the database
+     * @return The same optional execution
+     */
+    public Optional<TaskExecution> resolve(Optional<TaskExecution> taskExecution) {
+        taskExecution.ifPresent(execution -> resolve(List.of(execution)));
+        return taskExecution;
+    }
+    
+    /**
+     * Drop the references of deleted executions, removing blobs that are no longer referenced
+     * @param taskExecutions Deleted executions; only their output hash is used
+     */
+    public void release(Collection<TaskExecution> taskExecutions) {
+        Map<String, Integer> references = countReferences(taskExecutions);
+        if (references.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutputBlob.class);
+        references.forEach((hash, count) -> bulk.updateOne(byHash(hash), new Update().inc("refs", -count)));
+        bulk.execute();
+        // A blob referenced again in the meantime has a positive count and is kept
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(references.keySet()).and("refs").lte(0)), OutputBlob.class);
+        logger.debug("Released {} output blobs", references.size());
+    }
+    
+    /**
+     * Prepare a blob for an output, without storing it
+     * @param output Output of an execution, or null
+     * @return Blob, or null if the output is kept inline in the execution
+     */
+    public OutputBlob encode(String output) {
+        if (!enabled || output == null) {
+            return null;
+        }
+        byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < minBytes) {
+            return null;
+        }
+        byte[] deflated = deflate(bytes, compressionLevel);
+        return deflated.length < bytes.length
+            ? new OutputBlob(hash(bytes), deflated, true, bytes.length)
+            : new OutputBlob(hash(bytes), bytes, false, bytes.length);
+    }
+    
+    /**
+     * Update that adds references to a blob, creating it if needed; to be applied as an upsert by hash
+     * @param blob Blob
+     * @param count Number of references to add
+     * @return Update
+     */
+    public static Update reference(OutputBlob blob, int count) {
+        return new Update().inc("refs", count)
+            .setOnInsert("data", blob.getData())
+            .setOnInsert("compressed", blob.isCompressed())
+            .setOnInsert("size", blob.getSize());
+    }
+    
+    /**
+     * @param blob Stored blob
+     * @return Output held by the blob
+     */
+    public static String decode(OutputBlob blob) {
+        if (!blob.isCompressed()) {
+            return new String(blob.getData(), StandardCharsets.UTF_8);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(blob.getData());
+            byte[] bytes = new byte[(int) blob.getSize()];
+            int length = 0;
+            while (length < bytes.length && !inflater.finished()) {
+                int read = inflater.inflate(bytes, length, bytes.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt output blob " + blob.getHash(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    /**
+     * Copy an execution for storage, referencing a blob instead of holding the output
+     * @param taskExecution Finished execution
+     * @param hash Hash of the blob holding its output
+     * @return Copy without output
+     */
+    public static TaskExecution withoutOutput(TaskExecution taskExecution, String hash) {
+        TaskExecution copy = new TaskExecution(taskExecution.getStartTime(), taskExecution.getEndTime(), null);
+        copy.setId(taskExecution.getId());
+        copy.setTaskId(taskExecution.getTaskId());
+        copy.setStatus(taskExecution.getStatus());
+        copy.setExitCode(taskExecution.getExitCode());
+        copy.setOutputBytes(taskExecution.getOutputBytes());
+        copy.setOutputTruncated(taskExecution.isOutputTruncated());
+        copy.setOutputRef(taskExecution.getOutputRef());
+        copy.setOutputHash(hash);
+        return copy;
+    }
+    
+    /**
+     * @param taskExecution Execution as read from the database
+     * @return Whether its output is held by a blob and not yet filled in
+     */
+    public static boolean needsOutput(TaskExecution taskExecution) {
+        return taskExecution.getOutputHash() != null && taskExecution.getOutput() == null;
+    }
+    
+    /**
+     * Fill in outputs from decoded blobs. A missing blob leaves the output empty.
+     * @param taskExecutions Executions as read from the database
+     * @param outputs Output per blob hash
+     */
+    public static void fill(Collection<TaskExecution> taskExecutions, Map<String, String> outputs) {
+        for (TaskExecution taskExecution : taskExecutions) {
+            if (needsOutput(taskExecution)) {
+                String output = outputs.get(taskExecution.getOutputHash());
+                if (output == null) {
+                    logger.warn("Output blob {} of execution {} is missing",
+                               taskExecution.getOutputHash(), taskExecution.getId());
+                }
+                taskExecution.setOutput(output);
+            }
+        }
+    }
+    
+    /**
+     * @param taskExecutions Executions
+     * @return Number of executions per referenced blob hash
+     */
+    public static Map<String, Integer> countReferences(Collection<TaskExecution> taskExecutions) {
+        Map<String, Integer> references = new HashMap<>();
+        for (TaskExecution taskExecution : taskExecutions) {
+            if (taskExecution.getOutputHash() != null) {
+                references.merge(taskExecution.getOutputHash(), 1, Integer::sum);
+            }
+        }
+        return references;
+    }
+    
+    /**
+     * @param output Output, or null
+     * @return Hex SHA-256 of the UTF-8 output, or null for no output
+     */
+    public static String hash(String output) {
+        return output != null ? hash(output.getBytes(StandardCharsets.UTF_8)) : null;
+    }
+    
+    private static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static byte[] deflate(byte[] bytes, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream deflated = new ByteArrayOutputStream(bytes.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                deflated.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return deflated.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+    
+    private static Query byHash(String hash) {
+        return new Query(Criteria.where("_id").is(hash));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.taskmanagement.service;
+
+/**
+ * Receives command output as it is read from the process, before it is stored
+ */
+@FunctionalInterface
+public interface OutputListener {
+    
+    /** Listener that ignores all output */
+    OutputListener NONE = (buffer, offset, length) -> { };
+    
+    /**
+     * Called from the output reader for every chunk read. The buffer is reused after the call returns,
+     * so implementations must copy what they keep and must not block.
+     * @param buffer Buffer holding the chunk
+     * @param offset Offset of the first byte
+     * @param length Number of bytes
+     */
+    void onOutput(byte[] buffer, int offset, int length);
+}
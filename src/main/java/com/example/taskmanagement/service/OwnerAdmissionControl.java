@@ -0,0 +1,261 @@
+package com.example.taskmanagement.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how fast and how many executions each task owner may run, so one owner cannot take all
+ * process slots. Each owner has a token bucket, kept as a single theoretical arrival time that is
+ * advanced with compare-and-set, and a counter of running executions; both are per owner, so owners
+ * never contend with each other and admission takes no lock. Limits default to the configured values
+ * and can be overridden per owner under task-management.admission.owners.
+ */
+@Service
+public class OwnerAdmissionControl {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OwnerAdmissionControl.class);
+    
+    static final String REJECTED = "task.execution.admission.rejected";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private Environment environment;
+    
+    @Value("${task-management.admission.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${task-management.admission.rate-per-second:20}")
+    private double ratePerSecond = 20;
+    
+    @Value("${task-management.admission.burst:40}")
+    private int burst = 40;
+    
+    @Value("${task-management.admission.max-concurrent:8}")
+    private int maxConcurrent = 8;
+    
+    // Suggested wait after a concurrency rejection, when no better estimate is known
+    @Value("${task-management.admission.concurrency-retry-after-seconds:1}")
+    private long concurrencyRetryAfterSeconds = 1;
+    
+    private Map<String, Limits> overrides = Map.of();
+    
+    private final Map<String, OwnerState> owners = new ConcurrentHashMap<>();
+    
+    private Counter rateRejections;
+    
+    private Counter concurrencyRejections;
+    
+    @PostConstruct
+    void init() {
+        if (environment != null) {
+            overrides = Binder.get(environment)
+                .bind("task-management.admission.owners", Bindable.mapOf(String.class, Limits.class))
+                .orElse(Map.of());
+        }
+        rateRejections = Counter.builder(REJECTED).tag("reason", "rate")
+            .description("Executions refused because their owner exceeded a limit")
+            .register(meterRegistry);
+        concurrencyRejections = Counter.builder(REJECTED).tag("reason", "concurrency")
+            .description("Executions refused because their owner exceeded a limit")
+            .register(meterRegistry);
+        logger.info("Admission control: enabled={}, rate={}/s, burst={}, maxConcurrent={}, overrides={}",
+                   enabled, ratePerSecond, burst, maxConcurrent, overrides.keySet());
+    }
+    
+    /**
+     * Admit one execution of an owner's task. Every successful call must be paired with
+     * {@link #release(String)} once the execution has finished.
+     * @param owner Task owner; tasks without one share a single set of limits
+     * @throws AdmissionRejectedException if the owner is over their rate or concurrency limit
+     */
+    public void acquire(String owner) {
+        if (!enabled) {
+            return;
+        }
+        OwnerState state = owners.computeIfAbsent(key(owner), this::newState);
+        // The slot is taken first, so that a request refused for concurrency does not spend a token
+        if (!state.startExecution()) {
+            concurrencyRejections.increment();
+            logger.debug("Owner {} is at their concurrent execution limit", owner);
+            throw new AdmissionRejectedException("Too many concurrent executions for owner " + owner,
+                concurrencyRetryAfterSeconds);
+        }
+        long waitNanos = state.takeToken(System.nanoTime());
+        if (waitNanos > 0) {
+            state.running.decrementAndGet();
+            throw rateRejection(owner, waitNanos);
+        }
+    }
+    
+    /**
+     * Admit one execution of an owner's task that is queued to start later, possibly on another node.
+     * Only a rate token is taken; the node running it takes the concurrency slot with
+     * {@link #tryStart(String)} when it starts.
+     * @param owner Task owner
+     * @throws AdmissionRejectedException if the owner is over their rate limit
+     */
+    public void acquireRate(String owner) {
+        if (!enabled) {
+            return;
+        }
+        long waitNanos = owners.computeIfAbsent(key(owner), this::newState).takeToken(System.nanoTime());
+        if (waitNanos > 0) {
+            throw rateRejection(owner, waitNanos);
+        }
+    }
+    
+    /**
+     * Take a concurrency slot for a queued execution admitted by {@link #acquireRate(String)}.
+     * A successful call must be paired with {@link #release(String)} once the execution has finished.
+     * @param owner Task owner
+     * @return false if the owner is at their concurrency limit and the execution has to wait
+     */
+    public boolean tryStart(String owner) {
+        return !enabled || owners.computeIfAbsent(key(owner), this::newState).startExecution();
+    }
+    
+    /**
+     * Return the concurrency slot taken by {@link #acquire(String)} or {@link #tryStart(String)}
+     * @param owner Task owner
+     */
+    public void release(String owner) {
+        if (!enabled) {
+            return;
+        }
+        OwnerState state = owners.get(key(owner));
+        if (state != null) {
+            state.running.decrementAndGet();
+        }
+    }
+    
+    private AdmissionRejectedException rateRejection(String owner, long waitNanos) {
+        rateRejections.increment();
+        logger.debug("Owner {} is over their execution rate", owner);
+        return new AdmissionRejectedException("Execution rate limit exceeded for owner " + owner,
+            Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+    }
+    
+    private static String key(String owner) {
+        return owner != null ? owner : "";
+    }
+    
+    private OwnerState newState(String owner) {
+        Limits limits = overrides.get(owner);
+        double rate = limits != null && limits.getRatePerSecond() != null ? limits.getRatePerSecond() : ratePerSecond;
+        int ownerBurst = limits != null && limits.getBurst() != null ? limits.getBurst() : burst;
+        int concurrent = limits != null && limits.getMaxConcurrent() != null ? limits.getMaxConcurrent() : maxConcurrent;
+        return new OwnerState(rate, ownerBurst, concurrent);
+    }
+    
+    /**
+     * Limits of one owner; unset values fall back to the defaults
+     */
+    public static class Limits {
+        private Double ratePerSecond;
+        private Integer burst;
+        private Integer maxConcurrent;
+        
+        public Double getRatePerSecond() {
+            return ratePerSecond;
+        }
+        
+        public void setRatePerSecond(Double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+        
+        public Integer getBurst() {
+            return burst;
+        }
+        
+        public void setBurst(Integer burst) {
+            this.burst = burst;
+        }
+        
+        public Integer getMaxConcurrent() {
+            return maxConcurrent;
+        }
+        
+        public void setMaxConcurrent(Integer maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+    
+    /**
+     * Token bucket and running executions of one owner. The bucket is stored as the time at which it
+     * would be full again (generic cell rate algorithm): a token is available when that time is less
+     * than burst intervals ahead, and taking one moves it forward by one interval.
+     * A rate or concurrency limit of zero or less means unlimited.
+     */
+    static final class OwnerState {
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final int maxConcurrent;
+        private final AtomicLong fullAt;
+        private final AtomicInteger running = new AtomicInteger();
+        
+        OwnerState(double ratePerSecond, int burst, int maxConcurrent) {
+            this.intervalNanos = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+            this.toleranceNanos = intervalNanos * Math.max(1, burst);
+            this.maxConcurrent = maxConcurrent;
+            this.fullAt = new AtomicLong(System.nanoTime());
+        }
+        
+        /**
+         * @param now Current System.nanoTime()
+         * @return 0 if a token was taken, otherwise nanoseconds until one is available
+         */
+        long takeToken(long now) {
+            if (intervalNanos == 0) {
+                return 0;
+            }
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current - now, 0) + now + intervalNanos;
+                long wait = next - now - toleranceNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+        
+        boolean startExecution() {
+            if (maxConcurrent <= 0) {
+                running.incrementAndGet();
+                return true;
+            }
+            while (true) {
+                int current = running.get();
+                if (current >= maxConcurrent) {
+                    return false;
+                }
+                if (running.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+        
+        int running() {
+            return running.get();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import com.example.taskmanagement.model.TaskSchedule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of task documents and their execution histories, keyed by task ID.
+ * The two are cached separately so that appending an execution only invalidates the history,
+ * and the execution path keeps reading the task itself from memory. Callers always receive copies.
+ * Statistics are published as cache.* metrics under the names "tasks" and "task-executions".
+ */
+@Service
+public class TaskCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskCache.class);
+    
+    static final String TASKS = "tasks";
+    static final String HISTORIES = "task-executions";
+    
+    // Rough fixed cost of an execution besides its output, in bytes
+    private static final int EXECUTION_OVERHEAD = 256;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${task-management.cache.tasks.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${task-management.cache.tasks.max-size:10000}")
+    private long maxSize = 10000;
+    
+    @Value("${task-management.cache.tasks.ttl-seconds:300}")
+    private long ttlSeconds = 300;
+    
+    @Value("${task-management.cache.tasks.history-max-bytes:67108864}")
+    private long historyMaxBytes = 67108864;
+    
+    private Cache<String, Task> tasks;
+    
+    private Cache<String, List<TaskExecution>> histories;
+    
+    @PostConstruct
+    void init() {
+        tasks = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        // Histories vary widely in size, so they are bounded by the approximate memory they hold
+        histories = Caffeine.newBuilder()
+            .maximumWeight(historyMaxBytes)
+            .weigher(TaskCache::weigh)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tasks, TASKS);
+        CaffeineCacheMetrics.monitor(meterRegistry, histories, HISTORIES);
+        logger.info("Task cache: enabled={}, maxSize={}, ttl={}s, historyMaxBytes={}",
+                   enabled, maxSize, ttlSeconds, historyMaxBytes);
+    }
+    
+    /**
+     * Get a task, loading it on a miss
+     * @param taskId Task ID
+     * @param loader Loads the task, returning null if it does not exist; missing tasks are not cached
+     * @return Copy of the task without execution history
+     */
+    public Optional<Task> getTask(String taskId, Function<String, Task> loader) {
+        Task task = enabled ? tasks.get(taskId, loader) : loader.apply(taskId);
+        return Optional.ofNullable(task).map(TaskCache::copy);
+    }
+    
+    /**
+     * Get the execution history of a task, loading it on a miss
+     * @param taskId Task ID
+     * @param loader Loads the history
+     * @return Copy of the history, oldest first
+     */
+    public List<TaskExecution> getExecutions(String taskId, Function<String, List<TaskExecution>> loader) {
+        List<TaskExecution> executions = enabled ? histories.get(taskId, loader) : loader.apply(taskId);
+        return new ArrayList<>(executions);
+    }
+    
+    /**
+     * Drop a task and its history, after the task was saved or deleted
+     * @param taskId Task ID
+     */
+    public void invalidate(String taskId) {
+        tasks.invalidate(taskId);
+        histories.invalidate(taskId);
+    }
+    
+    /**
+     * Drop the history of a task, after executions were added or removed
+     * @param taskId Task ID
+     */
+    public void invalidateExecutions(String taskId) {
+        histories.invalidate(taskId);
+    }
+    
+    private static Task copy(Task cached) {
+        Task task = new Task(cached.getId(), cached.getName(), cached.getOwner(), cached.getCommand());
+        task.setIdempotent(cached.isIdempotent());
+        task.setResultTtlSeconds(cached.getResultTtlSeconds());
+        task.setTimeoutSeconds(cached.getTimeoutSeconds());
+        task.setSchedule(cached.getSchedule() != null ? new TaskSchedule(cached.getSchedule()) : null);
+        task.setNameLower(cached.getNameLower());
+        task.setNameGrams(cached.getNameGrams());
+        return task;
+    }
+    
+    private static int weigh(String taskId, List<TaskExecution> executions) {
+        long bytes = 0;
+        for (TaskExecution execution : executions) {
+            bytes += EXECUTION_OVERHEAD + (execution.getOutput() != null ? 2L * execution.getOutput().length() : 0);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.Task;
+
+/**
+ * Published after a task was saved or deleted
+ */
+public class TaskChangedEvent {
+    
+    private final String taskId;
+    private final Task task;
+    
+    private TaskChangedEvent(String taskId, Task task) {
+        this.taskId = taskId;
+        this.task = task;
+    }
+    
+    public static TaskChangedEvent saved(Task task) {
+        return new TaskChangedEvent(task.getId(), task);
+    }
+    
+    public static TaskChangedEvent deleted(String taskId) {
+        return new TaskChangedEvent(taskId, null);
+    }
+    
+    public String getTaskId() {
+        return taskId;
+    }
+    
+    /**
+     * @return The saved task, or null if it was deleted
+     */
+    public Task getTask() {
+        return task;
+    }
+}
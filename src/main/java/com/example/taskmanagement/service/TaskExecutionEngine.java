@@ -0,0 +1,268 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs task executions asynchronously on a dedicated, bounded worker pool so that
+ * long-running commands do not hold servlet request threads
+ */
+@Service
+public class TaskExecutionEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskExecutionEngine.class);
+    
+    /**
+     * Outcome of a cancellation request
+     */
+    public enum Cancellation {
+        CANCELLED,
+        ALREADY_FINISHED,
+        NOT_FOUND
+    }
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private CommandExecutionService commandExecutionService;
+    
+    @Autowired
+    private ExecutionOutputHub executionOutputHub;
+    
+    @Autowired
+    private OwnerAdmissionControl admissionControl;
+    
+    @Autowired
+    private DistributedExecutionQueue distributedQueue;
+    
+    @Value("${task-management.execution.pool.core-size:4}")
+    private int corePoolSize;
+    
+    @Value("${task-management.execution.pool.max-size:16}")
+    private int maxPoolSize;
+    
+    @Value("${task-management.execution.pool.queue-capacity:100}")
+    private int queueCapacity;
+    
+    @Value("${task-management.execution.pool.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+    
+    // Executions that have been accepted but not yet persisted, keyed by execution ID
+    private final Map<String, TaskExecution> inFlight = new ConcurrentHashMap<>();
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolExecutor(
+            corePoolSize, Math.max(corePoolSize, maxPoolSize),
+            keepAliveSeconds, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new WorkerThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Task execution pool started: core={}, max={}, queue={}",
+                   corePoolSize, executor.getMaximumPoolSize(), queueCapacity);
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Task execution pool did not drain in time, {} executions abandoned", inFlight.size());
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Accept a task for asynchronous execution, on this node or, with the distributed queue enabled,
+     * on whichever node claims it first
+     * @param taskId Task ID
+     * @return The RUNNING execution, whose ID can be used to poll for the result
+     * @throws IllegalArgumentException if task is not found or its command is invalid
+     * @throws AdmissionRejectedException if the task's owner is over their execution limits
+     * @throws RejectedExecutionException if the worker pool and its queue are full
+     */
+    public TaskExecution submit(String taskId) {
+        return start(taskId, true, 0);
+    }
+    
+    /**
+     * Accept a scheduled run of a task for asynchronous execution. Scheduled runs are bounded by the
+     * worker pool only and do not count against their owner's execution limits.
+     * @param taskId Task ID
+     * @param nominalMillis Nominal time of the run, which identifies it when every node fires the schedule
+     * @return The RUNNING execution
+     * @throws IllegalArgumentException if task is not found or its command is invalid
+     * @throws RejectedExecutionException if the worker pool and its queue are full
+     */
+    public TaskExecution submitScheduled(String taskId, long nominalMillis) {
+        return start(taskId, false, nominalMillis);
+    }
+    
+    private TaskExecution start(String taskId, boolean admitted, long nominalMillis) {
+        if (distributedQueue.isEnabled()) {
+            return admitted ? distributedQueue.enqueue(taskId) : distributedQueue.enqueueScheduled(taskId, nominalMillis);
+        }
+        Task task = taskService.prepareExecution(taskId);
+        String owner = task.getOwner();
+        if (admitted) {
+            admissionControl.acquire(owner);
+        }
+        
+        TaskExecution accepted = taskService.newExecution();
+        accepted.setStartTime(new Date());
+        accepted.setStatus(ExecutionStatus.RUNNING);
+        String executionId = accepted.getId();
+        
+        OutputListener outputListener = executionOutputHub.open(taskId, executionId);
+        inFlight.put(executionId, accepted);
+        commandExecutionService.reserve(executionId);
+        try {
+            executor.execute(() -> run(taskId, owner, admitted, task.getCommand(),
+                task.getTimeoutSeconds(), executionId, outputListener));
+        } catch (RejectedExecutionException e) {
+            if (admitted) {
+                admissionControl.release(owner);
+            }
+            commandExecutionService.release(executionId);
+            inFlight.remove(executionId);
+            executionOutputHub.close(executionId, null);
+            logger.warn("Execution queue full, rejecting task {}", taskId);
+            throw e;
+        }
+        
+        logger.info("Task {} accepted for asynchronous execution: {}", taskId, executionId);
+        return accepted;
+    }
+    
+    /**
+     * Look up an execution, whether it is still running or already persisted
+     * @param taskId Task ID
+     * @param executionId Execution ID
+     * @return Optional TaskExecution
+     */
+    public Optional<TaskExecution> getExecution(String taskId, String executionId) {
+        TaskExecution running = inFlight.get(executionId);
+        if (running != null) {
+            return Optional.of(running);
+        }
+        if (distributedQueue.isEnabled()) {
+            // Checked first, as a job is removed only after its execution is stored
+            Optional<TaskExecution> queued = distributedQueue.find(taskId, executionId);
+            if (queued.isPresent()) {
+                return queued;
+            }
+        }
+        return taskService.findExecution(taskId, executionId);
+    }
+    
+    /**
+     * Cancel an execution that is queued or running, whether it was started asynchronously or not.
+     * Its command and every process it started are killed, and it is stored as CANCELLED.
+     * @param taskId Task ID
+     * @param executionId Execution ID
+     * @return Whether the execution was cancelled, had already finished, or does not exist
+     */
+    public Cancellation cancel(String taskId, String executionId) {
+        if (commandExecutionService.cancel(executionId)) {
+            return Cancellation.CANCELLED;
+        }
+        if (distributedQueue.isEnabled() && distributedQueue.cancel(executionId)) {
+            return Cancellation.CANCELLED;
+        }
+        return getExecution(taskId, executionId).isPresent() ? Cancellation.ALREADY_FINISHED : Cancellation.NOT_FOUND;
+    }
+    
+    /**
+     * Subscribe to the output of an execution. A running execution streams its output live;
+     * a finished one delivers its stored output and completes immediately. An execution queued or
+     * running on another node is dropped right away, as its output can only be streamed from that node.
+     * @param taskId Task ID
+     * @param executionId Execution ID
+     * @param subscriber Subscriber
+     * @return false if the execution does not exist
+     */
+    public boolean subscribe(String taskId, String executionId, ExecutionOutputHub.Subscriber subscriber) throws IOException {
+        if (executionOutputHub.subscribe(taskId, executionId, subscriber)) {
+            return true;
+        }
+        Optional<TaskExecution> finished = taskService.findExecution(taskId, executionId);
+        if (finished.isEmpty()) {
+            if (distributedQueue.isEnabled() && distributedQueue.find(taskId, executionId).isPresent()) {
+                subscriber.onDropped("Execution is queued or running on another node, poll the execution for its result");
+                return true;
+            }
+            return false;
+        }
+        if (finished.get().getOutput() != null) {
+            subscriber.onOutput(finished.get().getOutput());
+        }
+        subscriber.onComplete(finished.get());
+        return true;
+    }
+    
+    /**
+     * Stop streaming output to a subscriber
+     * @param executionId Execution ID
+     * @param subscriber Subscriber
+     */
+    public void unsubscribe(String executionId, ExecutionOutputHub.Subscriber subscriber) {
+        executionOutputHub.unsubscribe(executionId, subscriber);
+    }
+    
+    private void run(String taskId, String owner, boolean admitted, String command, Integer timeoutSeconds,
+                     String executionId, OutputListener outputListener) {
+        TaskExecution taskExecution = new TaskExecution();
+        taskExecution.setId(executionId);
+        try {
+            commandExecutionService.executeCommand(command, taskExecution, outputListener, timeoutSeconds);
+            taskService.recordExecution(taskId, taskExecution);
+            logger.info("Asynchronous execution {} of task {} finished: {}",
+                       executionId, taskId, taskExecution.getStatus());
+        } catch (Exception e) {
+            logger.error("Failed to record asynchronous execution {} of task {}", executionId, taskId, e);
+        } finally {
+            // Remove only after the result is stored, so pollers never see a gap
+            executionOutputHub.close(executionId, taskExecution);
+            inFlight.remove(executionId);
+            if (admitted) {
+                admissionControl.release(owner);
+            }
+        }
+    }
+    
+    /**
+     * Names worker threads so they are recognisable in thread dumps and logs
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "task-exec-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
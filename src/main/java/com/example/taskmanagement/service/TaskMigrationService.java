@@ -0,0 +1,163 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off data migrations for documents written by earlier versions of the application
+ */
+@Service
+public class TaskMigrationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskMigrationService.class);
+    
+    private static final String EMBEDDED_EXECUTIONS = "taskExecutions";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TaskCache taskCache;
+    
+    @Value("${task-management.migration.embedded-executions:true}")
+    private boolean migrateEmbeddedExecutionsOnStartup;
+    
+    @Value("${task-management.migration.name-index:true}")
+    private boolean backfillNameIndexOnStartup;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!migrateEmbeddedExecutionsOnStartup && !backfillNameIndexOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            if (migrateEmbeddedExecutionsOnStartup) {
+                try {
+                    migrateEmbeddedExecutions();
+                } catch (Exception e) {
+                    logger.error("Migration of embedded executions failed", e);
+                }
+            }
+            if (backfillNameIndexOnStartup) {
+                try {
+                    backfillNameIndex();
+                } catch (Exception e) {
+                    logger.error("Backfill of task name search fields failed", e);
+                }
+            }
+        }, "task-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Move executions embedded in task documents into the task_executions collection.
+     * Each task is processed in three idempotent steps, so an interrupted run can simply be repeated:
+     * missing execution IDs are assigned in place, executions are upserted by ID, and finally
+     * the embedded array is removed from the task.
+     * @return Number of executions migrated
+     */
+    public long migrateEmbeddedExecutions() {
+        String tasksCollection = mongoTemplate.getCollectionName(Task.class);
+        Query withEmbedded = new Query(Criteria.where(EMBEDDED_EXECUTIONS).exists(true));
+        withEmbedded.fields().include("_id").include(EMBEDDED_EXECUTIONS);
+        
+        List<Document> tasks = mongoTemplate.find(withEmbedded, Document.class, tasksCollection);
+        long migrated = 0;
+        for (Document task : tasks) {
+            Object rawTaskId = task.get("_id");
+            String taskId = rawTaskId instanceof ObjectId ? ((ObjectId) rawTaskId).toHexString() : String.valueOf(rawTaskId);
+            List<Document> embedded = task.getList(EMBEDDED_EXECUTIONS, Document.class, List.of());
+            
+            if (assignMissingIds(embedded)) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(rawTaskId)),
+                    Update.update(EMBEDDED_EXECUTIONS, embedded), tasksCollection);
+            }
+            
+            if (!embedded.isEmpty()) {
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TaskExecution.class);
+                for (TaskExecution execution : toExecutions(taskId, embedded)) {
+                    bulk.replaceOne(Query.query(Criteria.where("id").is(execution.getId())), execution,
+                        FindAndReplaceOptions.options().upsert());
+                }
+                bulk.execute();
+                taskCache.invalidateExecutions(taskId);
+            }
+            
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(rawTaskId)),
+                new Update().unset(EMBEDDED_EXECUTIONS), tasksCollection);
+            migrated += embedded.size();
+            logger.info("Migrated {} embedded executions of task {}", embedded.size(), taskId);
+        }
+        
+        logger.info("Embedded execution migration finished: {} tasks, {} executions", tasks.size(), migrated);
+        return migrated;
+    }
+    
+    /**
+     * Compute the name search fields of tasks saved before they existed. Only the search fields
+     * are written, so the backfill is safe to run alongside regular saves and to repeat.
+     * @return Number of tasks updated
+     */
+    public long backfillNameIndex() {
+        String tasksCollection = mongoTemplate.getCollectionName(Task.class);
+        Query withoutIndex = new Query(Criteria.where(TaskNameIndex.NAME_GRAMS).exists(false));
+        withoutIndex.fields().include("_id").include("name");
+        
+        List<Document> tasks = mongoTemplate.find(withoutIndex, Document.class, tasksCollection);
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, tasksCollection);
+        for (Document task : tasks) {
+            String normalized = TaskNameIndex.normalize(task.getString("name"));
+            // Match on the name as read, so a rename in the meantime is not overwritten with stale fields
+            bulk.updateOne(Query.query(Criteria.where("_id").is(task.get("_id")).and("name").is(task.get("name"))),
+                new Update()
+                    .set(TaskNameIndex.NAME_LOWER, normalized)
+                    .set(TaskNameIndex.NAME_GRAMS, normalized != null ? TaskNameIndex.grams(normalized) : List.of()));
+        }
+        long updated = bulk.execute().getModifiedCount();
+        logger.info("Name search fields backfilled for {} tasks", updated);
+        return updated;
+    }
+    
+    private boolean assignMissingIds(List<Document> embedded) {
+        boolean changed = false;
+        for (Document execution : embedded) {
+            if (execution.get("_id") == null) {
+                execution.put("_id", new ObjectId());
+                changed = true;
+            }
+        }
+        return changed;
+    }
+    
+    private List<TaskExecution> toExecutions(String taskId, List<Document> embedded) {
+        List<TaskExecution> executions = new ArrayList<>(embedded.size());
+        for (Document document : embedded) {
+            TaskExecution execution = mongoTemplate.getConverter().read(TaskExecution.class, document);
+            execution.setTaskId(taskId);
+            executions.add(execution);
+        }
+        return executions;
+    }
+}
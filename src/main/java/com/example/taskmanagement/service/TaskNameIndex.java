@@ -0,0 +1,101 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.Task;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Maintains the search fields of a task name and builds the matching queries.
+ * Every task is stored with its lowercased name and all of its 1-, 2- and 3-character substrings,
+ * which are indexed. A search for up to three characters is a single index lookup; longer searches
+ * look up the candidates containing all of their trigrams and confirm the literal substring on those.
+ */
+@Component
+public class TaskNameIndex implements BeforeConvertCallback<Task> {
+    
+    public static final int GRAM_LENGTH = 3;
+    
+    public static final String NAME_LOWER = "nameLower";
+    public static final String NAME_GRAMS = "nameGrams";
+    
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+    
+    @Override
+    public Task onBeforeConvert(Task task, String collection) {
+        index(task);
+        return task;
+    }
+    
+    /**
+     * Compute the search fields of a task from its name
+     * @param task Task to update
+     */
+    public static void index(Task task) {
+        String normalized = normalize(task.getName());
+        task.setNameLower(normalized);
+        task.setNameGrams(normalized != null ? grams(normalized) : null);
+    }
+    
+    /**
+     * @param name Task name or search string
+     * @return The form in which names are compared, or null for null
+     */
+    public static String normalize(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
+    
+    /**
+     * @param normalized Normalized name
+     * @return All distinct substrings of one to three characters
+     */
+    public static List<String> grams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int start = 0; start < normalized.length(); start++) {
+            for (int length = 1; length <= GRAM_LENGTH && start + length <= normalized.length(); length++) {
+                grams.add(normalized.substring(start, start + length));
+            }
+        }
+        return new ArrayList<>(grams);
+    }
+    
+    /**
+     * Build the criteria matching names that contain the search string literally, ignoring case
+     * @param search Search string
+     * @return Criteria over the indexed search fields
+     */
+    public static Criteria containing(String search) {
+        String normalized = normalize(search);
+        if (normalized.length() <= GRAM_LENGTH) {
+            return Criteria.where(NAME_GRAMS).is(normalized);
+        }
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int start = 0; start + GRAM_LENGTH <= normalized.length(); start++) {
+            trigrams.add(normalized.substring(start, start + GRAM_LENGTH));
+        }
+        // Having every trigram does not mean they are adjacent, so confirm the substring itself
+        return Criteria.where(NAME_GRAMS).all(trigrams).and(NAME_LOWER).regex(escape(normalized));
+    }
+    
+    /**
+     * @param literal Text to match literally
+     * @return Regular expression matching exactly the given text
+     */
+    static String escape(String literal) {
+        StringBuilder escaped = new StringBuilder(literal.length() + 8);
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,456 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.MisfirePolicy;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskSchedule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks that have a schedule, by submitting them to the execution engine when they are due.
+ * Fire times are kept in a {@link TimerWheel} advanced by a single ticker thread, so tens of
+ * thousands of schedules cost one bucket scan per tick. Every task's runs are shifted by a stable
+ * offset below its jitter, which spreads schedules sharing a cron expression without changing
+ * their period. A run that cannot be submitted is retried until it is later than the misfire
+ * threshold, after which the task's misfire policy decides whether it still runs; missed runs are
+ * never caught up one by one. Fixed rates count from the epoch rather than from when the schedule
+ * was loaded, so every node computes the same nominal run times. With the distributed queue enabled,
+ * tasks saved or deleted through other nodes are picked up by periodically reconciling the schedules
+ * with the database.
+ */
+@Service
+public class TaskScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskScheduler.class);
+    
+    @Autowired
+    private TaskExecutionEngine taskExecutionEngine;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${task-management.scheduler.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${task-management.scheduler.tick-ms:1000}")
+    private long tickMs = 1000;
+    
+    @Value("${task-management.scheduler.wheel-size:4096}")
+    private int wheelSize = 4096;
+    
+    @Value("${task-management.scheduler.default-jitter-seconds:10}")
+    private int defaultJitterSeconds = 10;
+    
+    @Value("${task-management.scheduler.misfire-threshold-ms:60000}")
+    private long misfireThresholdMs = 60000;
+    
+    @Value("${task-management.scheduler.retry-delay-ms:5000}")
+    private long retryDelayMs = 5000;
+    
+    @Value("${task-management.distributed.enabled:false}")
+    private boolean distributed;
+    
+    @Value("${task-management.scheduler.reconcile-interval-ms:30000}")
+    private long reconcileIntervalMs = 30000;
+    
+    private Clock clock = Clock.systemDefaultZone();
+    
+    // Current schedule of each task; a replaced entry is recognised by identity and ignored
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    private TimerWheel<Entry> wheel;
+    
+    private ScheduledExecutorService ticker;
+    
+    private ScheduledExecutorService reconciler;
+    
+    @PostConstruct
+    void start() {
+        wheel = new TimerWheel<>(tickMs, wheelSize, clock.millis());
+        if (!enabled) {
+            logger.info("Task scheduler disabled");
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        logger.info("Task scheduler started: tick={}ms, wheelSize={}, defaultJitter={}s, misfireThreshold={}ms",
+                   tickMs, wheelSize, defaultJitterSeconds, misfireThresholdMs);
+    }
+    
+    @PreDestroy
+    void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+        }
+    }
+    
+    /**
+     * Load the schedules of stored tasks in the background, so that an unreachable database does
+     * not delay startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::loadSchedules, "task-scheduler-load");
+        thread.setDaemon(true);
+        thread.start();
+        if (distributed) {
+            // Other nodes save tasks without this node hearing of it
+            reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread reconcile = new Thread(runnable, "task-scheduler-reconcile");
+                reconcile.setDaemon(true);
+                return reconcile;
+            });
+            reconciler.scheduleWithFixedDelay(this::reconcileSchedules, reconcileIntervalMs, reconcileIntervalMs,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    void loadSchedules() {
+        try {
+            Query query = new Query(Criteria.where("schedule").ne(null));
+            query.fields().include("_id").include("schedule");
+            int loaded = 0;
+            for (Task task : mongoTemplate.find(query, Task.class)) {
+                // A task saved while loading already has its current schedule
+                if (!entries.containsKey(task.getId()) && schedule(task.getId(), task.getSchedule())) {
+                    loaded++;
+                }
+            }
+            logger.info("Task scheduler loaded {} schedules", loaded);
+        } catch (Exception e) {
+            logger.warn("Could not load task schedules: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Bring the schedules in line with the tasks stored in the database: schedule new and changed
+     * schedules and drop those of tasks that were deleted or lost their schedule. Entries changed on
+     * this node while the tasks were being read are left alone.
+     */
+    void reconcileSchedules() {
+        try {
+            Map<String, Entry> before = new HashMap<>(entries);
+            Query query = new Query(Criteria.where("schedule").ne(null));
+            query.fields().include("_id").include("schedule");
+            Set<String> stored = new HashSet<>();
+            int changed = 0;
+            for (Task task : mongoTemplate.find(query, Task.class)) {
+                stored.add(task.getId());
+                Entry current = entries.get(task.getId());
+                if (current == before.get(task.getId()) && schedule(task.getId(), task.getSchedule())
+                        && entries.get(task.getId()) != current) {
+                    changed++;
+                }
+            }
+            int removed = 0;
+            for (Map.Entry<String, Entry> entry : before.entrySet()) {
+                if (!stored.contains(entry.getKey()) && unschedule(entry.getValue())) {
+                    removed++;
+                }
+            }
+            if (changed > 0 || removed > 0) {
+                logger.info("Task scheduler reconciled: {} schedules added or changed, {} removed", changed, removed);
+            }
+        } catch (Exception e) {
+            // An exception would cancel the reconciler
+            logger.warn("Could not reconcile task schedules: {}", e.getMessage());
+        }
+    }
+    
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Task task = event.getTask();
+        if (task == null || task.getSchedule() == null) {
+            unschedule(event.getTaskId());
+        } else {
+            schedule(task.getId(), task.getSchedule());
+        }
+    }
+    
+    /**
+     * Schedule a task, replacing its previous schedule. Saving a task with an unchanged schedule
+     * keeps its next fire time.
+     * @param taskId Task ID
+     * @param schedule Valid schedule
+     * @return false if the schedule never fires
+     */
+    public boolean schedule(String taskId, TaskSchedule schedule) {
+        Entry current = entries.get(taskId);
+        if (current != null && current.schedule.equals(schedule)) {
+            return true;
+        }
+        Entry entry = new Entry(taskId, new TaskSchedule(schedule), jitterOffset(taskId, schedule));
+        long now = clock.millis();
+        // Fixed rates are anchored at the epoch rather than at now, which differs from node to node
+        Long nominal = nextNominal(entry, entry.cron != null ? now : 0, now - entry.offsetMillis);
+        synchronized (wheel) {
+            Entry replaced = nominal != null ? entries.put(taskId, entry) : entries.remove(taskId);
+            if (replaced != null) {
+                wheel.cancel(replaced.timeout);
+            }
+            if (nominal == null) {
+                logger.warn("Schedule of task {} never fires: {}", taskId, schedule);
+                return false;
+            }
+            entry.nominalMillis = nominal;
+            entry.fireAtMillis = nominal + entry.offsetMillis;
+            arm(entry, entry.fireAtMillis);
+        }
+        logger.debug("Task {} scheduled, next run at {}", taskId, new Date(entry.fireAtMillis));
+        return true;
+    }
+    
+    /**
+     * Stop running a task on a schedule
+     * @param taskId Task ID
+     */
+    public void unschedule(String taskId) {
+        synchronized (wheel) {
+            Entry removed = entries.remove(taskId);
+            if (removed != null) {
+                wheel.cancel(removed.timeout);
+                logger.debug("Task {} unscheduled", taskId);
+            }
+        }
+    }
+    
+    /**
+     * Remove an entry, unless it was replaced meanwhile
+     * @return Whether it was removed
+     */
+    private boolean unschedule(Entry entry) {
+        synchronized (wheel) {
+            if (!entries.remove(entry.taskId, entry)) {
+                return false;
+            }
+            wheel.cancel(entry.timeout);
+        }
+        logger.debug("Task {} unscheduled", entry.taskId);
+        return true;
+    }
+    
+    /**
+     * @param taskId Task ID
+     * @return When the task will next be submitted, if it is scheduled
+     */
+    public Optional<Date> getNextFireTime(String taskId) {
+        Entry entry = entries.get(taskId);
+        return entry != null ? Optional.of(new Date(entry.nextAttemptMillis)) : Optional.empty();
+    }
+    
+    /**
+     * @return Number of scheduled tasks
+     */
+    public int size() {
+        return entries.size();
+    }
+    
+    void tick() {
+        try {
+            long now = clock.millis();
+            List<Entry> due;
+            synchronized (wheel) {
+                due = wheel.advance(now);
+            }
+            for (Entry entry : due) {
+                fire(entry, now);
+            }
+        } catch (Exception e) {
+            // An exception would cancel the ticker
+            logger.error("Scheduler tick failed", e);
+        }
+    }
+    
+    private void fire(Entry entry, long now) {
+        boolean misfired = now - entry.fireAtMillis > misfireThresholdMs;
+        if (misfired && entry.misfirePolicy() == MisfirePolicy.SKIP) {
+            logger.warn("Skipping scheduled run of task {} due at {}, missed by {}ms",
+                       entry.taskId, new Date(entry.fireAtMillis), now - entry.fireAtMillis);
+        } else {
+            try {
+                taskExecutionEngine.submitScheduled(entry.taskId, entry.nominalMillis);
+                logger.debug("Scheduled run of task {} submitted", entry.taskId);
+            } catch (RejectedExecutionException e) {
+                if (!misfired) {
+                    logger.debug("Execution pool saturated, retrying scheduled run of task {}", entry.taskId);
+                    rearm(entry, now + retryDelayMs);
+                    return;
+                }
+                logger.warn("Scheduled run of task {} due at {} dropped, execution pool saturated",
+                           entry.taskId, new Date(entry.fireAtMillis));
+            } catch (IllegalArgumentException e) {
+                if (!taskExists(entry.taskId)) {
+                    // Deleted, possibly through another node
+                    unschedule(entry);
+                    logger.info("Task {} no longer exists, unscheduled", entry.taskId);
+                    return;
+                }
+                // The task stays scheduled, e.g. for when its command is valid again
+                logger.warn("Scheduled run of task {} failed to start: {}", entry.taskId, e.getMessage());
+            } catch (Exception e) {
+                logger.warn("Scheduled run of task {} failed to start: {}", entry.taskId, e.getMessage());
+            }
+        }
+        
+        Long nominal = nextNominal(entry, entry.nominalMillis, now - entry.offsetMillis);
+        synchronized (wheel) {
+            if (entries.get(entry.taskId) != entry) {
+                return;
+            }
+            if (nominal == null) {
+                entries.remove(entry.taskId);
+                logger.info("Schedule of task {} has no further runs", entry.taskId);
+                return;
+            }
+            entry.nominalMillis = nominal;
+            entry.fireAtMillis = nominal + entry.offsetMillis;
+            arm(entry, entry.fireAtMillis);
+        }
+    }
+    
+    private boolean taskExists(String taskId) {
+        try {
+            return mongoTemplate.exists(new Query(Criteria.where("_id").is(taskId)), Task.class);
+        } catch (Exception e) {
+            logger.debug("Could not check whether task {} exists: {}", taskId, e.getMessage());
+            return true;
+        }
+    }
+    
+    /**
+     * Arm an entry again for the same run, unless it was replaced meanwhile
+     */
+    private void rearm(Entry entry, long attemptMillis) {
+        synchronized (wheel) {
+            if (entries.get(entry.taskId) == entry) {
+                arm(entry, attemptMillis);
+            }
+        }
+    }
+    
+    private void arm(Entry entry, long attemptMillis) {
+        entry.nextAttemptMillis = attemptMillis;
+        entry.timeout = wheel.schedule(entry, attemptMillis);
+    }
+    
+    /**
+     * @param entry Schedule
+     * @param previous Previous nominal run time
+     * @param notBefore The next nominal run time must be later than this
+     * @return The next nominal run time after both, or null if there is none
+     */
+    private static Long nextNominal(Entry entry, long previous, long notBefore) {
+        long after = Math.max(previous, notBefore);
+        if (entry.cron != null) {
+            ZonedDateTime next = entry.cron.next(Instant.ofEpochMilli(after).atZone(entry.zone));
+            return next != null ? next.toInstant().toEpochMilli() : null;
+        }
+        long rate = TimeUnit.SECONDS.toMillis(entry.schedule.getFixedRateSeconds());
+        // Stay on the rate's cadence, skipping runs that were missed
+        return previous + rate * ((after - previous) / rate + 1);
+    }
+    
+    private long jitterOffset(String taskId, TaskSchedule schedule) {
+        int jitterSeconds = schedule.getJitterSeconds() != null ? schedule.getJitterSeconds() : defaultJitterSeconds;
+        long jitterMillis = TimeUnit.SECONDS.toMillis(Math.max(0, jitterSeconds));
+        return jitterMillis > 0 ? Math.floorMod(taskId.hashCode() * 0x9E3779B97F4A7C15L, jitterMillis) : 0;
+    }
+    
+    /**
+     * Check that a schedule can be used
+     * @param schedule Schedule to check
+     * @throws IllegalArgumentException describing what is wrong
+     */
+    public static void validate(TaskSchedule schedule) {
+        boolean hasCron = schedule.getCron() != null && !schedule.getCron().trim().isEmpty();
+        boolean hasRate = schedule.getFixedRateSeconds() != null;
+        if (hasCron == hasRate) {
+            throw new IllegalArgumentException("Schedule needs exactly one of cron or fixedRateSeconds");
+        }
+        if (hasRate && schedule.getFixedRateSeconds() <= 0) {
+            throw new IllegalArgumentException("Schedule fixedRateSeconds must be positive");
+        }
+        if (schedule.getJitterSeconds() != null && schedule.getJitterSeconds() < 0) {
+            throw new IllegalArgumentException("Schedule jitterSeconds must not be negative");
+        }
+        if (schedule.getZone() != null) {
+            try {
+                ZoneId.of(schedule.getZone());
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Invalid schedule zone: " + schedule.getZone());
+            }
+        }
+        if (hasCron && !CronExpression.isValidExpression(schedule.getCron().trim())) {
+            throw new IllegalArgumentException("Invalid cron expression: " + schedule.getCron());
+        }
+    }
+    
+    /**
+     * Scheduling state of one task; mutable fields are guarded by the wheel
+     */
+    private static final class Entry {
+        private final String taskId;
+        private final TaskSchedule schedule;
+        private final CronExpression cron;
+        private final ZoneId zone;
+        private final long offsetMillis;
+        private long nominalMillis;
+        private long fireAtMillis;
+        private volatile long nextAttemptMillis;
+        private TimerWheel.Timeout<Entry> timeout;
+        
+        Entry(String taskId, TaskSchedule schedule, long offsetMillis) {
+            this.taskId = taskId;
+            this.schedule = schedule;
+            this.cron = schedule.getFixedRateSeconds() == null ? CronExpression.parse(schedule.getCron().trim()) : null;
+            this.zone = schedule.getZone() != null ? ZoneId.of(schedule.getZone()) : ZoneId.systemDefault();
+            this.offsetMillis = offsetMillis;
+        }
+        
+        MisfirePolicy misfirePolicy() {
+            return schedule.getMisfirePolicy() != null ? schedule.getMisfirePolicy() : MisfirePolicy.FIRE_NOW;
+        }
+    }
+}
@@ -1,15 +1,45 @@
 package com.example.taskmanagement.service;
 
+import com.example.taskmanagement.dto.BulkItemResult;
+import com.example.taskmanagement.dto.BulkSaveResult;
+import com.example.taskmanagement.dto.ExecutionStatsSummary;
+import com.example.taskmanagement.dto.ExecutionView;
+import com.example.taskmanagement.dto.TaskPage;
+import com.example.taskmanagement.dto.TaskSummary;
+import com.example.taskmanagement.model.ExecutionRollup;
 import com.example.taskmanagement.model.Task;
 import com.example.taskmanagement.model.TaskExecution;
 import com.example.taskmanagement.repository.TaskRepository;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service layer for task management operations
@@ -23,18 +53,137 @@ public class TaskService {
     private TaskRepository taskRepository;
     
     @Autowired
-    private CommandValidationService commandValidationService;
+    private CommandValidationCache commandValidationCache;
     
     @Autowired
     private CommandExecutionService commandExecutionService;
     
+    @Autowired
+    private ExecutionHistoryService executionHistoryService;
+    
+    @Autowired
+    private ExecutionStatsService executionStatsService;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TaskCache taskCache;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ExecutionMemoizer executionMemoizer;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+    
+    @Autowired
+    private OwnerAdmissionControl admissionControl;
+    
+    @Value("${task-management.pagination.default-page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${task-management.pagination.max-page-size:500}")
+    private int maxPageSize;
+    
+    // BSON type codes used to walk string IDs and ObjectIds as two ordered ranges
+    private static final int BSON_STRING = 2;
+    private static final int BSON_OBJECT_ID = 7;
+    private static final String STRING_CURSOR = "s:";
+    private static final String OBJECT_ID_CURSOR = "o:";
+    
     /**
      * Get all tasks
      * @return List of all tasks
      */
     public List<Task> getAllTasks() {
         logger.info("Retrieving all tasks");
-        return taskRepository.findAll();
+        return executionHistoryService.attachExecutions(taskRepository.findAll());
+    }
+    
+    /**
+     * Get one page of tasks ordered by ID, using keyset pagination
+     * @param cursor Opaque cursor from the previous page, or null for the first page
+     * @param limit Requested page size, or null for the default; capped at the configured maximum
+     * @param view How much execution history to include with each task
+     * @param lastExecutions Number of executions to include when view is LAST
+     * @return Page of task summaries with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public TaskPage getTaskPage(String cursor, Integer limit, ExecutionView view, int lastExecutions) {
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : defaultPageSize, maxPageSize));
+        logger.info("Retrieving task page: cursor={}, limit={}, view={}", cursor, pageSize, view);
+        
+        // Task IDs are either strings or ObjectIds. MongoDB orders all strings before all ObjectIds
+        // and range operators only match values of the same type, so each type is paged separately.
+        List<Task> tasks = new ArrayList<>(pageSize + 1);
+        if (cursor == null || cursor.isEmpty()) {
+            tasks.addAll(findPageAfter(Criteria.where("_id").type(BSON_STRING), pageSize + 1));
+            if (tasks.size() <= pageSize) {
+                tasks.addAll(findPageAfter(Criteria.where("_id").type(BSON_OBJECT_ID), pageSize + 1 - tasks.size()));
+            }
+        } else {
+            String decoded = decodeCursor(cursor);
+            if (decoded.startsWith(STRING_CURSOR)) {
+                String lastId = decoded.substring(STRING_CURSOR.length());
+                tasks.addAll(findPageAfter(Criteria.where("_id").gt(lastId).type(BSON_STRING), pageSize + 1));
+                if (tasks.size() <= pageSize) {
+                    tasks.addAll(findPageAfter(Criteria.where("_id").type(BSON_OBJECT_ID), pageSize + 1 - tasks.size()));
+                }
+            } else if (decoded.startsWith(OBJECT_ID_CURSOR) && ObjectId.isValid(decoded.substring(OBJECT_ID_CURSOR.length()))) {
+                ObjectId lastId = new ObjectId(decoded.substring(OBJECT_ID_CURSOR.length()));
+                tasks.addAll(findPageAfter(Criteria.where("_id").gt(lastId), pageSize + 1));
+            } else {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        String nextCursor = null;
+        if (tasks.size() > pageSize) {
+            tasks = tasks.subList(0, pageSize);
+            nextCursor = encodeCursor(tasks.get(pageSize - 1).getId());
+        }
+        
+        List<TaskSummary> summaries = tasks.stream().map(TaskSummary::new).collect(Collectors.toList());
+        if (view == ExecutionView.COUNT) {
+            Map<String, Long> counts = executionHistoryService.countByTasks(
+                summaries.stream().map(TaskSummary::getId).collect(Collectors.toList()));
+            summaries.forEach(summary -> summary.setExecutionCount(counts.getOrDefault(summary.getId(), 0L)));
+        } else if (view == ExecutionView.LAST) {
+            int count = Math.max(1, lastExecutions);
+            summaries.forEach(summary -> summary.setTaskExecutions(
+                executionHistoryService.findLatest(summary.getId(), count)));
+        }
+        return new TaskPage(summaries, pageSize, nextCursor);
+    }
+    
+    private List<Task> findPageAfter(Criteria criteria, int count) {
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(count);
+        excludeStoredOnlyFields(query);
+        return mongoTemplate.find(query, Task.class);
+    }
+    
+    private void excludeStoredOnlyFields(Query query) {
+        // Skip any execution history still embedded by older versions, and the search fields
+        query.fields().exclude("taskExecutions").exclude(TaskNameIndex.NAME_GRAMS);
+    }
+    
+    private String encodeCursor(String taskId) {
+        String typed = (ObjectId.isValid(taskId) ? OBJECT_ID_CURSOR : STRING_CURSOR) + taskId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(typed.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
     
     /**
@@ -44,46 +193,160 @@ public class TaskService {
      */
     public Optional<Task> getTaskById(String id) {
         logger.info("Retrieving task by ID: {}", id);
-        return taskRepository.findById(id);
+        return taskCache.getTask(id, this::loadTask).map(task -> {
+            task.setTaskExecutions(taskCache.getExecutions(id, executionHistoryService::findByTask));
+            return task;
+        });
+    }
+    
+    private Task loadTask(String id) {
+        return taskRepository.findById(id).orElse(null);
     }
     
     /**
-     * Find tasks by name containing the search string
+     * Find tasks whose name contains the search string literally, ignoring case
      * @param name Search string
-     * @return List of matching tasks
+     * @param page Zero-based page number
+     * @param size Requested page size, or null for the default; capped at the configured maximum
+     * @return Matching tasks of the requested page, ordered by ID
+     * @throws IllegalArgumentException if the page number is negative
      */
-    public List<Task> findTasksByName(String name) {
-        logger.info("Searching tasks by name: {}", name);
-        return taskRepository.findByNameContainingIgnoreCase(name);
+    public List<Task> findTasksByName(String name, int page, Integer size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize));
+        logger.info("Searching tasks by name: {} (page={}, size={})", name, page, pageSize);
+        
+        Query query = new Query(TaskNameIndex.containing(name))
+            .with(Sort.by(Sort.Direction.ASC, "_id"))
+            .skip((long) page * pageSize)
+            .limit(pageSize);
+        excludeStoredOnlyFields(query);
+        return executionHistoryService.attachExecutions(mongoTemplate.find(query, Task.class));
     }
     
     /**
      * Create or update a task
      * @param task Task to save
      * @return Saved task
-     * @throws IllegalArgumentException if command validation fails
+     * @throws IllegalArgumentException if command, schedule or timeout validation fails
      */
     public Task saveTask(Task task) throws IllegalArgumentException {
         logger.info("Saving task: {}", task.getName());
         
         // Validate the command
         CommandValidationService.ValidationResult validationResult = 
-            commandValidationService.validateCommand(task.getCommand());
+            commandValidationCache.validateCommand(task.getCommand());
         
         if (!validationResult.isValid()) {
             logger.warn("Command validation failed for task {}: {}", 
                        task.getName(), validationResult.getMessage());
             throw new IllegalArgumentException("Command validation failed: " + validationResult.getMessage());
         }
-        
-        // Ensure taskExecutions list is initialized
-        if (task.getTaskExecutions() == null) {
-            task.setTaskExecutions(List.of());
+        if (task.getSchedule() != null) {
+            TaskScheduler.validate(task.getSchedule());
         }
+        commandExecutionService.validateTimeout(task.getTimeoutSeconds());
         
+        // Execution history is stored separately and is not replaced by a save
         Task savedTask = taskRepository.save(task);
+        taskCache.invalidate(savedTask.getId());
+        executionMemoizer.invalidate(savedTask.getId());
+        eventPublisher.publishEvent(TaskChangedEvent.saved(savedTask));
         logger.info("Task saved successfully with ID: {}", savedTask.getId());
-        return savedTask;
+        return executionHistoryService.attachExecutions(savedTask);
+    }
+    
+    /**
+     * Create or update many tasks at once. All tasks are validated in parallel and the valid ones
+     * are written with a single unordered bulk operation, so one invalid task does not fail the others.
+     * @param tasks Tasks to save, in submission order
+     * @return Per-task outcome: the task ID, or why the task was not saved
+     */
+    public BulkSaveResult saveTasks(List<Task> tasks) {
+        logger.info("Saving {} tasks in bulk", tasks.size());
+        
+        String[] errors = new String[tasks.size()];
+        IntStream.range(0, tasks.size()).parallel().forEach(i -> errors[i] = validateForSave(tasks.get(i)));
+        
+        // Replacements of the same ID in an unordered bulk write may apply in any order, so only the first counts
+        Set<String> seenIds = new HashSet<>();
+        List<Integer> written = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class);
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (errors[i] != null) {
+                continue;
+            }
+            if (task.getId() == null || task.getId().isEmpty()) {
+                task.setId(new ObjectId().toHexString());
+            } else if (!seenIds.add(task.getId())) {
+                errors[i] = "Duplicate task ID in request";
+                continue;
+            }
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(task.getId())), task,
+                FindAndReplaceOptions.options().upsert());
+            written.add(i);
+        }
+        
+        if (!written.isEmpty()) {
+            try {
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                // Error indexes refer to the position within the bulk write
+                for (BulkWriteError error : e.getErrors()) {
+                    errors[written.get(error.getIndex())] = "Write failed: " + error.getMessage();
+                }
+            } finally {
+                for (int i : written) {
+                    taskCache.invalidate(tasks.get(i).getId());
+                    executionMemoizer.invalidate(tasks.get(i).getId());
+                }
+            }
+        }
+        
+        for (int i : written) {
+            if (errors[i] == null) {
+                eventPublisher.publishEvent(TaskChangedEvent.saved(tasks.get(i)));
+            }
+        }
+        
+        List<BulkItemResult> items = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            String id = tasks.get(i) != null ? tasks.get(i).getId() : null;
+            items.add(errors[i] == null ? BulkItemResult.saved(i, id) : BulkItemResult.failed(i, id, errors[i]));
+        }
+        BulkSaveResult result = new BulkSaveResult(items);
+        logger.info("Bulk save finished: {} saved, {} failed", result.getSaved(), result.getFailed());
+        return result;
+    }
+    
+    private String validateForSave(Task task) {
+        if (task == null) {
+            return "Task is required";
+        }
+        Set<ConstraintViolation<Task>> violations = validator.validate(task);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+        }
+        CommandValidationService.ValidationResult validationResult =
+            commandValidationCache.validateCommand(task.getCommand());
+        if (!validationResult.isValid()) {
+            return "Command validation failed: " + validationResult.getMessage();
+        }
+        try {
+            if (task.getSchedule() != null) {
+                TaskScheduler.validate(task.getSchedule());
+            }
+            commandExecutionService.validateTimeout(task.getTimeoutSeconds());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        return null;
     }
     
     /**
@@ -96,6 +359,10 @@ public class TaskService {
         
         if (taskRepository.existsById(id)) {
             taskRepository.deleteById(id);
+            executionHistoryService.deleteByTask(id);
+            taskCache.invalidate(id);
+            executionMemoizer.invalidate(id);
+            eventPublisher.publishEvent(TaskChangedEvent.deleted(id));
             logger.info("Task deleted successfully: {}", id);
             return true;
         } else {
@@ -105,16 +372,81 @@ public class TaskService {
     }
     
     /**
-     * Execute a task command and add the execution to the task
+     * Execute a task command and add the execution to the task.
+     * For an idempotent task a recent result may be returned instead, marked as cached.
      * @param taskId Task ID
      * @return TaskExecution result
      * @throws IllegalArgumentException if task is not found
+     * @throws AdmissionRejectedException if the task's owner is over their execution limits
      */
     public TaskExecution executeTask(String taskId) throws IllegalArgumentException {
         logger.info("Executing task with ID: {}", taskId);
+        Timer.Sample sample = executionMetrics.start();
+        
+        TaskExecution taskExecution;
+        try {
+            Task task = prepareExecution(taskId);
+            
+            taskExecution = executionMemoizer.execute(task, () -> {
+                // Only runs that start a process count against the owner's limits, cached results do not
+                admissionControl.acquire(task.getOwner());
+                try {
+                    // Execute the command
+                    TaskExecution newExecution = commandExecutionService.executeCommand(task.getCommand(),
+                        newExecution(), task.getTimeoutSeconds());
+                    
+                    // Add execution to task
+                    recordExecution(taskId, newExecution);
+                    return newExecution;
+                } finally {
+                    admissionControl.release(task.getOwner());
+                }
+            });
+        } catch (AdmissionRejectedException e) {
+            executionMetrics.execution(sample, "rejected");
+            throw e;
+        } catch (RuntimeException e) {
+            executionMetrics.execution(sample, "error");
+            throw e;
+        }
+        executionMetrics.execution(sample, taskExecution.isCached()
+            ? "cached" : taskExecution.getStatus().name().toLowerCase(Locale.ROOT));
         
-        Optional<Task> taskOpt = taskRepository.findById(taskId);
+        logger.info("Task execution completed for task {}{}: {}", taskId,
+                   taskExecution.isCached() ? " (cached)" : "", taskExecution.getOutput());
+        return taskExecution;
+    }
+    
+    /**
+     * Load a task and re-validate its command ahead of execution
+     * @param taskId Task ID
+     * @return Task that is safe to execute
+     * @throws IllegalArgumentException if task is not found or its command is invalid
+     */
+    public Task prepareExecution(String taskId) throws IllegalArgumentException {
+        return prepareExecution(taskId, true);
+    }
+    
+    /**
+     * Load a task and re-validate its command ahead of execution
+     * @param taskId Task ID
+     * @param cached Whether the task may come from this node's cache; false to read the version
+     *               last saved by any node
+     * @return Task that is safe to execute
+     * @throws IllegalArgumentException if task is not found or its command is invalid
+     */
+    public Task prepareExecution(String taskId, boolean cached) throws IllegalArgumentException {
+        ExecutionMetrics.Stages stages = executionMetrics.stages();
+        stages.begin(ExecutionMetrics.Stage.LOAD);
+        Optional<Task> taskOpt;
+        try {
+            taskOpt = cached ? taskCache.getTask(taskId, this::loadTask) : Optional.ofNullable(loadTask(taskId));
+        } catch (RuntimeException e) {
+            stages.end(false);
+            throw e;
+        }
         if (taskOpt.isEmpty()) {
+            stages.end(false);
             logger.warn("Task not found for execution: {}", taskId);
             throw new IllegalArgumentException("Task not found with ID: " + taskId);
         }
@@ -122,8 +454,10 @@ public class TaskService {
         Task task = taskOpt.get();
         
         // Validate command again before execution (security check)
+        stages.begin(ExecutionMetrics.Stage.VALIDATE);
         CommandValidationService.ValidationResult validationResult = 
-            commandValidationService.validateCommand(task.getCommand());
+            commandValidationCache.validateCommand(task.getCommand());
+        stages.end(validationResult.isValid());
         
         if (!validationResult.isValid()) {
             logger.warn("Command validation failed during execution for task {}: {}", 
@@ -131,19 +465,100 @@ public class TaskService {
             throw new IllegalArgumentException("Command validation failed: " + validationResult.getMessage());
         }
         
-        // Execute the command
-        TaskExecution taskExecution = commandExecutionService.executeCommand(task.getCommand());
-        
-        // Add execution to task
-        task.addTaskExecution(taskExecution);
-        
-        // Save updated task
-        taskRepository.save(task);
-        
-        logger.info("Task execution completed for task {}: {}", taskId, taskExecution.getOutput());
+        return task;
+    }
+    
+    /**
+     * Create an empty execution with a pre-assigned ID, so it can be referenced before it is stored
+     * @return New TaskExecution
+     */
+    public TaskExecution newExecution() {
+        TaskExecution taskExecution = new TaskExecution();
+        taskExecution.setId(new ObjectId().toHexString());
         return taskExecution;
     }
     
+    /**
+     * Append a finished execution to the task's history
+     * @param taskId Task ID
+     * @param taskExecution Finished execution
+     */
+    public void recordExecution(String taskId, TaskExecution taskExecution) {
+        recordExecution(taskId, taskExecution, false);
+    }
+    
+    /**
+     * Append a finished execution to the task's history
+     * @param taskId Task ID
+     * @param taskExecution Finished execution
+     * @param durable Whether it must be stored before returning, bypassing write-behind
+     */
+    public void recordExecution(String taskId, TaskExecution taskExecution, boolean durable) {
+        ExecutionMetrics.Stages stages = executionMetrics.stages();
+        stages.begin(ExecutionMetrics.Stage.RECORD);
+        boolean recorded = false;
+        try {
+            if (durable) {
+                executionHistoryService.store(taskId, taskExecution);
+            } else {
+                executionHistoryService.record(taskId, taskExecution);
+            }
+            recorded = true;
+        } finally {
+            stages.end(recorded);
+        }
+    }
+    
+    /**
+     * Find a persisted execution of a task
+     * @param taskId Task ID
+     * @param executionId Execution ID
+     * @return Optional TaskExecution
+     */
+    public Optional<TaskExecution> findExecution(String taskId, String executionId) {
+        return executionHistoryService.findExecution(taskId, executionId);
+    }
+    
+    /**
+     * Get the aggregate of the executions of a task that were pruned by the retention policy
+     * @param taskId Task ID
+     * @return Optional roll-up, empty if the task does not exist
+     */
+    public Optional<ExecutionRollup> getExecutionRollup(String taskId) {
+        if (!taskRepository.existsById(taskId)) {
+            return Optional.empty();
+        }
+        return Optional.of(executionHistoryService.findRollup(taskId));
+    }
+    
+    /**
+     * Get the execution statistics of a task
+     * @param taskId Task ID
+     * @return Optional statistics, empty if the task does not exist
+     */
+    public Optional<ExecutionStatsSummary> getExecutionStats(String taskId) {
+        if (!taskRepository.existsById(taskId)) {
+            return Optional.empty();
+        }
+        return Optional.of(executionStatsService.getTaskStats(taskId));
+    }
+    
+    /**
+     * Get the combined execution statistics of all tasks of an owner
+     * @param owner Owner
+     * @return Optional statistics, empty if the owner has no tasks
+     */
+    public Optional<ExecutionStatsSummary> getOwnerExecutionStats(String owner) {
+        Query query = new Query(Criteria.where("owner").is(owner));
+        query.fields().include("_id");
+        List<String> taskIds = mongoTemplate.find(query, Task.class).stream()
+            .map(Task::getId).collect(Collectors.toList());
+        if (taskIds.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(executionStatsService.getOwnerStats(owner, taskIds));
+    }
+    
     /**
      * Check if task exists by ID
      * @param id Task ID
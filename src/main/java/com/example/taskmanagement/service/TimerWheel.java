@@ -0,0 +1,139 @@
+package com.example.taskmanagement.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel: deadlines are rounded up to a tick and kept in one of a fixed number of
+ * buckets, so scheduling and cancelling are O(1) and each tick only looks at one bucket, however
+ * many timers are pending. Deadlines further away than one revolution simply stay in their bucket
+ * until their tick comes round. Not thread-safe; callers synchronize.
+ * @param <T> Item to return when its deadline passes
+ */
+final class TimerWheel<T> {
+    
+    private final long tickMillis;
+    private final Set<Timeout<T>>[] buckets;
+    private final int mask;
+    private long currentTick;
+    private int size;
+    
+    /**
+     * @param tickMillis Resolution of the wheel
+     * @param wheelSize Number of buckets, rounded up to a power of two
+     * @param nowMillis Current time
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimerWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        int buckets = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = new Set[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new LinkedHashSet<>();
+        }
+        this.mask = buckets - 1;
+        this.currentTick = nowMillis / tickMillis;
+    }
+    
+    /**
+     * A pending deadline
+     */
+    static final class Timeout<T> {
+        private final T item;
+        private final long deadlineMillis;
+        private final long tick;
+        private boolean pending = true;
+        
+        private Timeout(T item, long deadlineMillis, long tick) {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+            this.tick = tick;
+        }
+        
+        T getItem() {
+            return item;
+        }
+        
+        long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+    }
+    
+    /**
+     * Add a deadline. A deadline that has already passed expires on the next tick.
+     * @param item Item to return on expiry
+     * @param deadlineMillis Time to expire at
+     * @return Handle for {@link #cancel}
+     */
+    Timeout<T> schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(item, deadlineMillis, tick);
+        buckets[(int) (tick & mask)].add(timeout);
+        size++;
+        return timeout;
+    }
+    
+    /**
+     * Remove a deadline that has not expired yet
+     * @param timeout Handle returned by {@link #schedule}
+     * @return false if it had already expired or been cancelled
+     */
+    boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || !timeout.pending) {
+            return false;
+        }
+        timeout.pending = false;
+        buckets[(int) (timeout.tick & mask)].remove(timeout);
+        size--;
+        return true;
+    }
+    
+    /**
+     * Move the wheel to the given time
+     * @param nowMillis Current time
+     * @return Items whose deadline has passed, earliest first
+     */
+    List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (targetTick <= currentTick) {
+            return List.of();
+        }
+        List<Timeout<T>> expired = new ArrayList<>();
+        // After a long pause every bucket is due, so visit each once rather than every missed tick
+        long ticks = Math.min(targetTick - currentTick, buckets.length);
+        for (long t = 1; t <= ticks; t++) {
+            Iterator<Timeout<T>> bucket = buckets[(int) ((currentTick + t) & mask)].iterator();
+            while (bucket.hasNext()) {
+                Timeout<T> timeout = bucket.next();
+                if (timeout.tick <= targetTick) {
+                    bucket.remove();
+                    timeout.pending = false;
+                    size--;
+                    expired.add(timeout);
+                }
+            }
+        }
+        currentTick = targetTick;
+        
+        expired.sort(Comparator.comparingLong(Timeout::getDeadlineMillis));
+        List<T> items = new ArrayList<>(expired.size());
+        for (Timeout<T> timeout : expired) {
+            items.add(timeout.item);
+        }
+        return items;
+    }
+    
+    /**
+     * @return Number of pending deadlines
+     */
+    int size() {
+        return size;
+    }
+}
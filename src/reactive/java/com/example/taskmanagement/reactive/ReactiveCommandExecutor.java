@@ -0,0 +1,208 @@
+package com.example.taskmanagement.reactive;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.TaskExecution;
+import com.example.taskmanagement.service.BoundedOutputCapture;
+import com.example.taskmanagement.service.CommandExecutionService;
+import com.example.taskmanagement.service.ExecutionMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs commands without holding a thread while they run. The process writes its output straight
+ * to a file, its exit is awaited through {@link Process#onExit()}, and only starting the process
+ * and reading the finished output happen on the bounded elastic scheduler.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCommandExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCommandExecutor.class);
+    private static final int READ_CHUNK_BYTES = 8192;
+    
+    @Autowired
+    private CommandExecutionService commandExecutionService;
+    
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+    
+    @Value("${task-management.execution.output.head-bytes:65536}")
+    private int outputHeadBytes = 65536;
+    
+    @Value("${task-management.execution.output.tail-bytes:65536}")
+    private int outputTailBytes = 65536;
+    
+    @Value("${task-management.execution.output.spill-enabled:true}")
+    private boolean spillEnabled;
+    
+    @Value("${task-management.execution.output.spill-dir:${java.io.tmpdir}/task-management-output}")
+    private String spillDir;
+    
+    /**
+     * Run a command and record the results on the given execution
+     * @param command The command to execute, already validated
+     * @param taskExecution The execution to populate (its ID, if any, is preserved)
+     * @param timeoutSeconds Time limit, or null for the configured default
+     * @return The populated execution, once the command has finished
+     */
+    public Mono<TaskExecution> execute(String command, TaskExecution taskExecution, Integer timeoutSeconds) {
+        Date startTime = new Date();
+        int timeout = commandExecutionService.resolveTimeout(timeoutSeconds);
+        Timer.Sample sample = executionMetrics.start();
+        return Mono.fromCallable(() -> start(command, taskExecution))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(running -> Mono.fromFuture(running.process.onExit())
+                .map(process -> running.finished(ExecutionStatus.COMPLETED))
+                .timeout(Duration.ofSeconds(timeout))
+                .onErrorResume(TimeoutException.class, e -> {
+                    CommandExecutionService.destroyTree(running.process);
+                    executionMetrics.timeout();
+                    logger.warn("Command timed out: {}", command);
+                    return Mono.just(running.finished(ExecutionStatus.TIMED_OUT));
+                })
+                .publishOn(Schedulers.boundedElastic())
+                .map(finished -> complete(command, finished, taskExecution, startTime, timeout)))
+            .onErrorResume(IOException.class, e -> {
+                executionMetrics.ioError();
+                logger.error("IOException while executing command: {}", command, e);
+                return Mono.just(failed(taskExecution, startTime, "Error executing command: " + e.getMessage()));
+            })
+            .doOnNext(execution -> executionMetrics.command(sample, execution.getStatus()));
+    }
+    
+    private Running start(String command, TaskExecution taskExecution) throws IOException {
+        logger.info("Executing command: {}", command);
+        Path dir = Paths.get(spillDir);
+        Files.createDirectories(dir);
+        String prefix = (taskExecution.getId() != null ? taskExecution.getId() : "execution") + "-";
+        Path outputFile = Files.createTempFile(dir, prefix, ".out");
+        try {
+            Process process = commandExecutionService.startProcess(command, ProcessBuilder.Redirect.to(outputFile.toFile()));
+            return new Running(process, outputFile);
+        } catch (IOException e) {
+            Files.deleteIfExists(outputFile);
+            throw e;
+        }
+    }
+    
+    private TaskExecution complete(String command, Finished finished, TaskExecution taskExecution, Date startTime,
+                                   int timeout) {
+        Date endTime = new Date();
+        ExecutionStatus status = finished.status;
+        Integer exitCode = null;
+        String message = null;
+        if (status == ExecutionStatus.TIMED_OUT) {
+            message = "Command timed out after " + timeout + " seconds";
+        } else {
+            exitCode = finished.process.exitValue();
+            if (exitCode != 0) {
+                status = ExecutionStatus.FAILED;
+                executionMetrics.nonZeroExit();
+                message = "Command exited with code: " + exitCode;
+                logger.warn("Command failed with exit code {}: {}", exitCode, command);
+            }
+        }
+        
+        // The output file already holds the complete output, so the capture only builds the preview
+        BoundedOutputCapture capture = new BoundedOutputCapture(outputHeadBytes, outputTailBytes, null, null);
+        try (InputStream input = Files.newInputStream(finished.outputFile)) {
+            byte[] chunk = new byte[READ_CHUNK_BYTES];
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                capture.write(chunk, 0, read);
+            }
+        } catch (IOException e) {
+            executionMetrics.ioError();
+            status = ExecutionStatus.FAILED;
+            message = "Error reading command output: " + e.getMessage();
+            logger.error("Could not read output of command: {}", command, e);
+        }
+        
+        boolean keepFile = spillEnabled && capture.isTruncated();
+        if (!keepFile) {
+            deleteQuietly(finished.outputFile);
+        }
+        String preview = capture.preview(Charset.defaultCharset());
+        String output = message == null ? preview
+            : preview.isEmpty() || preview.endsWith("\n") ? preview + message : preview + "\n" + message;
+        
+        taskExecution.setStartTime(startTime);
+        taskExecution.setEndTime(endTime);
+        taskExecution.setOutput(output.trim());
+        taskExecution.setStatus(status);
+        taskExecution.setExitCode(exitCode);
+        taskExecution.setOutputBytes(capture.getTotalBytes());
+        taskExecution.setOutputTruncated(capture.isTruncated());
+        taskExecution.setOutputRef(keepFile ? finished.outputFile.toAbsolutePath().toString() : null);
+        executionMetrics.outputBytes(capture.getTotalBytes());
+        
+        logger.info("Command execution completed: {} -> {} ({} bytes of output{})", command, status,
+                   capture.getTotalBytes(), capture.isTruncated() ? ", truncated" : "");
+        return taskExecution;
+    }
+    
+    private static TaskExecution failed(TaskExecution taskExecution, Date startTime, String message) {
+        taskExecution.setStartTime(startTime);
+        taskExecution.setEndTime(new Date());
+        taskExecution.setOutput(message);
+        taskExecution.setStatus(ExecutionStatus.FAILED);
+        return taskExecution;
+    }
+    
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete command output file {}", file, e);
+        }
+    }
+    
+    /**
+     * A started process and the file receiving its output
+     */
+    private static final class Running {
+        private final Process process;
+        private final Path outputFile;
+        
+        Running(Process process, Path outputFile) {
+            this.process = process;
+            this.outputFile = outputFile;
+        }
+        
+        Finished finished(ExecutionStatus status) {
+            return new Finished(process, outputFile, status);
+        }
+    }
+    
+    /**
+     * A process that exited or was killed
+     */
+    private static final class Finished {
+        private final Process process;
+        private final Path outputFile;
+        private final ExecutionStatus status;
+        
+        Finished(Process process, Path outputFile, ExecutionStatus status) {
+            this.process = process;
+            this.outputFile = outputFile;
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.taskmanagement.reactive;
+
+import com.example.taskmanagement.model.OutputBlob;
+import com.example.taskmanagement.model.TaskExecution;
+import com.example.taskmanagement.service.OutputBlobStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of OutputBlobStore, sharing its encoding and reference counting
+ */
+@Service
+@Profile("reactive")
+public class ReactiveOutputBlobStore {
+    
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+    
+    @Autowired
+    private OutputBlobStore outputBlobStore;
+    
+    /**
+     * Move the output of an execution into a blob before the execution is stored
+     * @param taskExecution Finished execution; not modified
+     * @return Execution to store, see {@link OutputBlobStore#store(TaskExecution)}
+     */
+    public Mono<TaskExecution> store(TaskExecution taskExecution) {
+        OutputBlob blob = outputBlobStore.encode(taskExecution.getOutput());
+        if (blob == null) {
+            return Mono.just(taskExecution);
+        }
+        return mongoTemplate.upsert(byHash(blob.getHash()), OutputBlobStore.reference(blob, 1), OutputBlob.class)
+            .thenReturn(OutputBlobStore.withoutOutput(taskExecution, blob.getHash()));
+    }
+    
+    /**
+     * Fill in the outputs that are stored in blobs, fetching each distinct blob once
+     * @param taskExecutions Executions as read from the database
+     * @return The same executions
+     */
+    public Mono<List<TaskExecution>> resolve(List<TaskExecution> taskExecutions) {
+        List<String> hashes = taskExecutions.stream()
+            .filter(OutputBlobStore::needsOutput)
+            .map(TaskExecution::getOutputHash)
+            .distinct()
+            .toList();
+        if (hashes.isEmpty()) {
+            return Mono.just(taskExecutions);
+        }
+        return mongoTemplate.find(new Query(Criteria.where("_id").in(hashes)), OutputBlob.class)
+            .collectMap(OutputBlob::getHash, OutputBlobStore::decode)
+            .map(outputs -> {
+                OutputBlobStore.fill(taskExecutions, outputs);
+                return taskExecutions;
+            });
+    }
+    
+    /**
+     * Find the executions of a task that reference a blob, before they are deleted
+     * @param taskId Task ID
+     * @return Executions holding only their output hash
+     */
+    public Mono<List<TaskExecution>> findReferences(String taskId) {
+        Query query = new Query(Criteria.where("taskId").is(taskId).and("outputHash").ne(null));
+        query.fields().include("outputHash");
+        return mongoTemplate.find(query, TaskExecution.class).collectList();
+    }
+    
+    /**
+     * Drop the references of deleted executions, removing blobs that are no longer referenced
+     * @param taskExecutions Deleted executions
+     * @return Completes once the references are dropped
+     */
+    public Mono<Void> release(List<TaskExecution> taskExecutions) {
+        Map<String, Integer> references = OutputBlobStore.countReferences(taskExecutions);
+        if (references.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(references.entrySet())
+            .flatMap(reference -> mongoTemplate.updateFirst(byHash(reference.getKey()),
+                new Update().inc("refs", -reference.getValue()), OutputBlob.class))
+            .then(mongoTemplate.remove(new Query(Criteria.where("_id").in(references.keySet()).and("refs").lte(0)),
+                OutputBlob.class))
+            .then();
+    }
+    
+    private static Query byHash(String hash) {
+        return new Query(Criteria.where("_id").is(hash));
+    }
+}
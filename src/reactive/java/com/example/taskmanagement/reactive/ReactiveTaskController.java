@@ -0,0 +1,170 @@
+package com.example.taskmanagement.reactive;
+
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.service.AdmissionRejectedException;
+import com.example.taskmanagement.service.TaskScheduler;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST Controller for task management operations in the reactive serving mode.
+ * Serves the core endpoints of TaskController with the same responses, without blocking a thread per request.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api")
+@CrossOrigin(origins = "*") // Enable CORS for testing
+public class ReactiveTaskController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTaskController.class);
+    
+    @Autowired
+    private ReactiveTaskService taskService;
+    
+    @Autowired
+    private TaskScheduler taskScheduler;
+    
+    /**
+     * GET /api/tasks - Get all tasks
+     * GET /api/tasks?id={taskId} - Get task by ID
+     */
+    @GetMapping("/tasks")
+    public Mono<ResponseEntity<?>> getTasks(@RequestParam(required = false) String id) {
+        Mono<ResponseEntity<?>> response;
+        if (id != null && !id.trim().isEmpty()) {
+            logger.info("GET /api/tasks?id={}", id);
+            response = taskService.getTaskById(id.trim())
+                .<ResponseEntity<?>>map(task -> ResponseEntity.ok(withNextFireTime(task)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+        } else {
+            logger.info("GET /api/tasks");
+            response = taskService.getAllTasks().map(tasks -> {
+                tasks.forEach(this::withNextFireTime);
+                return ResponseEntity.ok(tasks);
+            });
+        }
+        return response.onErrorResume(e -> {
+            logger.error("Error getting tasks", e);
+            return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving tasks: " + e.getMessage()));
+        });
+    }
+    
+    /**
+     * PUT /api/tasks - Create or update a task
+     */
+    @PutMapping("/tasks")
+    public Mono<ResponseEntity<?>> createOrUpdateTask(@Valid @RequestBody Task task) {
+        logger.info("PUT /api/tasks - {}", task.getName());
+        return taskService.saveTask(task)
+            .<ResponseEntity<?>>map(savedTask -> ResponseEntity.ok(withNextFireTime(savedTask)))
+            .onErrorResume(IllegalArgumentException.class, e -> {
+                logger.warn("Validation error creating/updating task", e);
+                return Mono.just(ResponseEntity.badRequest().body("Validation error: " + e.getMessage()));
+            })
+            .onErrorResume(e -> {
+                logger.error("Error creating/updating task", e);
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Error saving task: " + e.getMessage()));
+            });
+    }
+    
+    /**
+     * DELETE /api/tasks/{id} - Delete a task by ID
+     */
+    @DeleteMapping("/tasks/{id}")
+    public Mono<ResponseEntity<?>> deleteTask(@PathVariable String id) {
+        logger.info("DELETE /api/tasks/{}", id);
+        return taskService.deleteTask(id)
+            .<ResponseEntity<?>>map(deleted -> deleted
+                ? ResponseEntity.ok().body("Task deleted successfully")
+                : ResponseEntity.notFound().build())
+            .onErrorResume(e -> {
+                logger.error("Error deleting task", e);
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Error deleting task: " + e.getMessage()));
+            });
+    }
+    
+    /**
+     * GET /api/tasks/search?name={searchString}[&page={page}&size={size}] - Find tasks by name
+     */
+    @GetMapping("/tasks/search")
+    public Mono<ResponseEntity<?>> findTasksByName(@RequestParam String name,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(required = false) Integer size) {
+        logger.info("GET /api/tasks/search?name={}&page={}&size={}", name, page, size);
+        if (name == null || name.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body("Search name parameter is required"));
+        }
+        return taskService.findTasksByName(name.trim(), page, size)
+            .<ResponseEntity<?>>map(tasks -> tasks.isEmpty()
+                ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok(tasks))
+            .onErrorResume(IllegalArgumentException.class, e -> {
+                logger.warn("Invalid search request: {}", e.getMessage());
+                return Mono.just(ResponseEntity.badRequest().body("Invalid request: " + e.getMessage()));
+            })
+            .onErrorResume(e -> {
+                logger.error("Error searching tasks by name", e);
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Error searching tasks: " + e.getMessage()));
+            });
+    }
+    
+    /**
+     * PUT /api/tasks/{id}/execute - Execute a task command
+     */
+    @PutMapping("/tasks/{id}/execute")
+    public Mono<ResponseEntity<?>> executeTask(@PathVariable String id) {
+        logger.info("PUT /api/tasks/{}/execute", id);
+        return taskService.executeTask(id)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .onErrorResume(IllegalArgumentException.class, e -> {
+                logger.warn("Task execution error", e);
+                return Mono.just(ResponseEntity.badRequest().body("Execution error: " + e.getMessage()));
+            })
+            .onErrorResume(AdmissionRejectedException.class, e -> {
+                logger.warn("Task execution rejected: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                        .body(e.getMessage() + ", please retry later"));
+            })
+            .onErrorResume(e -> {
+                logger.error("Error executing task", e);
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Error executing task: " + e.getMessage()));
+            });
+    }
+    
+    /**
+     * GET /api/health - Health check endpoint
+     */
+    @GetMapping("/health")
+    public Mono<ResponseEntity<String>> healthCheck() {
+        return Mono.just(ResponseEntity.ok("Task Management API is running"));
+    }
+    
+    private Task withNextFireTime(Task task) {
+        if (task.getSchedule() != null) {
+            task.setNextFireTime(taskScheduler.getNextFireTime(task.getId()).orElse(null));
+        }
+        return task;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.taskmanagement.reactive;
+
+import com.example.taskmanagement.model.TaskExecution;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking variant of TaskExecutionRepository, used by the reactive serving mode
+ */
+@Repository
+public interface ReactiveTaskExecutionRepository extends ReactiveMongoRepository<TaskExecution, String> {
+    
+    /**
+     * Find all executions of a task in chronological order
+     * @param taskId The task ID
+     * @return Executions, oldest first
+     */
+    Flux<TaskExecution> findByTaskIdOrderByStartTimeAsc(String taskId);
+    
+    /**
+     * Find all executions of the given tasks in chronological order
+     * @param taskIds The task IDs
+     * @return Executions, oldest first
+     */
+    Flux<TaskExecution> findByTaskIdInOrderByStartTimeAsc(Collection<String> taskIds);
+    
+    /**
+     * Find the executions of a task whose full output was spilled outside the document
+     * @param taskId The task ID
+     * @return Executions with an output reference
+     */
+    Flux<TaskExecution> findByTaskIdAndOutputRefNotNull(String taskId);
+    
+    /**
+     * Delete all executions of a task
+     * @param taskId The task ID
+     * @return Completes when deleted
+     */
+    Mono<Void> deleteByTaskId(String taskId);
+}
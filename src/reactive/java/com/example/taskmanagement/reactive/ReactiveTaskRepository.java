@@ -0,0 +1,12 @@
+package com.example.taskmanagement.reactive;
+
+import com.example.taskmanagement.model.Task;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking variant of TaskRepository, used by the reactive serving mode
+ */
+@Repository
+public interface ReactiveTaskRepository extends ReactiveMongoRepository<Task, String> {
+}
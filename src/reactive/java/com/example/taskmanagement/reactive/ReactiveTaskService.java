@@ -0,0 +1,285 @@
+package com.example.taskmanagement.reactive;
+
+import com.example.taskmanagement.model.ExecutionRollup;
+import com.example.taskmanagement.model.ExecutionStats;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import com.example.taskmanagement.service.AdmissionRejectedException;
+import com.example.taskmanagement.service.CommandExecutionService;
+import com.example.taskmanagement.service.CommandValidationCache;
+import com.example.taskmanagement.service.CommandValidationService;
+import com.example.taskmanagement.service.ExecutionMemoizer;
+import com.example.taskmanagement.service.ExecutionMetrics;
+import com.example.taskmanagement.service.ExecutionStatsService;
+import com.example.taskmanagement.service.OwnerAdmissionControl;
+import com.example.taskmanagement.service.TaskCache;
+import com.example.taskmanagement.service.TaskChangedEvent;
+import com.example.taskmanagement.service.TaskNameIndex;
+import com.example.taskmanagement.service.TaskScheduler;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of TaskService, used by the reactive serving mode.
+ * Validation rules, cache invalidation and change events are the same as in TaskService.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTaskService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTaskService.class);
+    
+    @Autowired
+    private ReactiveTaskRepository taskRepository;
+    
+    @Autowired
+    private ReactiveTaskExecutionRepository taskExecutionRepository;
+    
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ReactiveCommandExecutor commandExecutor;
+    
+    @Autowired
+    private ReactiveOutputBlobStore outputBlobStore;
+    
+    @Autowired
+    private CommandValidationCache commandValidationCache;
+    
+    @Autowired
+    private CommandExecutionService commandExecutionService;
+    
+    @Autowired
+    private TaskCache taskCache;
+    
+    @Autowired
+    private ExecutionMemoizer executionMemoizer;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+    
+    @Autowired
+    private OwnerAdmissionControl admissionControl;
+    
+    @Value("${task-management.pagination.default-page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${task-management.pagination.max-page-size:500}")
+    private int maxPageSize;
+    
+    /**
+     * Get all tasks
+     * @return All tasks with their execution history
+     */
+    public Mono<List<Task>> getAllTasks() {
+        logger.info("Retrieving all tasks");
+        return taskRepository.findAll().collectList().flatMap(this::attachExecutions);
+    }
+    
+    /**
+     * Get task by ID
+     * @param id Task ID
+     * @return The task with its execution history, or empty if not found
+     */
+    public Mono<Task> getTaskById(String id) {
+        logger.info("Retrieving task by ID: {}", id);
+        return taskRepository.findById(id)
+            .flatMap(task -> taskExecutionRepository.findByTaskIdOrderByStartTimeAsc(id).collectList()
+                .flatMap(outputBlobStore::resolve)
+                .map(executions -> {
+                    task.setTaskExecutions(new ArrayList<>(executions));
+                    return task;
+                }));
+    }
+    
+    /**
+     * Find tasks whose name contains the search string literally, ignoring case
+     * @param name Search string
+     * @param page Zero-based page number
+     * @param size Requested page size, or null for the default; capped at the configured maximum
+     * @return Matching tasks of the requested page, ordered by ID
+     */
+    public Mono<List<Task>> findTasksByName(String name, int page, Integer size) {
+        if (page < 0) {
+            return Mono.error(new IllegalArgumentException("Page must not be negative"));
+        }
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize));
+        logger.info("Searching tasks by name: {} (page={}, size={})", name, page, pageSize);
+        
+        Query query = new Query(TaskNameIndex.containing(name))
+            .with(Sort.by(Sort.Direction.ASC, "_id"))
+            .skip((long) page * pageSize)
+            .limit(pageSize);
+        query.fields().exclude("taskExecutions").exclude(TaskNameIndex.NAME_GRAMS);
+        return mongoTemplate.find(query, Task.class).collectList().flatMap(this::attachExecutions);
+    }
+    
+    /**
+     * Create or update a task
+     * @param task Task to save
+     * @return Saved task, or an IllegalArgumentException if command, schedule or timeout validation fails
+     */
+    public Mono<Task> saveTask(Task task) {
+        logger.info("Saving task: {}", task.getName());
+        
+        CommandValidationService.ValidationResult validationResult =
+            commandValidationCache.validateCommand(task.getCommand());
+        if (!validationResult.isValid()) {
+            logger.warn("Command validation failed for task {}: {}",
+                       task.getName(), validationResult.getMessage());
+            return Mono.error(new IllegalArgumentException("Command validation failed: " + validationResult.getMessage()));
+        }
+        try {
+            if (task.getSchedule() != null) {
+                TaskScheduler.validate(task.getSchedule());
+            }
+            commandExecutionService.validateTimeout(task.getTimeoutSeconds());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        
+        // The search fields are filled by a callback of the blocking template only
+        TaskNameIndex.index(task);
+        return taskRepository.save(task)
+            .flatMap(savedTask -> {
+                taskCache.invalidate(savedTask.getId());
+                executionMemoizer.invalidate(savedTask.getId());
+                eventPublisher.publishEvent(TaskChangedEvent.saved(savedTask));
+                logger.info("Task saved successfully with ID: {}", savedTask.getId());
+                return taskExecutionRepository.findByTaskIdOrderByStartTimeAsc(savedTask.getId()).collectList()
+                    .flatMap(outputBlobStore::resolve)
+                    .map(executions -> {
+                        savedTask.setTaskExecutions(new ArrayList<>(executions));
+                        return savedTask;
+                    });
+            });
+    }
+    
+    /**
+     * Delete task by ID, with its execution history
+     * @param id Task ID
+     * @return true if task was deleted, false if task was not found
+     */
+    public Mono<Boolean> deleteTask(String id) {
+        logger.info("Deleting task with ID: {}", id);
+        return taskRepository.existsById(id).flatMap(exists -> {
+            if (!exists) {
+                logger.warn("Task not found for deletion: {}", id);
+                return Mono.just(false);
+            }
+            return taskRepository.deleteById(id)
+                .then(Mono.zip(taskExecutionRepository.findByTaskIdAndOutputRefNotNull(id).collectList(),
+                               outputBlobStore.findReferences(id)))
+                .flatMap(found -> taskExecutionRepository.deleteByTaskId(id)
+                    .then(outputBlobStore.release(found.getT2()))
+                    .then(mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)), ExecutionRollup.class))
+                    .then(mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)), ExecutionStats.class))
+                    .then(Mono.fromRunnable(() -> {
+                        taskCache.invalidate(id);
+                        executionMemoizer.invalidate(id);
+                        eventPublisher.publishEvent(TaskChangedEvent.deleted(id));
+                        found.getT1().forEach(ReactiveTaskService::deleteSpilledOutput);
+                        logger.info("Task deleted successfully: {}", id);
+                    })))
+                .thenReturn(true);
+        });
+    }
+    
+    /**
+     * Execute a task command and add the execution to the task's history
+     * @param taskId Task ID
+     * @return TaskExecution result, or an IllegalArgumentException if the task is not found or its
+     *         command is invalid
+     */
+    public Mono<TaskExecution> executeTask(String taskId) {
+        logger.info("Executing task with ID: {}", taskId);
+        Timer.Sample sample = executionMetrics.start();
+        return taskRepository.findById(taskId)
+            .switchIfEmpty(Mono.defer(() -> {
+                logger.warn("Task not found for execution: {}", taskId);
+                return Mono.error(new IllegalArgumentException("Task not found with ID: " + taskId));
+            }))
+            .flatMap(task -> {
+                // Validate command again before execution (security check)
+                CommandValidationService.ValidationResult validationResult =
+                    commandValidationCache.validateCommand(task.getCommand());
+                if (!validationResult.isValid()) {
+                    logger.warn("Command validation failed during execution for task {}: {}",
+                               taskId, validationResult.getMessage());
+                    return Mono.error(new IllegalArgumentException(
+                        "Command validation failed: " + validationResult.getMessage()));
+                }
+                admissionControl.acquire(task.getOwner());
+                TaskExecution taskExecution = new TaskExecution();
+                taskExecution.setId(new ObjectId().toHexString());
+                taskExecution.setTaskId(taskId);
+                return commandExecutor.execute(task.getCommand(), taskExecution, task.getTimeoutSeconds())
+                    .doFinally(signal -> admissionControl.release(task.getOwner()));
+            })
+            .flatMap(taskExecution -> outputBlobStore.store(taskExecution)
+                .flatMap(stored -> taskExecutionRepository.insert(stored)
+                    // Drop the blob reference taken for an execution that was not stored
+                    .onErrorResume(e -> outputBlobStore.release(List.of(stored)).then(Mono.error(e))))
+                .thenReturn(taskExecution))
+            .flatMap(taskExecution -> mongoTemplate.upsert(Query.query(Criteria.where("_id").is(taskId)),
+                    ExecutionStatsService.increment(taskExecution), ExecutionStats.class)
+                .doOnError(e -> logger.warn("Could not update statistics of task {}: {}", taskId, e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .thenReturn(taskExecution))
+            .doOnNext(taskExecution -> {
+                taskCache.invalidateExecutions(taskId);
+                executionMetrics.execution(sample, taskExecution.getStatus().name().toLowerCase(Locale.ROOT));
+                logger.info("Task execution completed for task {}: {}", taskId, taskExecution.getOutput());
+            })
+            .doOnError(e -> executionMetrics.execution(sample,
+                e instanceof AdmissionRejectedException ? "rejected" : "error"));
+    }
+    
+    private Mono<List<Task>> attachExecutions(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return Mono.just(tasks);
+        }
+        List<String> taskIds = tasks.stream().map(Task::getId).collect(Collectors.toList());
+        return taskExecutionRepository.findByTaskIdInOrderByStartTimeAsc(taskIds).collectList()
+            .flatMap(outputBlobStore::resolve)
+            .map(executions -> executions.stream().collect(Collectors.groupingBy(TaskExecution::getTaskId)))
+            .map(byTask -> {
+                for (Task task : tasks) {
+                    task.setTaskExecutions(new ArrayList<>(byTask.getOrDefault(task.getId(), List.of())));
+                }
+                return tasks;
+            });
+    }
+    
+    private static void deleteSpilledOutput(TaskExecution taskExecution) {
+        try {
+            Files.deleteIfExists(Paths.get(taskExecution.getOutputRef()));
+        } catch (IOException e) {
+            logger.warn("Could not delete spilled output {}", taskExecution.getOutputRef(), e);
+        }
+    }
+}
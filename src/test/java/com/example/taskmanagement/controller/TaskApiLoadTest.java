@@ -0,0 +1,356 @@
+package com.example.taskmanagement.controller;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test of the task endpoints against an embedded MongoDB. Seeds N tasks with M executions
+ * each, drives list, get, search, create and execute requests from concurrent clients for a fixed
+ * time, and writes throughput and p50/p99/p999 latencies per endpoint to a JSON report.
+ * Excluded from the default build; run with: mvn -P load-test test
+ * Sizes are set with -Dload.tasks, -Dload.executions, -Dload.concurrency, -Dload.warmup-seconds,
+ * -Dload.duration-seconds and -Dload.report.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "logging.level.com.example.taskmanagement=WARN",
+    "task-management.scheduler.enabled=false",
+    "task-management.admission.enabled=false"
+})
+public class TaskApiLoadTest {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskApiLoadTest.class);
+    
+    private static final int TASKS = Integer.getInteger("load.tasks", 1000);
+    private static final int EXECUTIONS = Integer.getInteger("load.executions", 20);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 30);
+    private static final String REPORT = System.getProperty("load.report", "target/load-test/report.json");
+    private static final String MONGO_VERSION = System.getProperty("load.mongo-version", "V6_0");
+    
+    private static final String[] WORDS = {
+        "backup", "orders", "disk", "usage", "cleanup", "report", "nightly", "sync", "health", "check",
+        "rotate", "logs", "metrics", "export", "invoice", "cache", "warmup", "index", "audit", "users"
+    };
+    
+    /**
+     * Endpoints under load, with their share of requests
+     */
+    private enum Endpoint {
+        LIST(20),
+        GET(35),
+        SEARCH(20),
+        CREATE(15),
+        EXECUTE(10);
+        
+        private final int weight;
+        
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+    
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        // Downloads the MongoDB binaries on first use
+        mongod = Mongod.instance().start(Version.Main.valueOf(MONGO_VERSION));
+        ServerAddress address = mongod.current().getServerAddress();
+        registry.add("spring.data.mongodb.uri",
+            () -> "mongodb://" + address.getHost() + ":" + address.getPort() + "/taskmanagement");
+    }
+    
+    @AfterAll
+    static void stopMongo() {
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+    
+    @Test
+    public void testEndpointsUnderConcurrentLoad() throws Exception {
+        List<String> taskIds = seed();
+        
+        logger.warn("Warming up for {}s with {} clients", WARMUP_SECONDS, CONCURRENCY);
+        drive(taskIds, WARMUP_SECONDS);
+        logger.warn("Measuring for {}s with {} clients", DURATION_SECONDS, CONCURRENCY);
+        long start = System.nanoTime();
+        List<Recorder> recorders = drive(taskIds, DURATION_SECONDS);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        
+        Map<String, Object> report = report(recorders, elapsedSeconds);
+        Path reportFile = Paths.get(REPORT);
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), report);
+        logger.warn("Load test report written to {}:\n{}", reportFile.toAbsolutePath(),
+                   objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report.get("endpoints")));
+        
+        long requests = 0;
+        for (Recorder recorder : recorders) {
+            for (Endpoint endpoint : Endpoint.values()) {
+                requests += recorder.count(endpoint);
+                assertEquals(0L, (long) recorder.errors.get(endpoint), endpoint + " requests failed");
+            }
+        }
+        assertTrue(requests > 0, "No requests completed");
+    }
+    
+    /**
+     * Insert the tasks and their executions directly, in bulk
+     */
+    private List<String> seed() {
+        long start = System.currentTimeMillis();
+        Random random = new Random(42);
+        List<Task> tasks = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            tasks.add(new Task(name, "owner-" + (i % 50), "echo " + name));
+        }
+        List<String> taskIds = new ArrayList<>(TASKS);
+        for (Task task : mongoTemplate.insert(tasks, Task.class)) {
+            taskIds.add(task.getId());
+        }
+        
+        List<TaskExecution> executions = new ArrayList<>();
+        long base = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(30);
+        for (String taskId : taskIds) {
+            for (int j = 0; j < EXECUTIONS; j++) {
+                TaskExecution execution = new TaskExecution(new Date(base + j * 60000L), new Date(base + j * 60000L + 40),
+                    "seeded output " + j);
+                execution.setTaskId(taskId);
+                execution.setStatus(ExecutionStatus.COMPLETED);
+                execution.setExitCode(0);
+                executions.add(execution);
+                if (executions.size() == 10000) {
+                    mongoTemplate.insert(executions, TaskExecution.class);
+                    executions.clear();
+                }
+            }
+        }
+        if (!executions.isEmpty()) {
+            mongoTemplate.insert(executions, TaskExecution.class);
+        }
+        logger.warn("Seeded {} tasks with {} executions each in {}ms", TASKS, EXECUTIONS,
+                   System.currentTimeMillis() - start);
+        return taskIds;
+    }
+    
+    private List<Recorder> drive(List<String> taskIds, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<Recorder>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                Random random = new Random(i);
+                futures.add(clients.submit(() -> {
+                    Recorder recorder = new Recorder();
+                    while (System.nanoTime() < deadline) {
+                        Endpoint endpoint = pick(random);
+                        HttpRequest request = request(endpoint, taskIds, random);
+                        long begin = System.nanoTime();
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        long elapsed = System.nanoTime() - begin;
+                        // A search that matches nothing answers 404
+                        boolean ok = response.statusCode() / 100 == 2
+                            || (endpoint == Endpoint.SEARCH && response.statusCode() == 404);
+                        recorder.record(endpoint, elapsed, ok);
+                    }
+                    return recorder;
+                }));
+            }
+            List<Recorder> recorders = new ArrayList<>();
+            for (Future<Recorder> future : futures) {
+                recorders.add(future.get());
+            }
+            return recorders;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+    
+    private static Endpoint pick(Random random) {
+        int total = Arrays.stream(Endpoint.values()).mapToInt(endpoint -> endpoint.weight).sum();
+        int roll = random.nextInt(total);
+        for (Endpoint endpoint : Endpoint.values()) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException();
+    }
+    
+    private HttpRequest request(Endpoint endpoint, List<String> taskIds, Random random) {
+        String base = "http://localhost:" + port + "/api/tasks";
+        String taskId = taskIds.get(random.nextInt(taskIds.size()));
+        switch (endpoint) {
+            case LIST:
+                return HttpRequest.newBuilder(URI.create(base + "?limit=50&executions=LAST&last=5")).GET().build();
+            case GET:
+                return HttpRequest.newBuilder(URI.create(base + "?id=" + taskId)).GET().build();
+            case SEARCH:
+                String search = URLEncoder.encode(WORDS[random.nextInt(WORDS.length)], StandardCharsets.UTF_8);
+                return HttpRequest.newBuilder(URI.create(base + "/search?name=" + search + "&size=20")).GET().build();
+            case CREATE:
+                String body = "{\"name\":\"load " + WORDS[random.nextInt(WORDS.length)] + "\","
+                    + "\"owner\":\"load\",\"command\":\"echo created\"}";
+                return HttpRequest.newBuilder(URI.create(base))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            case EXECUTE:
+                return HttpRequest.newBuilder(URI.create(base + "/" + taskId + "/execute"))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            default:
+                throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+        }
+    }
+    
+    private static Map<String, Object> report(List<Recorder> recorders, double elapsedSeconds) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("tasks", TASKS);
+        config.put("executionsPerTask", EXECUTIONS);
+        config.put("concurrency", CONCURRENCY);
+        config.put("durationSeconds", DURATION_SECONDS);
+        config.put("mongoVersion", MONGO_VERSION);
+        
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            int count = 0;
+            long errors = 0;
+            for (Recorder recorder : recorders) {
+                count += recorder.count(endpoint);
+                errors += recorder.errors.get(endpoint);
+            }
+            long[] latencies = new long[count];
+            int offset = 0;
+            for (Recorder recorder : recorders) {
+                int n = recorder.count(endpoint);
+                System.arraycopy(recorder.latencies.get(endpoint), 0, latencies, offset, n);
+                offset += n;
+            }
+            Arrays.sort(latencies);
+            
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", count);
+            stats.put("errors", errors);
+            stats.put("throughputPerSecond", round(count / elapsedSeconds));
+            stats.put("p50Ms", percentileMillis(latencies, 0.50));
+            stats.put("p99Ms", percentileMillis(latencies, 0.99));
+            stats.put("p999Ms", percentileMillis(latencies, 0.999));
+            stats.put("maxMs", percentileMillis(latencies, 1.0));
+            endpoints.put(endpoint.name().toLowerCase(), stats);
+        }
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", new Date().toInstant().toString());
+        report.put("config", config);
+        report.put("elapsedSeconds", round(elapsedSeconds));
+        report.put("endpoints", endpoints);
+        return report;
+    }
+    
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return round(sortedNanos[Math.max(0, index)] / 1e6);
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+    
+    /**
+     * Latencies and errors seen by one client thread
+     */
+    private static class Recorder {
+        private final Map<Endpoint, long[]> latencies = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, Integer> counts = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, Long> errors = new EnumMap<>(Endpoint.class);
+        
+        Recorder() {
+            for (Endpoint endpoint : Endpoint.values()) {
+                latencies.put(endpoint, new long[1024]);
+                counts.put(endpoint, 0);
+                errors.put(endpoint, 0L);
+            }
+        }
+        
+        void record(Endpoint endpoint, long nanos, boolean ok) {
+            int count = counts.get(endpoint);
+            long[] values = latencies.get(endpoint);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                latencies.put(endpoint, values);
+            }
+            values[count] = nanos;
+            counts.put(endpoint, count + 1);
+            if (!ok) {
+                errors.merge(endpoint, 1L, Long::sum);
+            }
+        }
+        
+        int count(Endpoint endpoint) {
+            return counts.get(endpoint);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.taskmanagement.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request handling of PUT /api/tasks/execute that does not need the database
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TaskControllerBatchTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    public void testRequestWithoutSelectionIsRejected() throws Exception {
+        mockMvc.perform(put("/api/tasks/execute")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"parallelism\": 4}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string("Invalid request: Specify either taskIds or an owner and/or name filter"));
+    }
+    
+    @Test
+    public void testRequestWithBothSelectionsIsRejectedWhenStreaming() throws Exception {
+        mockMvc.perform(put("/api/tasks/execute")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content("{\"taskIds\": [\"1\"], \"owner\": \"Ops\"}"))
+            .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    public void testTooManyTasksAreRejected() throws Exception {
+        StringBuilder ids = new StringBuilder("\"0\"");
+        for (int i = 1; i <= 1000; i++) {
+            ids.append(",\"").append(i).append('"');
+        }
+        mockMvc.perform(put("/api/tasks/execute")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.ALL)
+                .content("{\"taskIds\": [" + ids + "]}"))
+            .andExpect(status().isBadRequest());
+    }
+}
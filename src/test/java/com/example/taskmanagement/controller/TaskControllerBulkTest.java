@@ -0,0 +1,74 @@
+package com.example.taskmanagement.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request parsing and per-item validation of PUT /api/tasks/bulk.
+ * Only invalid tasks are submitted, so nothing reaches the database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TaskControllerBulkTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    public void testJsonArrayGetsOneResultPerTask() throws Exception {
+        mockMvc.perform(put("/api/tasks/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\": \"1\", \"name\": \"Wipe\", \"owner\": \"Ops\", \"command\": \"rm -rf /\"},"
+                    + " {\"id\": \"2\", \"name\": \"\", \"owner\": \"Ops\", \"command\": \"hostname\"},"
+                    + " {\"name\": \"Chain\", \"owner\": \"Ops\", \"command\": \"echo a; reboot\"}]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.saved").value(0))
+            .andExpect(jsonPath("$.failed").value(3))
+            .andExpect(jsonPath("$.items[0].id").value("1"))
+            .andExpect(jsonPath("$.items[0].error").value(
+                "Command validation failed: Command 'rm' is not allowed for security reasons"))
+            .andExpect(jsonPath("$.items[1].error").value("Task name is required"))
+            .andExpect(jsonPath("$.items[2].index").value(2))
+            .andExpect(jsonPath("$.items[2].success").value(false));
+    }
+    
+    @Test
+    public void testNdjsonIsReadLineByLine() throws Exception {
+        mockMvc.perform(put("/api/tasks/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"name\": \"a\", \"owner\": \"Ops\", \"command\": \"echo a > f\"}\n"
+                    + "{\"name\": \"b\", \"owner\": \"Ops\", \"command\": \"sudo ls\"}\n"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.failed").value(2))
+            .andExpect(jsonPath("$.items[1].index").value(1));
+    }
+    
+    @Test
+    public void testTimeoutOutsideLimitsIsRejected() throws Exception {
+        mockMvc.perform(put("/api/tasks/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\": \"a\", \"owner\": \"Ops\", \"command\": \"hostname\", \"timeoutSeconds\": 0},"
+                    + " {\"name\": \"b\", \"owner\": \"Ops\", \"command\": \"sudo ls\", \"timeoutSeconds\": 86400},"
+                    + " {\"name\": \"c\", \"owner\": \"Ops\", \"command\": \"hostname\", \"timeoutSeconds\": 86400}]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.failed").value(3))
+            .andExpect(jsonPath("$.items[0].error").value("Timeout must be at least 1 second"))
+            .andExpect(jsonPath("$.items[2].error").value("Timeout must not exceed 3600 seconds"));
+    }
+    
+    @Test
+    public void testMalformedBodyIsRejected() throws Exception {
+        mockMvc.perform(put("/api/tasks/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\": \"a\"}, {\"name\": "))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.dto.BatchExecutionResult;
+import com.example.taskmanagement.dto.BatchItemResult;
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchExecutionService, with command execution and persistence stubbed out
+ */
+public class BatchExecutionServiceTest {
+    
+    private final BatchExecutionService service = new BatchExecutionService();
+    
+    private final AtomicInteger running = new AtomicInteger();
+    
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    
+    private final List<Integer> persistedBatches = new CopyOnWriteArrayList<>();
+    
+    private final OwnerAdmissionControl admissionControl = new OwnerAdmissionControl();
+    
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(service, "taskService", new TaskService());
+        ReflectionTestUtils.setField(service, "commandExecutionService", new CommandExecutionService() {
+            @Override
+            public TaskExecution executeCommand(String command, TaskExecution taskExecution, Integer timeoutSeconds) {
+                int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                if (command.equals("boom")) {
+                    throw new IllegalStateException("spawn failed");
+                }
+                taskExecution.setStartTime(new Date());
+                taskExecution.setEndTime(new Date());
+                taskExecution.setStatus(ExecutionStatus.COMPLETED);
+                taskExecution.setOutput(command + " output");
+                return taskExecution;
+            }
+        });
+        ReflectionTestUtils.setField(service, "executionHistoryService", new ExecutionHistoryService() {
+            @Override
+            public void recordAll(Collection<TaskExecution> taskExecutions) {
+                persistedBatches.add(taskExecutions.size());
+            }
+        });
+        ReflectionTestUtils.setField(admissionControl, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(admissionControl, "ratePerSecond", 0);
+        ReflectionTestUtils.setField(admissionControl, "maxConcurrent", 0);
+        ReflectionTestUtils.setField(service, "admissionControl", admissionControl);
+        ReflectionTestUtils.setField(service, "maxParallelism", 8);
+        ReflectionTestUtils.setField(service, "queueCapacity", 16);
+        ReflectionTestUtils.setField(service, "persistBatchSize", 10);
+        ReflectionTestUtils.setField(service, "outputPreviewChars", 4);
+        service.start();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        service.stop();
+    }
+    
+    @Test
+    public void testParallelismIsCappedAndExecutionsArePersistedInBatches() throws Exception {
+        BatchExecutionService.Plan plan = new BatchExecutionService.Plan(tasks(25), new ArrayList<>(), 3);
+        
+        BatchExecutionResult result = service.run(plan);
+        
+        assertEquals(25, result.getItems().size());
+        assertEquals(25, result.getCompleted());
+        assertTrue(maxRunning.get() <= 3, "At most 3 tasks may run at once, saw " + maxRunning.get());
+        assertEquals(25, persistedBatches.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(persistedBatches.stream().allMatch(size -> size <= 10));
+        assertEquals(3, persistedBatches.size());
+    }
+    
+    @Test
+    public void testOutputIsTruncatedAndFailuresAreReportedPerTask() throws Exception {
+        List<Task> tasks = tasks(2);
+        tasks.add(new Task("bad", "Bad", "Ops", "boom"));
+        List<BatchItemResult> skipped = new ArrayList<>();
+        skipped.add(BatchItemResult.skipped("missing", "Task not found with ID: missing"));
+        
+        BatchExecutionResult result = service.run(new BatchExecutionService.Plan(tasks, skipped, 2));
+        
+        assertEquals(4, result.getItems().size());
+        assertEquals(2, result.getCompleted());
+        assertEquals(2, result.getFailed());
+        BatchItemResult executed = result.getItems().stream()
+            .filter(item -> "0".equals(item.getTaskId())).findFirst().orElseThrow();
+        assertEquals("echo", executed.getOutput());
+        assertTrue(executed.getOutputTruncated());
+        BatchItemResult failed = result.getItems().stream()
+            .filter(item -> "bad".equals(item.getTaskId())).findFirst().orElseThrow();
+        assertEquals("Execution failed: spawn failed", failed.getError());
+    }
+    
+    @Test
+    public void testTasksOverTheirOwnerLimitsAreRejected() throws Exception {
+        ReflectionTestUtils.setField(admissionControl, "ratePerSecond", 0.001);
+        ReflectionTestUtils.setField(admissionControl, "burst", 2);
+        admissionControl.init();
+        List<Task> tasks = tasks(3);
+        tasks.add(new Task("other", "Other", "Dev", "echo other"));
+        
+        BatchExecutionResult result = service.run(new BatchExecutionService.Plan(tasks, new ArrayList<>(), 1));
+        
+        // Ops has a burst of two runs, Dev has its own limits
+        assertEquals(3, result.getCompleted());
+        BatchItemResult rejected = result.getItems().stream()
+            .filter(item -> item.getStatus() == null).findFirst().orElseThrow();
+        assertEquals("2", rejected.getTaskId());
+        assertTrue(rejected.getRetryAfterSeconds() > 0);
+        assertEquals(3, persistedBatches.stream().mapToInt(Integer::intValue).sum());
+    }
+    
+    private List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task(String.valueOf(i), "Task " + i, "Ops", "echo " + i));
+        }
+        return tasks;
+    }
+}
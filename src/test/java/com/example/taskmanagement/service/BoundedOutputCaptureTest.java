@@ -0,0 +1,64 @@
+package com.example.taskmanagement.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BoundedOutputCapture
+ */
+public class BoundedOutputCaptureTest {
+    
+    @TempDir
+    Path spillDir;
+    
+    @Test
+    public void testOutputWithinLimitsIsKeptWhole() throws Exception {
+        try (BoundedOutputCapture capture = new BoundedOutputCapture(4, 4, spillDir, "test")) {
+            write(capture, "abc");
+            write(capture, "defgh");
+            
+            assertEquals("abcdefgh", capture.preview(StandardCharsets.UTF_8));
+            assertEquals(8, capture.getTotalBytes());
+            assertFalse(capture.isTruncated());
+            assertNull(capture.getSpillFile());
+        }
+    }
+    
+    @Test
+    public void testLargeOutputKeepsHeadAndTailAndSpills() throws Exception {
+        BoundedOutputCapture capture = new BoundedOutputCapture(3, 4, spillDir, "test");
+        write(capture, "abcde");
+        write(capture, "fghij");
+        write(capture, "klmnopqrstuvwxyz");
+        capture.close();
+        
+        assertTrue(capture.isTruncated());
+        assertEquals(26, capture.getTotalBytes());
+        assertEquals("abc\n... [19 bytes omitted] ...\nwxyz", capture.preview(StandardCharsets.UTF_8));
+        assertEquals("abcdefghijklmnopqrstuvwxyz",
+            new String(Files.readAllBytes(capture.getSpillFile()), StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    public void testTailWrapsAcrossSmallWrites() throws Exception {
+        try (BoundedOutputCapture capture = new BoundedOutputCapture(2, 3, null, "test")) {
+            for (char c = 'a'; c <= 'j'; c++) {
+                write(capture, String.valueOf(c));
+            }
+            
+            assertEquals("ab\n... [5 bytes omitted] ...\nhij", capture.preview(StandardCharsets.UTF_8));
+            assertNull(capture.getSpillFile());
+        }
+    }
+    
+    private void write(BoundedOutputCapture capture, String text) throws Exception {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        capture.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.TaskExecution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for direct and shell execution, timeouts and cancellation in CommandExecutionService
+ */
+@DisabledOnOs(OS.WINDOWS)
+public class CommandExecutionServiceTest {
+    
+    private final CommandExecutionService commandExecutionService = new CommandExecutionService();
+    
+    @BeforeEach
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExecutionMetrics executionMetrics = new ExecutionMetrics();
+        ReflectionTestUtils.setField(executionMetrics, "meterRegistry", registry);
+        executionMetrics.init();
+        CommandValidationCache commandValidationCache = new CommandValidationCache();
+        ReflectionTestUtils.setField(commandValidationCache, "commandValidationService", new CommandValidationService());
+        ReflectionTestUtils.setField(commandValidationCache, "meterRegistry", registry);
+        commandValidationCache.init();
+        ReflectionTestUtils.setField(commandExecutionService, "executionMetrics", executionMetrics);
+        ReflectionTestUtils.setField(commandExecutionService, "commandValidationCache", commandValidationCache);
+        ReflectionTestUtils.setField(commandExecutionService, "spillEnabled", false);
+    }
+    
+    @Test
+    public void testPlainCommandRunsWithoutShell() throws Exception {
+        assertEquals("sleep", startedProgram("sleep 0.2"));
+    }
+    
+    @Test
+    public void testCommandUsingShellFeaturesRunsThroughShell() throws Exception {
+        assertNotEquals("sleep", startedProgram("sleep ${DELAY:-0.2}"));
+    }
+    
+    @Test
+    public void testDirectExecutionCanBeDisabled() throws Exception {
+        ReflectionTestUtils.setField(commandExecutionService, "directExec", false);
+        assertNotEquals("sleep", startedProgram("sleep 0.2"));
+    }
+    
+    @Test
+    public void testQuotedArgumentsArePassedVerbatim() {
+        TaskExecution execution = commandExecutionService.executeCommand("printf '<%s>' 'a  b' \"c\"");
+        
+        assertEquals(ExecutionStatus.COMPLETED, execution.getStatus());
+        assertEquals("<a  b><c>", execution.getOutput());
+    }
+    
+    @Test
+    public void testUnknownProgramIsReportedByTheShell() {
+        TaskExecution execution = commandExecutionService.executeCommand("no-such-program-for-tests");
+        
+        assertEquals(ExecutionStatus.FAILED, execution.getStatus());
+        assertEquals(127, execution.getExitCode());
+    }
+    
+    @Test
+    public void testTimeoutKillsCommandAndTheProcessesItStarted() {
+        // The sleep started by timeout keeps the output open, and survives its parent being killed
+        ReflectionTestUtils.setField(commandExecutionService, "drainTimeoutMs", 10000L);
+        long start = System.nanoTime();
+        TaskExecution execution = commandExecutionService.executeCommand(
+            "timeout 60 sleep 30", new TaskExecution(), 1);
+        
+        assertEquals(ExecutionStatus.TIMED_OUT, execution.getStatus());
+        assertTrue(execution.getOutput().endsWith("Command timed out after 1 seconds"));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+    }
+    
+    @Test
+    public void testRunningCommandCanBeCancelled() throws Exception {
+        TaskExecution running = new TaskExecution();
+        running.setId("exec-1");
+        CompletableFuture<TaskExecution> result = CompletableFuture.supplyAsync(
+            () -> commandExecutionService.executeCommand("sleep 30", running, 60));
+        
+        while (!commandExecutionService.cancel("exec-1")) {
+            Thread.sleep(10);
+        }
+        TaskExecution execution = result.get(10, TimeUnit.SECONDS);
+        
+        assertEquals(ExecutionStatus.CANCELLED, execution.getStatus());
+        assertFalse(commandExecutionService.cancel("exec-1"));
+    }
+    
+    @Test
+    public void testReservedExecutionCancelledBeforeItStartsNeverRuns() {
+        commandExecutionService.reserve("exec-2");
+        assertTrue(commandExecutionService.cancel("exec-2"));
+        
+        TaskExecution queued = new TaskExecution();
+        queued.setId("exec-2");
+        TaskExecution execution = commandExecutionService.executeCommand("echo never", queued, (Integer) null);
+        
+        assertEquals(ExecutionStatus.CANCELLED, execution.getStatus());
+        assertEquals(0, execution.getOutputBytes());
+    }
+    
+    @Test
+    public void testTimeoutAboveMaximumIsRejected() {
+        commandExecutionService.validateTimeout(3600);
+        assertThrows(IllegalArgumentException.class, () -> commandExecutionService.validateTimeout(3601));
+    }
+    
+    private String startedProgram(String command) throws Exception {
+        Process process = commandExecutionService.startProcess(command, ProcessBuilder.Redirect.DISCARD);
+        try {
+            String program = process.info().command().orElseThrow();
+            return program.substring(program.lastIndexOf('/') + 1);
+        } finally {
+            process.waitFor();
+        }
+    }
+}
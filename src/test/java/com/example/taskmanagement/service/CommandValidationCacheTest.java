@@ -0,0 +1,60 @@
+package com.example.taskmanagement.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CommandValidationCache
+ */
+public class CommandValidationCacheTest {
+    
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    private final CommandValidationCache cache = new CommandValidationCache();
+    
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(cache, "commandValidationService", new CommandValidationService());
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        cache.init();
+    }
+    
+    @Test
+    public void testRepeatedCommandsHitTheCache() {
+        assertTrue(cache.validateCommand("echo Hello World").isValid());
+        assertTrue(cache.validateCommand("echo Hello World").isValid());
+        assertFalse(cache.validateCommand("rm -rf /").isValid());
+        assertFalse(cache.validateCommand("rm -rf /").isValid());
+        
+        assertEquals(2.0, gets("hit"));
+        assertEquals(2.0, gets("miss"));
+    }
+    
+    @Test
+    public void testCommandsAreNotNormalizedIntoOneEntry() {
+        assertEquals("Command is valid", cache.validateCommand("hostname").getMessage());
+        assertEquals("Command 'rm' is not allowed for security reasons", cache.validateCommand("RM").getMessage());
+        assertEquals("Command 'rm' is not allowed for security reasons", cache.validateCommand("rm").getMessage());
+        
+        assertEquals(0.0, gets("hit"));
+        assertEquals(3.0, gets("miss"));
+    }
+    
+    @Test
+    public void testNullCommandBypassesCache() {
+        assertFalse(cache.validateCommand(null).isValid());
+        assertEquals(0.0, gets("miss"));
+    }
+    
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+            .tag("cache", CommandValidationCache.CACHE_NAME)
+            .tag("result", result)
+            .functionCounter().count();
+    }
+}
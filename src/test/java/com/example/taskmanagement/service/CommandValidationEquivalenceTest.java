@@ -0,0 +1,152 @@
+package com.example.taskmanagement.service;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the compiled CommandValidationService gives the same verdicts and messages
+ * as the original regex-based rules
+ */
+public class CommandValidationEquivalenceTest {
+    
+    private final CommandValidationService validationService = new CommandValidationService();
+    
+    private static final List<String> CORPUS = Arrays.asList(
+        "echo Hello World", "echo Hello World!", "dir", "date /t", "hostname", "whoami", "ls -la", "ls",
+        "rm -rf /", "RM -rf /", "rm", "rmdir x", "rmx", "del C:\\Windows", "shutdown /s", "sudo rm -rf",
+        "format C:", "  sudo   ", "\tsudo ls", "sudo\tls", "su", "sux", "at now", "atq", "sh", "bash -c ls",
+        "echo test > file.txt", "echo test >> file.txt", "echo test | rm", "echo test && rm file",
+        "echo a || b", "echo a; b", "sleep 1 &", "cat < in", "echo `id`", "echo `id", "echo $(id)",
+        "echo $(id", "echo $id)", "echo )$(", "echo $()", "cat /dev/null", "cat /DEV/null", "ls /proc/1",
+        "ls /Sys/kernel", "cat ../../../etc/passwd", "cat ..\\secret", "cat /etc/hosts", "cat /ETC/hosts",
+        "dir C:\\Windows\\System32", "dir c:\\windows", "echo ..", "echo /etc", "echo caf\u00e9",
+        "\u212Aill 1", "echo \u0130", " ", "", "\u0000", "\u0000rm", "rm\u0000", "echo\u00a0rm", "\u2003"
+    );
+    
+    @Test
+    public void testCorpusMatchesLegacyRules() {
+        for (String command : CORPUS) {
+            assertSameVerdict(command);
+        }
+    }
+    
+    @Test
+    public void testRandomCommandsMatchLegacyRules() {
+        String[] pieces = {
+            "echo", "ls", "rm", "RM", "rmdir", "Sudo", "sh", "dir", "kill", "at", " ", " ", "  ", "\t",
+            "-la", "/", "\\", ".", "..", "../", "..\\", "/dev/", "/DEV", "/proc/", "/sys/", "/etc/", "/eTc",
+            "c:", "C:\\WINDOWS\\", "windows", ">", ">>", "|", "&", ";", "<", "`", "$", "(", ")", "$(",
+            "hello", "x", "\u00e9", "\u0130", "\u212A", "\u00a0"
+        };
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder command = new StringBuilder();
+            int count = 1 + random.nextInt(7);
+            for (int j = 0; j < count; j++) {
+                command.append(pieces[random.nextInt(pieces.length)]);
+            }
+            assertSameVerdict(command.toString());
+        }
+    }
+    
+    @Test
+    public void testLineBreaksAreRejected() {
+        // The regex rules never matched across line terminators, so these used to pass validation
+        // even though the shell runs each line as a separate command
+        assertFalse(validationService.validateCommand("echo hi\nrm -rf /").isValid());
+        assertFalse(validationService.validateCommand("echo hi\r\nreboot").isValid());
+        assertTrue(validationService.validateCommand("hostname\n").isValid());
+    }
+    
+    @Test
+    public void testEvaluationIsStableAcrossCalls() {
+        CommandValidationService.ValidationResult first = validationService.validateCommand("sudo ls");
+        CommandValidationService.ValidationResult second = validationService.validateCommand("SUDO ls");
+        assertSame(first, second);
+        assertEquals("Command 'sudo' is not allowed for security reasons", first.getMessage());
+    }
+    
+    private void assertSameVerdict(String command) {
+        CommandValidationService.ValidationResult expected = LegacyRules.validateCommand(command);
+        CommandValidationService.ValidationResult actual = validationService.validateCommand(command);
+        assertEquals(expected.isValid(), actual.isValid(), () -> "Verdict differs for: " + escape(command));
+        assertEquals(expected.getMessage(), actual.getMessage(), () -> "Message differs for: " + escape(command));
+    }
+    
+    private static String escape(String command) {
+        StringBuilder escaped = new StringBuilder("\"");
+        for (char c : command.toCharArray()) {
+            escaped.append(c >= 32 && c < 127 ? String.valueOf(c) : String.format("\\u%04x", (int) c));
+        }
+        return escaped.append('"').toString();
+    }
+    
+    /**
+     * The validation rules as originally written, used as the reference
+     */
+    private static class LegacyRules {
+        private static final List<String> DANGEROUS_COMMANDS = Arrays.asList(
+            "rm", "rmdir", "del", "format", "fdisk", "mkfs",
+            "dd", "shutdown", "reboot", "halt", "poweroff",
+            "kill", "killall", "pkill", "sudo", "su",
+            "chmod", "chown", "passwd", "useradd", "userdel",
+            "crontab", "at", "batch", "systemctl", "service",
+            "iptables", "netsh", "reg", "regedit", "gpedit",
+            "cmd", "powershell", "bash", "sh", "zsh",
+            "nc", "netcat", "telnet", "ssh", "ftp", "wget", "curl"
+        );
+        
+        private static final List<Pattern> DANGEROUS_PATTERNS = new ArrayList<>(Arrays.asList(
+            Pattern.compile(".*>.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*>>.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*\\|.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*&.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*;.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*&&.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*\\|\\|.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*`.*`.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*\\$\\(.*\\).*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*<.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*/dev/.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*/proc/.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*/sys/.*", Pattern.CASE_INSENSITIVE)
+        ));
+        
+        static CommandValidationService.ValidationResult validateCommand(String command) {
+            if (StringUtils.isBlank(command)) {
+                return new CommandValidationService.ValidationResult(false, "Command cannot be empty");
+            }
+            String normalizedCommand = command.trim().toLowerCase();
+            for (String dangerousCmd : DANGEROUS_COMMANDS) {
+                if (normalizedCommand.startsWith(dangerousCmd + " ") ||
+                    normalizedCommand.equals(dangerousCmd)) {
+                    return new CommandValidationService.ValidationResult(false,
+                        "Command '" + dangerousCmd + "' is not allowed for security reasons");
+                }
+            }
+            for (Pattern pattern : DANGEROUS_PATTERNS) {
+                if (pattern.matcher(command).matches()) {
+                    return new CommandValidationService.ValidationResult(false,
+                        "Command contains dangerous patterns and is not allowed");
+                }
+            }
+            if (normalizedCommand.contains("../") || normalizedCommand.contains("..\\")) {
+                return new CommandValidationService.ValidationResult(false,
+                    "Directory traversal is not allowed");
+            }
+            if (normalizedCommand.contains("/etc/") || normalizedCommand.contains("c:\\windows\\")) {
+                return new CommandValidationService.ValidationResult(false,
+                    "Access to system directories is not allowed");
+            }
+            return new CommandValidationService.ValidationResult(true, "Command is valid");
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.example.taskmanagement.service;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -47,4 +50,27 @@ public class CommandValidationServiceTest {
         assertFalse(validationService.validateCommand(null).isValid());
         assertFalse(validationService.validateCommand("   ").isValid());
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void testPlainCommandsAreSplitIntoArguments() {
+        assertEquals(List.of("echo", "Hello", "World"), validationService.validateCommand("  echo Hello   World ").getArgv());
+        assertEquals(List.of("echo", "a b", "it's", "x\"y"),
+            validationService.validateCommand("echo 'a b' \"it's\" x'\"'y").getArgv());
+        assertEquals(List.of("printf", ""), validationService.validateCommand("printf ''").getArgv());
+    }
+    
+    @Test
+    public void testCommandsNeedingTheShellHaveNoArguments() {
+        String[] shellCommands = {
+            "echo $HOME", "echo \"$HOME\"", "ls *.txt", "echo ~", "echo a\\ b", "echo {a,b}",
+            "exit 3", "cd /tmp", "FOO=1 env", "echo 'unterminated", "echo -e hi"
+        };
+        for (String command : shellCommands) {
+            CommandValidationService.ValidationResult result = validationService.validateCommand(command);
+            assertTrue(result.isValid(), command);
+            assertNull(result.getArgv(), command);
+        }
+        assertEquals(List.of("echo", "$HOME", "*"), validationService.validateCommand("echo '$HOME' \"*\"").getArgv());
+        assertNull(validationService.validateCommand("rm -rf /").getArgv());
+    }
+}
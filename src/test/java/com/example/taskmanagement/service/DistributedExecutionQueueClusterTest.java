@@ -0,0 +1,178 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.TaskManagementApplication;
+import com.example.taskmanagement.model.ExecutionJob;
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two application contexts against one embedded MongoDB, as two nodes sharing the execution queue.
+ * Excluded from the default build; run with: mvn -P cluster-test test (-Dcluster.mongo-version picks the MongoDB version)
+ */
+@Tag("cluster")
+public class DistributedExecutionQueueClusterTest {
+    
+    private static final String MONGO_VERSION = System.getProperty("cluster.mongo-version", "V6_0");
+    
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    
+    private static ConfigurableApplicationContext nodeA;
+    
+    private static ConfigurableApplicationContext nodeB;
+    
+    private static MongoTemplate mongoTemplate;
+    
+    @BeforeAll
+    static void startNodes() {
+        // Downloads the MongoDB binaries on first use
+        mongod = Mongod.instance().start(Version.Main.valueOf(MONGO_VERSION));
+        ServerAddress address = mongod.current().getServerAddress();
+        String uri = "mongodb://" + address.getHost() + ":" + address.getPort() + "/taskmanagement";
+        nodeA = startNode(uri, "node-a");
+        nodeB = startNode(uri, "node-b");
+        mongoTemplate = nodeA.getBean(MongoTemplate.class);
+    }
+    
+    @AfterAll
+    static void stopNodes() {
+        for (ConfigurableApplicationContext node : new ConfigurableApplicationContext[] {nodeA, nodeB}) {
+            if (node != null) {
+                node.close();
+            }
+        }
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+    
+    @BeforeEach
+    public void setUp() {
+        mongoTemplate.remove(new Query(), ExecutionJob.class);
+        mongoTemplate.remove(new Query(), TaskExecution.class);
+        mongoTemplate.remove(new Query(), Task.class);
+        mongoTemplate.save(new Task("1", "Short sleep", "Ops", "sleep 0.3"));
+        mongoTemplate.save(new Task("2", "Long sleep", "Ops", "sleep 20"));
+    }
+    
+    @Test
+    public void testJobsAreRunOnBothNodes() {
+        TaskExecutionEngine engine = nodeA.getBean(TaskExecutionEngine.class);
+        List<String> executionIds = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            executionIds.add(engine.submit("1").getId());
+        }
+        assertEquals(ExecutionStatus.RUNNING, engine.getExecution("1", executionIds.get(0)).get().getStatus());
+        
+        await(() -> storedExecutions("1") == 16);
+        
+        for (String executionId : executionIds) {
+            assertEquals(ExecutionStatus.COMPLETED, nodeB.getBean(TaskExecutionEngine.class)
+                .getExecution("1", executionId).get().getStatus());
+        }
+        assertTrue(jobs(nodeA, "completed") > 0, "node A ran no jobs");
+        assertTrue(jobs(nodeB, "completed") > 0, "node B ran no jobs");
+        assertEquals(0, mongoTemplate.count(new Query(), ExecutionJob.class));
+    }
+    
+    @Test
+    public void testExpiredLeaseIsReclaimed() {
+        double reclaimed = jobs(nodeA, "reclaimed") + jobs(nodeB, "reclaimed");
+        ExecutionJob job = new ExecutionJob("650000000000000000000001", "1", new Date(System.currentTimeMillis() - 5000));
+        job.setLeaseOwner("crashed-node");
+        job.setAttempts(1);
+        mongoTemplate.insert(job);
+        
+        await(() -> storedExecutions("1") == 1);
+        
+        TaskExecution stored = mongoTemplate.findById(job.getId(), TaskExecution.class);
+        assertEquals(ExecutionStatus.COMPLETED, stored.getStatus());
+        assertEquals(reclaimed + 1, jobs(nodeA, "reclaimed") + jobs(nodeB, "reclaimed"));
+    }
+    
+    @Test
+    public void testJobIsAbandonedAfterMaxAttempts() {
+        ExecutionJob job = new ExecutionJob("650000000000000000000002", "1", new Date(System.currentTimeMillis() - 5000));
+        job.setLeaseOwner("crashed-node");
+        job.setAttempts(3);
+        mongoTemplate.insert(job);
+        
+        await(() -> storedExecutions("1") == 1);
+        
+        assertEquals(ExecutionStatus.FAILED, mongoTemplate.findById(job.getId(), TaskExecution.class).getStatus());
+    }
+    
+    @Test
+    public void testRunningJobCanBeCancelledFromAnyNode() {
+        TaskExecution accepted = nodeA.getBean(TaskExecutionEngine.class).submit("2");
+        await(() -> mongoTemplate.findById(accepted.getId(), ExecutionJob.class).getLeaseOwner() != null);
+        
+        assertEquals(TaskExecutionEngine.Cancellation.CANCELLED,
+            nodeB.getBean(TaskExecutionEngine.class).cancel("2", accepted.getId()));
+        // The node running it cancels it at its next heartbeat
+        await(() -> storedExecutions("2") == 1);
+        
+        assertEquals(ExecutionStatus.CANCELLED, mongoTemplate.findById(accepted.getId(), TaskExecution.class).getStatus());
+    }
+    
+    private static ConfigurableApplicationContext startNode(String mongoUri, String nodeId) {
+        return new SpringApplicationBuilder(TaskManagementApplication.class).run(
+            "--server.port=0",
+            "--spring.data.mongodb.uri=" + mongoUri,
+            "--logging.level.com.example.taskmanagement=WARN",
+            "--task-management.scheduler.enabled=false",
+            "--task-management.retention.enabled=false",
+            "--task-management.distributed.enabled=true",
+            "--task-management.distributed.node-id=" + nodeId,
+            "--task-management.distributed.workers=2",
+            "--task-management.distributed.poll-interval-ms=50",
+            "--task-management.distributed.lease-ms=2000",
+            "--task-management.distributed.heartbeat-ms=500");
+    }
+    
+    private static long storedExecutions(String taskId) {
+        return mongoTemplate.count(new Query(Criteria.where("taskId").is(taskId)), TaskExecution.class);
+    }
+    
+    private static double jobs(ConfigurableApplicationContext node, String result) {
+        Counter counter = node.getBean(MeterRegistry.class).find(DistributedExecutionQueue.JOBS).tag("result", result).counter();
+        return counter != null ? counter.count() : 0;
+    }
+    
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 20000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted");
+            }
+        }
+    }
+}
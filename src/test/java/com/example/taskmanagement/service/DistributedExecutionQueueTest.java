@@ -0,0 +1,272 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionJob;
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DistributedExecutionQueue, against a mocked MongoTemplate.
+ * Two nodes sharing a real database are tested by DistributedExecutionQueueClusterTest.
+ */
+public class DistributedExecutionQueueTest {
+    
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+    
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    
+    private final TaskService taskService = mock(TaskService.class);
+    
+    private final CommandExecutionService commandExecutionService = mock(CommandExecutionService.class);
+    
+    private final ExecutionOutputHub executionOutputHub = mock(ExecutionOutputHub.class);
+    
+    private final OwnerAdmissionControl admissionControl = mock(OwnerAdmissionControl.class);
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    private final DistributedExecutionQueue queue = new DistributedExecutionQueue();
+    
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(queue, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(queue, "taskService", taskService);
+        ReflectionTestUtils.setField(queue, "commandExecutionService", commandExecutionService);
+        ReflectionTestUtils.setField(queue, "executionOutputHub", executionOutputHub);
+        ReflectionTestUtils.setField(queue, "admissionControl", admissionControl);
+        ReflectionTestUtils.setField(queue, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(queue, "nodeId", "node-a");
+        ReflectionTestUtils.setField(queue, "clock", Clock.fixed(NOW, ZoneOffset.UTC));
+        when(taskService.prepareExecution(eq("1"), anyBoolean())).thenReturn(new Task("1", "Echo", "Ops", "echo hi"));
+        when(admissionControl.tryStart("Ops")).thenReturn(true);
+        when(commandExecutionService.executeCommand(eq("echo hi"), any(TaskExecution.class), any(), any()))
+            .thenAnswer(call -> {
+                TaskExecution taskExecution = call.getArgument(1);
+                taskExecution.setStatus(ExecutionStatus.COMPLETED);
+                return taskExecution;
+            });
+    }
+    
+    @Test
+    public void testClaimLeasesOldestAvailableJobToThisNode() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(ExecutionJob.class))).thenReturn(job("e1", 1), job("e2", 2), null);
+        
+        assertEquals("e1", queue.claim().getId());
+        assertEquals("e2", queue.claim().getId());
+        assertNull(queue.claim());
+        
+        verify(mongoTemplate, times(3)).findAndModify(argThat(query ->
+                query.getQueryObject().get("availableAt", Document.class).get("$lte").equals(Date.from(NOW))
+                    && query.getSortObject().get("availableAt").equals(1)),
+            argThat(update -> {
+                Document set = update.getUpdateObject().get("$set", Document.class);
+                return set.get("leaseOwner").equals("node-a")
+                    && set.get("availableAt").equals(new Date(NOW.toEpochMilli() + 30000))
+                    && update.getUpdateObject().get("$inc", Document.class).get("attempts").equals(1);
+            }),
+            any(FindAndModifyOptions.class), eq(ExecutionJob.class));
+        assertEquals(1, jobs("claimed"));
+        assertEquals(1, jobs("reclaimed"));
+    }
+    
+    @Test
+    public void testRenewLeasesCancelsRunsWhoseLeaseWasLostOrCancelled() {
+        Map<String, Boolean> leased = leased();
+        leased.put("lost", false);
+        leased.put("cancelled", false);
+        leased.put("running", false);
+        ExecutionJob cancelled = job("cancelled", 1);
+        cancelled.setCancelRequested(true);
+        when(mongoTemplate.findAndModify(argThat(byId("cancelled")), any(Update.class), any(FindAndModifyOptions.class),
+            eq(ExecutionJob.class))).thenReturn(cancelled);
+        when(mongoTemplate.findAndModify(argThat(byId("running")), any(Update.class), any(FindAndModifyOptions.class),
+            eq(ExecutionJob.class))).thenReturn(job("running", 1));
+        
+        queue.renewLeases();
+        
+        // Each renewal is conditional on this node still holding the lease
+        verify(mongoTemplate, times(3)).findAndModify(argThat(query -> "node-a".equals(query.getQueryObject().get("leaseOwner"))),
+            any(Update.class), any(FindAndModifyOptions.class), eq(ExecutionJob.class));
+        verify(commandExecutionService).cancel("lost");
+        verify(commandExecutionService).cancel("cancelled");
+        verify(commandExecutionService, never()).cancel("running");
+        assertTrue(leased.get("lost"));
+        assertFalse(leased.get("cancelled"));
+    }
+    
+    @Test
+    public void testProcessStoresResultUnderHeldLease() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ExecutionJob.class))).thenReturn(matched(1));
+        
+        queue.process(job("e1", 1));
+        
+        // Uncached task, durable write, then the job is removed
+        verify(taskService).prepareExecution("1", false);
+        verify(taskService).recordExecution(eq("1"),
+            argThat(execution -> execution.getId().equals("e1") && execution.getStatus() == ExecutionStatus.COMPLETED), eq(true));
+        verify(mongoTemplate).remove(argThat(byId("e1")), eq(ExecutionJob.class));
+        verify(executionOutputHub).open("1", "e1");
+        verify(executionOutputHub).close(eq("e1"), any(TaskExecution.class));
+        verify(admissionControl).release("Ops");
+        assertEquals(1, jobs("completed"));
+        assertTrue(leased().isEmpty());
+    }
+    
+    @Test
+    public void testProcessDoesNotStoreResultTwice() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ExecutionJob.class))).thenReturn(matched(1));
+        when(mongoTemplate.exists(argThat(byId("e1")), eq(TaskExecution.class))).thenReturn(true);
+        
+        queue.process(job("e1", 2));
+        
+        verify(taskService, never()).recordExecution(any(), any(), anyBoolean());
+        verify(mongoTemplate).remove(argThat(byId("e1")), eq(ExecutionJob.class));
+    }
+    
+    @Test
+    public void testProcessDiscardsResultWhenLeaseWasLost() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ExecutionJob.class))).thenReturn(matched(0));
+        
+        queue.process(job("e1", 1));
+        
+        verify(taskService, never()).recordExecution(any(), any(), anyBoolean());
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(ExecutionJob.class));
+        verify(admissionControl).release("Ops");
+        assertEquals(1, jobs("lost"));
+        assertEquals(0, jobs("completed"));
+    }
+    
+    @Test
+    public void testProcessAbandonsJobAfterMaxAttempts() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ExecutionJob.class))).thenReturn(matched(1));
+        
+        queue.process(job("e1", 4));
+        
+        verify(taskService).recordExecution(eq("1"),
+            argThat(execution -> execution.getId().equals("e1") && execution.getStatus() == ExecutionStatus.FAILED), eq(true));
+        verify(mongoTemplate).remove(argThat(byId("e1")), eq(ExecutionJob.class));
+        verifyNoInteractions(commandExecutionService, admissionControl);
+        assertEquals(1, jobs("abandoned"));
+    }
+    
+    @Test
+    public void testProcessDefersJobWhenOwnerIsAtLimit() {
+        when(admissionControl.tryStart("Ops")).thenReturn(false);
+        
+        queue.process(job("e1", 1));
+        
+        verify(mongoTemplate).updateFirst(argThat(query -> "node-a".equals(query.getQueryObject().get("leaseOwner"))),
+            argThat(update -> update.getUpdateObject().get("$unset", Document.class).containsKey("leaseOwner")
+                && update.getUpdateObject().get("$inc", Document.class).get("attempts").equals(-1)),
+            eq(ExecutionJob.class));
+        verify(commandExecutionService, never()).executeCommand(any(), any(), any(), any());
+        verify(admissionControl, never()).release(any());
+        assertEquals(1, jobs("deferred"));
+    }
+    
+    @Test
+    public void testScheduledRunIsNotLimitedPerOwner() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ExecutionJob.class))).thenReturn(matched(1));
+        ExecutionJob job = job("e1", 1);
+        job.setScheduledAt(Date.from(NOW));
+        
+        queue.process(job);
+        
+        verifyNoInteractions(admissionControl);
+        assertEquals(1, jobs("completed"));
+    }
+    
+    @Test
+    public void testCancelStopsLocalRunDirectly() {
+        leased().put("e1", false);
+        when(commandExecutionService.cancel("e1")).thenReturn(true);
+        
+        assertTrue(queue.cancel("e1"));
+        
+        verifyNoInteractions(mongoTemplate);
+    }
+    
+    @Test
+    public void testCancelFlagsJobForNodeRunningIt() {
+        when(mongoTemplate.updateFirst(argThat(byId("e1")), any(Update.class), eq(ExecutionJob.class))).thenReturn(matched(1));
+        when(mongoTemplate.updateFirst(argThat(byId("e2")), any(Update.class), eq(ExecutionJob.class))).thenReturn(matched(0));
+        
+        assertTrue(queue.cancel("e1"));
+        assertFalse(queue.cancel("e2"));
+        
+        verify(mongoTemplate).updateFirst(argThat(byId("e1")),
+            argThat(update -> update.getUpdateObject().get("$set", Document.class).get("cancelRequested").equals(true)),
+            eq(ExecutionJob.class));
+        verify(commandExecutionService, never()).cancel(any());
+    }
+    
+    @Test
+    public void testScheduledRunIsQueuedOnceAcrossNodes() {
+        long nominal = NOW.toEpochMilli();
+        String id = DistributedExecutionQueue.scheduledJobId("1", nominal);
+        when(mongoTemplate.insert(argThat((ExecutionJob job) -> job.getId().equals(id))))
+            .thenReturn(null)
+            .thenThrow(new DuplicateKeyException("duplicate"));
+        
+        assertEquals(id, queue.enqueueScheduled("1", nominal).getId());
+        assertEquals(id, queue.enqueueScheduled("1", nominal).getId());
+        
+        assertEquals(1, jobs("enqueued"));
+        assertEquals(1, jobs("duplicate"));
+        verifyNoInteractions(admissionControl);
+        assertEquals(NOW.getEpochSecond(), new ObjectId(id).getTimestamp());
+        assertNotEquals(id, DistributedExecutionQueue.scheduledJobId("2", nominal));
+        assertNotEquals(id, DistributedExecutionQueue.scheduledJobId("1", nominal + 60000));
+    }
+    
+    private static ExecutionJob job(String id, int attempts) {
+        ExecutionJob job = new ExecutionJob(id, "1", Date.from(NOW.minusSeconds(5)));
+        job.setLeaseOwner("node-a");
+        job.setAttempts(attempts);
+        return job;
+    }
+    
+    private static UpdateResult matched(long count) {
+        return UpdateResult.acknowledged(count, count, null);
+    }
+    
+    private static ArgumentMatcher<Query> byId(String id) {
+        return query -> query != null && id.equals(query.getQueryObject().get("_id"));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Boolean> leased() {
+        return (Map<String, Boolean>) ReflectionTestUtils.getField(queue, "leased");
+    }
+    
+    private double jobs(String result) {
+        Counter counter = meterRegistry.find(DistributedExecutionQueue.JOBS).tag("result", result).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
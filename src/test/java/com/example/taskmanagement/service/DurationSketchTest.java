@@ -0,0 +1,87 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.dto.ExecutionStatsSummary;
+import com.example.taskmanagement.model.ExecutionStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DurationSketch and the statistics built from it
+ */
+public class DurationSketchTest {
+    
+    @Test
+    public void testQuantilesAreWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        List<Long> durations = new ArrayList<>();
+        DurationSketch sketch = new DurationSketch();
+        for (int i = 0; i < 10000; i++) {
+            // Log-normal spread from a few milliseconds to minutes
+            long duration = (long) Math.exp(3 + 2.5 * random.nextGaussian()) + 1;
+            durations.add(duration);
+            sketch.add(duration);
+        }
+        Collections.sort(durations);
+        
+        for (double quantile : new double[] {0.5, 0.95, 0.99}) {
+            long exact = durations.get((int) Math.floor(quantile * (durations.size() - 1)));
+            double estimate = sketch.quantile(quantile);
+            assertEquals(exact, estimate, exact * DurationSketch.RELATIVE_ACCURACY + 1e-9, "p" + quantile);
+        }
+    }
+    
+    @Test
+    public void testMergedSketchEqualsSketchOfAllDurations() {
+        DurationSketch all = new DurationSketch();
+        Map<String, Long> first = new HashMap<>();
+        Map<String, Long> second = new HashMap<>();
+        for (long duration = 1; duration <= 5000; duration += 7) {
+            all.add(duration);
+            Map<String, Long> buckets = duration % 2 == 0 ? first : second;
+            buckets.merge(String.valueOf(DurationSketch.bucketOf(duration)), 1L, Long::sum);
+        }
+        
+        DurationSketch merged = DurationSketch.of(first);
+        merged.addAll(second);
+        
+        assertEquals(all.count(), merged.count());
+        assertEquals(all.quantile(0.5), merged.quantile(0.5));
+        assertEquals(all.quantile(0.99), merged.quantile(0.99));
+    }
+    
+    @Test
+    public void testEmptySketchHasNoQuantiles() {
+        assertNull(new DurationSketch().quantile(0.5));
+    }
+    
+    @Test
+    public void testSummaryCombinesTasks() {
+        ExecutionStats first = stats("1", 10, 1, 100, 10);
+        ExecutionStats second = stats("2", 30, 5, 3000, 100);
+        
+        ExecutionStatsSummary summary = ExecutionStatsService.summarize(null, "Owner", 2, List.of(first, second));
+        
+        assertEquals(40, summary.getRuns());
+        assertEquals(6, summary.getFailures());
+        assertEquals(0.15, summary.getFailureRate(), 1e-9);
+        assertEquals(77.5, summary.getMeanDurationMs(), 1e-9);
+        assertEquals(100, summary.getP95DurationMs(), 100 * DurationSketch.RELATIVE_ACCURACY);
+    }
+    
+    private static ExecutionStats stats(String taskId, long runs, long failures, long totalDurationMs, long duration) {
+        ExecutionStats stats = new ExecutionStats(taskId);
+        stats.setRuns(runs);
+        stats.setFailures(failures);
+        stats.setTotalDurationMs(totalDurationMs);
+        stats.getDurationBuckets().put(String.valueOf(DurationSketch.bucketOf(duration)), runs);
+        return stats;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionRollup;
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.TaskExecution;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the roll-up arithmetic of ExecutionCompactor
+ */
+public class ExecutionCompactorTest {
+    
+    @Test
+    public void testFoldAggregatesCountsAndDurations() {
+        ExecutionRollup rollup = new ExecutionRollup("1");
+        
+        assertTrue(ExecutionCompactor.fold(rollup, List.of(
+            execution("a", 1000, 50, ExecutionStatus.COMPLETED),
+            execution("b", 2000, 10, ExecutionStatus.FAILED),
+            execution("c", 3000, 30, ExecutionStatus.TIMED_OUT))));
+        
+        assertEquals(3, rollup.getRuns());
+        assertEquals(2, rollup.getFailures());
+        assertEquals(90, rollup.getTotalDurationMs());
+        assertEquals(10L, rollup.getMinDurationMs());
+        assertEquals(50L, rollup.getMaxDurationMs());
+        assertEquals(new Date(1000), rollup.getFirstStartTime());
+        assertEquals(new Date(3000), rollup.getLastStartTime());
+        assertEquals("c", rollup.getLastExecutionId());
+    }
+    
+    @Test
+    public void testFoldSkipsExecutionsAlreadyCounted() {
+        ExecutionRollup rollup = new ExecutionRollup("1");
+        ExecutionCompactor.fold(rollup, List.of(
+            execution("a", 1000, 50, ExecutionStatus.COMPLETED),
+            execution("b", 2000, 10, ExecutionStatus.COMPLETED)));
+        
+        // A pass that stopped before deleting finds the same executions again
+        assertTrue(ExecutionCompactor.fold(rollup, List.of(
+            execution("a", 1000, 50, ExecutionStatus.COMPLETED),
+            execution("b", 2000, 10, ExecutionStatus.COMPLETED),
+            execution("c", 2000, 20, ExecutionStatus.COMPLETED))));
+        assertFalse(ExecutionCompactor.fold(rollup, List.of(
+            execution("c", 2000, 20, ExecutionStatus.COMPLETED))));
+        
+        assertEquals(3, rollup.getRuns());
+        assertEquals(80, rollup.getTotalDurationMs());
+        assertEquals("c", rollup.getLastExecutionId());
+    }
+    
+    private static TaskExecution execution(String id, long start, long duration, ExecutionStatus status) {
+        TaskExecution execution = new TaskExecution(new Date(start), new Date(start + duration), "out " + id);
+        execution.setId(id);
+        execution.setStatus(status);
+        return execution;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.TaskExecution;
+import com.example.taskmanagement.repository.TaskExecutionRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExecutionHistoryService, against mocked storage
+ */
+public class ExecutionHistoryServiceTest {
+    
+    private final TaskExecutionRepository taskExecutionRepository = mock(TaskExecutionRepository.class);
+    
+    private final OutputBlobStore outputBlobStore = mock(OutputBlobStore.class);
+    
+    private final ExecutionStatsService executionStatsService = mock(ExecutionStatsService.class);
+    
+    private final ExecutionHistoryService executionHistoryService = new ExecutionHistoryService();
+    
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(executionHistoryService, "taskExecutionRepository", taskExecutionRepository);
+        ReflectionTestUtils.setField(executionHistoryService, "outputBlobStore", outputBlobStore);
+        ReflectionTestUtils.setField(executionHistoryService, "executionStatsService", executionStatsService);
+        ReflectionTestUtils.setField(executionHistoryService, "mongoTemplate", mock(MongoTemplate.class));
+        ReflectionTestUtils.setField(executionHistoryService, "taskCache", mock(TaskCache.class));
+        // Blob-backed copies, as the real store returns for large outputs
+        when(outputBlobStore.store(any(TaskExecution.class))).thenAnswer(call -> blobBacked(call.getArgument(0)));
+        when(outputBlobStore.storeAll(anyList())).thenAnswer(call ->
+            call.<List<TaskExecution>>getArgument(0).stream().map(ExecutionHistoryServiceTest::blobBacked).toList());
+    }
+    
+    @Test
+    public void testFailedInsertReleasesBlobReference() {
+        when(taskExecutionRepository.insert(any(TaskExecution.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        
+        assertThrows(DuplicateKeyException.class, () -> executionHistoryService.record("1", execution("e1")));
+        
+        verify(outputBlobStore).release(argThat(released -> ids(released).equals(Set.of("e1"))));
+        verifyNoInteractions(executionStatsService);
+    }
+    
+    @Test
+    public void testFailedBatchReleasesOnlyUnstoredReferences() {
+        // An ordered insert that stored e1 and stopped at e2
+        when(taskExecutionRepository.insert(anyList())).thenThrow(batchFailure(1));
+        
+        assertThrows(DuplicateKeyException.class,
+            () -> executionHistoryService.recordAll(List.of(execution("e1"), execution("e2"), execution("e3"))));
+        
+        verify(outputBlobStore).release(argThat(released -> ids(released).equals(Set.of("e2", "e3"))));
+    }
+    
+    @Test
+    public void testFailedQueuedBatchRetriesOnlyUnstoredExecutions() {
+        when(taskExecutionRepository.insert(anyList())).thenThrow(batchFailure(1));
+        List<TaskExecution> batch = List.of(execution("e1"), execution("e2"), execution("e3"));
+        
+        ReflectionTestUtils.invokeMethod(executionHistoryService, "insertQueued", batch);
+        
+        // e1 keeps its reference from the batch, e2 and e3 take a new one each
+        verify(outputBlobStore).release(argThat(released -> ids(released).equals(Set.of("e2", "e3"))));
+        verify(outputBlobStore, times(2)).store(any(TaskExecution.class));
+        verify(taskExecutionRepository, times(2)).insert(any(TaskExecution.class));
+        verify(executionStatsService).recordAll(argThat(written -> ids(written).equals(Set.of("e1"))));
+        verify(executionStatsService, times(2)).record(any(TaskExecution.class));
+    }
+    
+    private static TaskExecution execution(String id) {
+        TaskExecution execution = new TaskExecution();
+        execution.setId(id);
+        execution.setTaskId("1");
+        execution.setOutput("output of " + id);
+        return execution;
+    }
+    
+    private static DuplicateKeyException batchFailure(int failedIndex) {
+        MongoBulkWriteException cause = new MongoBulkWriteException(null,
+            List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), failedIndex)),
+            null, new ServerAddress(), Set.of());
+        return new DuplicateKeyException("duplicate", cause);
+    }
+    
+    private static TaskExecution blobBacked(TaskExecution execution) {
+        return OutputBlobStore.withoutOutput(execution, "hash-" + execution.getId());
+    }
+    
+    private static Set<String> ids(Collection<TaskExecution> executions) {
+        return executions.stream().map(TaskExecution::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExecutionMemoizer
+ */
+public class ExecutionMemoizerTest {
+    
+    private final ExecutionMemoizer memoizer = new ExecutionMemoizer();
+    
+    private final AtomicInteger runs = new AtomicInteger();
+    
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(memoizer, "meterRegistry", new SimpleMeterRegistry());
+        memoizer.init();
+    }
+    
+    @Test
+    public void testConcurrentExecutionsShareOneRun() throws Exception {
+        Task task = task(true);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<TaskExecution>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> memoizer.execute(task, () -> {
+                    await(release);
+                    return run(ExecutionStatus.COMPLETED);
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            
+            int cached = 0;
+            for (Future<TaskExecution> result : results) {
+                TaskExecution execution = result.get(5, TimeUnit.SECONDS);
+                assertEquals("exec-1", execution.getId());
+                cached += execution.isCached() ? 1 : 0;
+            }
+            assertEquals(1, runs.get());
+            assertEquals(7, cached);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void testCompletedResultIsReusedWithOriginalTimestamps() {
+        Task task = task(true);
+        TaskExecution first = memoizer.execute(task, () -> run(ExecutionStatus.COMPLETED));
+        TaskExecution second = memoizer.execute(task, () -> run(ExecutionStatus.COMPLETED));
+        
+        assertEquals(1, runs.get());
+        assertFalse(first.isCached());
+        assertTrue(second.isCached());
+        assertEquals(first.getStartTime(), second.getStartTime());
+        assertEquals(first.getEndTime(), second.getEndTime());
+    }
+    
+    @Test
+    public void testFailedResultIsNotReused() {
+        Task task = task(true);
+        memoizer.execute(task, () -> run(ExecutionStatus.FAILED));
+        memoizer.execute(task, () -> run(ExecutionStatus.FAILED));
+        
+        assertEquals(2, runs.get());
+    }
+    
+    @Test
+    public void testChangedCommandOrInvalidationRunsAgain() {
+        Task task = task(true);
+        memoizer.execute(task, () -> run(ExecutionStatus.COMPLETED));
+        task.setCommand("echo changed");
+        memoizer.execute(task, () -> run(ExecutionStatus.COMPLETED));
+        memoizer.invalidate(task.getId());
+        memoizer.execute(task, () -> run(ExecutionStatus.COMPLETED));
+        
+        assertEquals(3, runs.get());
+    }
+    
+    @Test
+    public void testTasksThatAreNotIdempotentAlwaysRun() {
+        Task task = task(false);
+        memoizer.execute(task, () -> run(ExecutionStatus.COMPLETED));
+        memoizer.execute(task, () -> run(ExecutionStatus.COMPLETED));
+        
+        assertEquals(2, runs.get());
+    }
+    
+    private Task task(boolean idempotent) {
+        Task task = new Task("1", "Hostname", "Ops", "hostname");
+        task.setIdempotent(idempotent);
+        task.setResultTtlSeconds(60);
+        return task;
+    }
+    
+    private TaskExecution run(ExecutionStatus status) {
+        TaskExecution execution = new TaskExecution(new Date(), new Date(), "output");
+        execution.setId("exec-" + runs.incrementAndGet());
+        execution.setStatus(status);
+        return execution;
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.TaskExecution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the execute path meters recorded by CommandExecutionService
+ */
+public class ExecutionMetricsTest {
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    
+    private final CommandExecutionService commandExecutionService = new CommandExecutionService();
+    
+    @BeforeEach
+    public void setUp() {
+        ExecutionMetrics executionMetrics = new ExecutionMetrics();
+        ReflectionTestUtils.setField(executionMetrics, "meterRegistry", registry);
+        executionMetrics.init();
+        ReflectionTestUtils.setField(commandExecutionService, "executionMetrics", executionMetrics);
+        ReflectionTestUtils.setField(commandExecutionService, "spillEnabled", false);
+    }
+    
+    @Test
+    public void testEachStageOfASuccessfulCommandIsTimed() {
+        TaskExecution execution = commandExecutionService.executeCommand("echo hello");
+        
+        assertEquals(ExecutionStatus.COMPLETED, execution.getStatus());
+        for (String stage : new String[] {"spawn", "read", "wait"}) {
+            assertEquals(1, registry.get(ExecutionMetrics.STAGE_TIMER)
+                .tag("stage", stage).tag("outcome", "success").timer().count(), stage);
+        }
+        assertEquals(1, registry.get(ExecutionMetrics.COMMAND_TIMER).tag("outcome", "completed").timer().count());
+        assertEquals(execution.getOutputBytes(), registry.get(ExecutionMetrics.OUTPUT_BYTES).counter().count());
+        assertEquals(0, registry.get(ExecutionMetrics.NON_ZERO_EXITS).counter().count());
+    }
+    
+    @Test
+    public void testNonZeroExitIsCounted() {
+        TaskExecution execution = commandExecutionService.executeCommand("exit 3");
+        
+        assertEquals(ExecutionStatus.FAILED, execution.getStatus());
+        assertEquals(1, registry.get(ExecutionMetrics.NON_ZERO_EXITS).counter().count());
+        assertEquals(1, registry.get(ExecutionMetrics.COMMAND_TIMER).tag("outcome", "failed").timer().count());
+    }
+    
+    @Test
+    public void testStagesEndOnlyOnce() {
+        ExecutionMetrics executionMetrics = (ExecutionMetrics) ReflectionTestUtils.getField(
+            commandExecutionService, "executionMetrics");
+        ExecutionMetrics.Stages stages = executionMetrics.stages();
+        stages.begin(ExecutionMetrics.Stage.LOAD);
+        stages.begin(ExecutionMetrics.Stage.VALIDATE);
+        stages.end(false);
+        stages.end(false);
+        
+        assertEquals(1, registry.get(ExecutionMetrics.STAGE_TIMER)
+            .tag("stage", "load").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get(ExecutionMetrics.STAGE_TIMER)
+            .tag("stage", "validate").tag("outcome", "error").timer().count());
+    }
+}
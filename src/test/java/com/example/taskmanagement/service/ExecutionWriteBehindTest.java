@@ -0,0 +1,113 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.TaskExecution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExecutionWriteBehind
+ */
+public class ExecutionWriteBehindTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    private final List<List<TaskExecution>> batches = Collections.synchronizedList(new ArrayList<>());
+    
+    private final List<TaskExecution> direct = Collections.synchronizedList(new ArrayList<>());
+    
+    private ExecutionWriteBehind writeBehind;
+    
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (writeBehind != null) {
+            writeBehind.close(5000);
+        }
+    }
+    
+    @Test
+    public void testExecutionsAreWrittenInBatches() throws InterruptedException {
+        writeBehind = new ExecutionWriteBehind(100, 10, 200, 1000, batches::add, direct::add, meterRegistry);
+        
+        for (int i = 0; i < 25; i++) {
+            writeBehind.add(execution("e" + i));
+        }
+        assertTrue(writeBehind.awaitFlushed(5000));
+        
+        assertEquals(25, batches.stream().mapToInt(List::size).sum());
+        assertTrue(batches.size() <= 5, "25 executions in " + batches.size() + " writes");
+        assertTrue(direct.isEmpty());
+        assertEquals(0, meterRegistry.get(ExecutionWriteBehind.QUEUE_DEPTH).gauge().value());
+        assertTrue(meterRegistry.get(ExecutionWriteBehind.FLUSH_TIMER).timer().count() > 0);
+    }
+    
+    @Test
+    public void testPartialBatchIsWrittenAfterFlushInterval() throws InterruptedException {
+        writeBehind = new ExecutionWriteBehind(100, 1000, 50, 1000, batches::add, direct::add, meterRegistry);
+        
+        writeBehind.add(execution("e1"));
+        assertTrue(writeBehind.find("e1").isPresent());
+        assertTrue(writeBehind.awaitFlushed(5000));
+        
+        assertEquals(1, batches.size());
+        assertTrue(writeBehind.find("e1").isEmpty());
+    }
+    
+    @Test
+    public void testFullQueueMakesCallerWriteDirectly() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        writeBehind = new ExecutionWriteBehind(1, 1, 10, 50, batch -> {
+            await(release);
+            batches.add(batch);
+        }, direct::add, meterRegistry);
+        
+        // The first is being written, the second fills the queue, the third has no room
+        writeBehind.add(execution("e1"));
+        Thread.sleep(100);
+        writeBehind.add(execution("e2"));
+        writeBehind.add(execution("e3"));
+        release.countDown();
+        assertTrue(writeBehind.awaitFlushed(5000));
+        
+        assertEquals(List.of("e3"), direct.stream().map(TaskExecution::getId).toList());
+        assertEquals(2, batches.stream().mapToInt(List::size).sum());
+        assertEquals(1, meterRegistry.get(ExecutionWriteBehind.OVERFLOWS).counter().count());
+    }
+    
+    @Test
+    public void testCloseWritesQueuedExecutions() throws InterruptedException {
+        writeBehind = new ExecutionWriteBehind(100, 1000, 60000, 1000, batches::add, direct::add, meterRegistry);
+        
+        for (int i = 0; i < 5; i++) {
+            writeBehind.add(execution("e" + i));
+        }
+        writeBehind.close(5000);
+        writeBehind.add(execution("late"));
+        
+        assertEquals(5, batches.stream().mapToInt(List::size).sum());
+        assertEquals(List.of("late"), direct.stream().map(TaskExecution::getId).toList());
+    }
+    
+    private static TaskExecution execution(String id) {
+        TaskExecution execution = new TaskExecution();
+        execution.setId(id);
+        execution.setTaskId("1");
+        return execution;
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.ExecutionStatus;
+import com.example.taskmanagement.model.OutputBlob;
+import com.example.taskmanagement.model.TaskExecution;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the encoding and reference bookkeeping of OutputBlobStore
+ */
+public class OutputBlobStoreTest {
+    
+    private final OutputBlobStore store = new OutputBlobStore();
+    
+    @Test
+    public void testRepetitiveOutputIsCompressedAndRestored() {
+        String output = "line of recurring output\n".repeat(200);
+        
+        OutputBlob blob = store.encode(output);
+        
+        assertTrue(blob.isCompressed());
+        assertTrue(blob.getData().length < output.length() / 10);
+        assertEquals(output.length(), blob.getSize());
+        assertEquals(output, OutputBlobStore.decode(blob));
+    }
+    
+    @Test
+    public void testBlobIsNeverLargerThanOutput() {
+        Random random = new Random(7);
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            output.append((char) ('!' + random.nextInt(94)));
+        }
+        ReflectionTestUtils.setField(store, "compressionLevel", 0);
+        
+        // Stored deflate blocks add a few bytes, so the output is kept as it is
+        OutputBlob blob = store.encode(output.toString());
+        
+        assertFalse(blob.isCompressed());
+        assertEquals(output.length(), blob.getData().length);
+        assertEquals(output.toString(), OutputBlobStore.decode(blob));
+    }
+    
+    @Test
+    public void testSmallOutputStaysInline() {
+        assertNull(store.encode("hello"));
+        assertNull(store.encode(null));
+        
+        ReflectionTestUtils.setField(store, "enabled", false);
+        assertNull(store.encode("x".repeat(4096)));
+    }
+    
+    @Test
+    public void testEqualOutputsShareABlob() {
+        String output = "ünïcödé output ".repeat(100);
+        
+        assertEquals(store.encode(output).getHash(), store.encode(new String(output)).getHash());
+        assertEquals(OutputBlobStore.hash(output), store.encode(output).getHash());
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", OutputBlobStore.hash(""));
+    }
+    
+    @Test
+    public void testStoredCopyReferencesBlobAndResolvesBack() {
+        TaskExecution execution = new TaskExecution(new Date(1000), new Date(2000), "output");
+        execution.setId("e1");
+        execution.setTaskId("1");
+        execution.setStatus(ExecutionStatus.COMPLETED);
+        execution.setExitCode(0);
+        
+        TaskExecution stored = OutputBlobStore.withoutOutput(execution, "abc");
+        TaskExecution other = OutputBlobStore.withoutOutput(execution, "def");
+        
+        assertNull(stored.getOutput());
+        assertEquals("output", execution.getOutput());
+        assertEquals("e1", stored.getId());
+        assertEquals(0, stored.getExitCode());
+        assertEquals(Map.of("abc", 2, "def", 1), OutputBlobStore.countReferences(List.of(stored, stored, other)));
+        
+        OutputBlobStore.fill(List.of(stored, other), Map.of("abc", "output"));
+        assertEquals("output", stored.getOutput());
+        assertNull(other.getOutput());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.taskmanagement.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OwnerAdmissionControl
+ */
+public class OwnerAdmissionControlTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    private final MockEnvironment environment = new MockEnvironment();
+    
+    private OwnerAdmissionControl admissionControl;
+    
+    @BeforeEach
+    public void setUp() {
+        admissionControl = new OwnerAdmissionControl();
+        ReflectionTestUtils.setField(admissionControl, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(admissionControl, "environment", environment);
+    }
+    
+    @Test
+    public void testBurstIsAdmittedThenRateLimited() {
+        configure(1, 3, 0);
+        
+        for (int i = 0; i < 3; i++) {
+            admissionControl.acquire("alice");
+        }
+        AdmissionRejectedException rejected =
+            assertThrows(AdmissionRejectedException.class, () -> admissionControl.acquire("alice"));
+        
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get(OwnerAdmissionControl.REJECTED).tag("reason", "rate").counter().count());
+        // Other owners have their own bucket
+        admissionControl.acquire("bob");
+    }
+    
+    @Test
+    public void testConcurrencySlotsAreReturnedOnRelease() {
+        configure(0, 1, 2);
+        
+        admissionControl.acquire("alice");
+        admissionControl.acquire("alice");
+        assertThrows(AdmissionRejectedException.class, () -> admissionControl.acquire("alice"));
+        admissionControl.release("alice");
+        admissionControl.acquire("alice");
+        
+        assertEquals(1, meterRegistry.get(OwnerAdmissionControl.REJECTED).tag("reason", "concurrency").counter().count());
+    }
+    
+    @Test
+    public void testConcurrencyRejectionDoesNotSpendTokens() {
+        configure(1, 2, 1);
+        
+        admissionControl.acquire("alice");
+        for (int i = 0; i < 5; i++) {
+            assertThrows(AdmissionRejectedException.class, () -> admissionControl.acquire("alice"));
+        }
+        admissionControl.release("alice");
+        
+        // The second token of the burst is still there
+        admissionControl.acquire("alice");
+        assertEquals(5, meterRegistry.get(OwnerAdmissionControl.REJECTED).tag("reason", "concurrency").counter().count());
+        assertEquals(0, meterRegistry.get(OwnerAdmissionControl.REJECTED).tag("reason", "rate").counter().count());
+    }
+    
+    @Test
+    public void testRateRejectionReturnsConcurrencySlot() {
+        configure(1, 1, 1);
+        
+        admissionControl.acquire("alice");
+        admissionControl.release("alice");
+        assertThrows(AdmissionRejectedException.class, () -> admissionControl.acquire("alice"));
+        
+        @SuppressWarnings("unchecked")
+        Map<String, OwnerAdmissionControl.OwnerState> owners =
+            (Map<String, OwnerAdmissionControl.OwnerState>) ReflectionTestUtils.getField(admissionControl, "owners");
+        assertEquals(0, owners.get("alice").running());
+    }
+    
+    @Test
+    public void testQueuedExecutionsTakeTokenAndSlotSeparately() {
+        configure(1, 1, 1);
+        
+        admissionControl.acquireRate("alice");
+        assertThrows(AdmissionRejectedException.class, () -> admissionControl.acquireRate("alice"));
+        // The slot is free until the queued execution starts
+        assertTrue(admissionControl.tryStart("alice"));
+        assertFalse(admissionControl.tryStart("alice"));
+        admissionControl.release("alice");
+        assertTrue(admissionControl.tryStart("alice"));
+        
+        assertEquals(1, meterRegistry.get(OwnerAdmissionControl.REJECTED).tag("reason", "rate").counter().count());
+        assertEquals(0, meterRegistry.get(OwnerAdmissionControl.REJECTED).tag("reason", "concurrency").counter().count());
+    }
+    
+    @Test
+    public void testOwnerOverridesReplaceDefaults() {
+        environment.setProperty("task-management.admission.owners.ops.max-concurrent", "3");
+        configure(0, 1, 1);
+        
+        for (int i = 0; i < 3; i++) {
+            admissionControl.acquire("ops");
+        }
+        admissionControl.acquire(null);
+        assertThrows(AdmissionRejectedException.class, () -> admissionControl.acquire(null));
+        assertThrows(AdmissionRejectedException.class, () -> admissionControl.acquire("ops"));
+    }
+    
+    @Test
+    public void testTokensRefillOverTime() {
+        OwnerAdmissionControl.OwnerState state = new OwnerAdmissionControl.OwnerState(10, 2, 0);
+        long now = System.nanoTime();
+        
+        assertEquals(0, state.takeToken(now));
+        assertEquals(0, state.takeToken(now));
+        long wait = state.takeToken(now);
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(100), "wait " + wait);
+        assertEquals(0, state.takeToken(now + wait));
+    }
+    
+    private void configure(double ratePerSecond, int burst, int maxConcurrent) {
+        ReflectionTestUtils.setField(admissionControl, "ratePerSecond", ratePerSecond);
+        ReflectionTestUtils.setField(admissionControl, "burst", burst);
+        ReflectionTestUtils.setField(admissionControl, "maxConcurrent", maxConcurrent);
+        admissionControl.init();
+    }
+}
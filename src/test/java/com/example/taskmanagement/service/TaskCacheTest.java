@@ -0,0 +1,93 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TaskCache
+ */
+public class TaskCacheTest {
+    
+    private final TaskCache cache = new TaskCache();
+    
+    private final AtomicInteger taskLoads = new AtomicInteger();
+    
+    private final AtomicInteger historyLoads = new AtomicInteger();
+    
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+    }
+    
+    @Test
+    public void testTaskIsLoadedOnceAndCopiedOnEveryRead() {
+        Task first = cache.getTask("1", this::loadTask).orElseThrow();
+        first.setName("changed by caller");
+        Task second = cache.getTask("1", this::loadTask).orElseThrow();
+        
+        assertEquals(1, taskLoads.get());
+        assertEquals("Task 1", second.getName());
+        assertNotSame(first, second);
+    }
+    
+    @Test
+    public void testMissingTasksAreNotCached() {
+        assertTrue(cache.getTask("missing", id -> null).isEmpty());
+        assertTrue(cache.getTask("missing", this::loadTask).isPresent());
+    }
+    
+    @Test
+    public void testNewExecutionInvalidatesOnlyTheHistory() {
+        cache.getTask("1", this::loadTask);
+        cache.getExecutions("1", this::loadHistory);
+        
+        cache.invalidateExecutions("1");
+        cache.getTask("1", this::loadTask);
+        cache.getExecutions("1", this::loadHistory);
+        
+        assertEquals(1, taskLoads.get());
+        assertEquals(2, historyLoads.get());
+    }
+    
+    @Test
+    public void testSaveOrDeleteInvalidatesTaskAndHistory() {
+        cache.getTask("1", this::loadTask);
+        cache.getExecutions("1", this::loadHistory);
+        
+        cache.invalidate("1");
+        cache.getTask("1", this::loadTask);
+        cache.getExecutions("1", this::loadHistory);
+        
+        assertEquals(2, taskLoads.get());
+        assertEquals(2, historyLoads.get());
+    }
+    
+    @Test
+    public void testDisabledCacheAlwaysLoads() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        cache.getTask("1", this::loadTask);
+        cache.getTask("1", this::loadTask);
+        
+        assertEquals(2, taskLoads.get());
+    }
+    
+    private Task loadTask(String id) {
+        taskLoads.incrementAndGet();
+        return new Task(id, "Task " + id, "Owner", "echo " + id);
+    }
+    
+    private List<TaskExecution> loadHistory(String id) {
+        historyLoads.incrementAndGet();
+        return List.of(new TaskExecution());
+    }
+}
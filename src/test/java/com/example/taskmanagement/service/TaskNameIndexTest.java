@@ -0,0 +1,56 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.Task;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TaskNameIndex
+ */
+public class TaskNameIndexTest {
+    
+    @Test
+    public void testIndexStoresLowercaseNameAndGrams() {
+        Task task = new Task("1", "AbCd", "Owner", "echo");
+        TaskNameIndex.index(task);
+        
+        assertEquals("abcd", task.getNameLower());
+        assertEquals(Arrays.asList("a", "ab", "abc", "b", "bc", "bcd", "c", "cd", "d"), task.getNameGrams());
+    }
+    
+    @Test
+    public void testShortSearchIsSingleGramLookup() {
+        Document query = TaskNameIndex.containing("Bc").getCriteriaObject();
+        
+        assertEquals(new Document(TaskNameIndex.NAME_GRAMS, "bc"), query);
+    }
+    
+    @Test
+    public void testLongSearchRequiresAllTrigramsAndTheLiteralSubstring() {
+        Document query = TaskNameIndex.containing("Backup.*").getCriteriaObject();
+        
+        Document grams = (Document) query.get(TaskNameIndex.NAME_GRAMS);
+        assertEquals(Arrays.asList("bac", "ack", "cku", "kup", "up.", "p.*"),
+            new ArrayList<>((Collection<?>) grams.get("$all")));
+        
+        Pattern literal = (Pattern) query.get(TaskNameIndex.NAME_LOWER);
+        assertTrue(literal.matcher("daily backup.* job").find());
+        assertFalse(literal.matcher("daily backups").find());
+    }
+    
+    @Test
+    public void testEscapeCoversAllRegexMetacharacters() {
+        List<String> literals = Arrays.asList("a+b", "(x)", "[y]", "{2}", "^$", "a|b", "c:\\temp", "?.*");
+        for (String literal : literals) {
+            assertTrue(Pattern.compile(TaskNameIndex.escape(literal)).matcher(literal).matches(), literal);
+        }
+    }
+}
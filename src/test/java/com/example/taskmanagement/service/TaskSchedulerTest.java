@@ -0,0 +1,276 @@
+package com.example.taskmanagement.service;
+
+import com.example.taskmanagement.model.MisfirePolicy;
+import com.example.taskmanagement.model.Task;
+import com.example.taskmanagement.model.TaskExecution;
+import com.example.taskmanagement.model.TaskSchedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for TaskScheduler, driven by a manual clock with submission to the engine stubbed out
+ */
+public class TaskSchedulerTest {
+    
+    // 2024-01-01T00:00:00Z
+    private static final long T0 = 1704067200000L;
+    
+    private final TaskScheduler scheduler = new TaskScheduler();
+    
+    private final ManualClock clock = new ManualClock(T0);
+    
+    private final List<String> submitted = new ArrayList<>();
+    
+    private final List<Long> nominalTimes = new ArrayList<>();
+    
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    
+    private final Set<String> deleted = new HashSet<>();
+    
+    private boolean rejecting;
+    
+    @BeforeEach
+    public void setUp() {
+        start(scheduler, clock);
+    }
+    
+    private void start(TaskScheduler scheduler, Clock clock) {
+        ReflectionTestUtils.setField(scheduler, "taskExecutionEngine", new TaskExecutionEngine() {
+            @Override
+            public TaskExecution submitScheduled(String taskId, long nominalMillis) {
+                if (rejecting) {
+                    throw new RejectedExecutionException("full");
+                }
+                if (deleted.contains(taskId)) {
+                    throw new IllegalArgumentException("Task not found with ID: " + taskId);
+                }
+                submitted.add(taskId);
+                nominalTimes.add(nominalMillis);
+                return new TaskExecution();
+            }
+        });
+        ReflectionTestUtils.setField(scheduler, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(scheduler, "clock", clock);
+        ReflectionTestUtils.setField(scheduler, "tickMs", 1000L);
+        ReflectionTestUtils.setField(scheduler, "wheelSize", 64);
+        ReflectionTestUtils.setField(scheduler, "defaultJitterSeconds", 0);
+        // Without the ticker thread, ticks are driven by the test
+        ReflectionTestUtils.setField(scheduler, "enabled", false);
+        scheduler.start();
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+    }
+    
+    @Test
+    public void testFixedRateRunsOnItsCadence() {
+        scheduler.schedule("1", rate(10));
+        assertEquals(new Date(T0 + 10000), scheduler.getNextFireTime("1").orElseThrow());
+        
+        advanceTo(T0 + 9000);
+        assertTrue(submitted.isEmpty());
+        advanceTo(T0 + 10000);
+        assertEquals(List.of("1"), submitted);
+        assertEquals(new Date(T0 + 20000), scheduler.getNextFireTime("1").orElseThrow());
+    }
+    
+    @Test
+    public void testFixedRateRunTimesDoNotDependOnWhenTheScheduleWasLoaded() {
+        // Two nodes loading the same schedule at different times
+        ManualClock otherClock = new ManualClock(T0 + 3700);
+        TaskScheduler other = new TaskScheduler();
+        start(other, otherClock);
+        scheduler.schedule("1", rate(10));
+        other.schedule("1", rate(10));
+        assertEquals(scheduler.getNextFireTime("1"), other.getNextFireTime("1"));
+        
+        advanceTo(T0 + 20000);
+        otherClock.set(T0 + 20000);
+        other.tick();
+        assertEquals(List.of(T0 + 10000, T0 + 20000, T0 + 10000), nominalTimes);
+    }
+    
+    @Test
+    public void testCronRunsAreSpreadByStableJitter() {
+        TaskSchedule schedule = cron("0 * * * * *");
+        schedule.setJitterSeconds(30);
+        Set<Date> fireTimes = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            scheduler.schedule("task-" + i, schedule);
+            Date next = scheduler.getNextFireTime("task-" + i).orElseThrow();
+            assertTrue(next.getTime() >= T0 + 60000 && next.getTime() < T0 + 90000, next.toString());
+            fireTimes.add(next);
+        }
+        assertTrue(fireTimes.size() > 10, "Fire times should be spread: " + fireTimes);
+        
+        // The offset stays the same from one run to the next
+        long offset = scheduler.getNextFireTime("task-0").orElseThrow().getTime() - (T0 + 60000);
+        advanceTo(T0 + 91000);
+        assertEquals(20, submitted.size());
+        assertEquals(new Date(T0 + 120000 + offset), scheduler.getNextFireTime("task-0").orElseThrow());
+    }
+    
+    @Test
+    public void testRejectedRunIsRetriedUntilItMisfires() {
+        TaskSchedule schedule = rate(600);
+        schedule.setMisfirePolicy(MisfirePolicy.SKIP);
+        scheduler.schedule("1", schedule);
+        
+        rejecting = true;
+        advanceTo(T0 + 600000);
+        assertEquals(new Date(T0 + 605000), scheduler.getNextFireTime("1").orElseThrow());
+        advanceTo(T0 + 665000);
+        assertTrue(submitted.isEmpty());
+        assertEquals(new Date(T0 + 1200000), scheduler.getNextFireTime("1").orElseThrow());
+        
+        rejecting = false;
+        advanceTo(T0 + 1200000);
+        assertEquals(List.of("1"), submitted);
+    }
+    
+    @Test
+    public void testMissedRunsFireOnceAfterAPause() {
+        scheduler.schedule("1", rate(60));
+        
+        clock.set(T0 + 3600000);
+        scheduler.tick();
+        assertEquals(List.of("1"), submitted);
+        assertEquals(new Date(T0 + 3660000), scheduler.getNextFireTime("1").orElseThrow());
+    }
+    
+    @Test
+    public void testSavingUnchangedScheduleKeepsNextFireTimeAndDeleteStopsRuns() {
+        Task task = new Task("1", "Uptime", "Ops", "uptime");
+        task.setSchedule(rate(10));
+        scheduler.onTaskChanged(TaskChangedEvent.saved(task));
+        
+        clock.set(T0 + 5000);
+        task.setSchedule(rate(10));
+        scheduler.onTaskChanged(TaskChangedEvent.saved(task));
+        assertEquals(new Date(T0 + 10000), scheduler.getNextFireTime("1").orElseThrow());
+        
+        scheduler.onTaskChanged(TaskChangedEvent.deleted("1"));
+        assertTrue(scheduler.getNextFireTime("1").isEmpty());
+        advanceTo(T0 + 30000);
+        assertTrue(submitted.isEmpty());
+    }
+    
+    @Test
+    public void testReconcilePicksUpTasksSavedAndDeletedOnOtherNodes() {
+        scheduler.schedule("1", rate(10));
+        scheduler.schedule("2", rate(10));
+        Task changed = new Task("1", "Uptime", "Ops", "uptime");
+        changed.setSchedule(rate(60));
+        Task added = new Task("3", "Disk", "Ops", "df -h");
+        added.setSchedule(rate(30));
+        // Task 2 was deleted elsewhere
+        when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(changed, added));
+        
+        scheduler.reconcileSchedules();
+        
+        assertEquals(new Date(T0 + 60000), scheduler.getNextFireTime("1").orElseThrow());
+        assertTrue(scheduler.getNextFireTime("2").isEmpty());
+        assertEquals(new Date(T0 + 30000), scheduler.getNextFireTime("3").orElseThrow());
+        assertEquals(2, scheduler.size());
+    }
+    
+    @Test
+    public void testDeletedTaskIsUnscheduledWhenItFails() {
+        scheduler.schedule("1", rate(10));
+        scheduler.schedule("2", rate(10));
+        deleted.add("1");
+        deleted.add("2");
+        // Task 2 still exists, its command has merely become invalid
+        when(mongoTemplate.exists(any(Query.class), eq(Task.class)))
+            .thenAnswer(call -> call.<Query>getArgument(0).getQueryObject().get("_id").equals("2"));
+        
+        advanceTo(T0 + 10000);
+        
+        assertTrue(scheduler.getNextFireTime("1").isEmpty());
+        assertEquals(new Date(T0 + 20000), scheduler.getNextFireTime("2").orElseThrow());
+    }
+    
+    @Test
+    public void testInvalidSchedulesAreRejected() {
+        TaskSchedule both = rate(10);
+        both.setCron("0 * * * * *");
+        assertThrows(IllegalArgumentException.class, () -> TaskScheduler.validate(both));
+        assertThrows(IllegalArgumentException.class, () -> TaskScheduler.validate(new TaskSchedule()));
+        assertThrows(IllegalArgumentException.class, () -> TaskScheduler.validate(cron("every minute")));
+        assertThrows(IllegalArgumentException.class, () -> TaskScheduler.validate(rate(0)));
+        TaskSchedule badZone = cron("0 * * * * *");
+        badZone.setZone("Mars/Olympus");
+        assertThrows(IllegalArgumentException.class, () -> TaskScheduler.validate(badZone));
+        TaskScheduler.validate(cron("0 */5 * * * *"));
+    }
+    
+    private void advanceTo(long millis) {
+        while (clock.millis() < millis) {
+            clock.set(Math.min(clock.millis() + 1000, millis));
+            scheduler.tick();
+        }
+    }
+    
+    private static TaskSchedule rate(long seconds) {
+        TaskSchedule schedule = new TaskSchedule();
+        schedule.setFixedRateSeconds(seconds);
+        return schedule;
+    }
+    
+    private static TaskSchedule cron(String expression) {
+        TaskSchedule schedule = new TaskSchedule();
+        schedule.setCron(expression);
+        schedule.setZone("UTC");
+        return schedule;
+    }
+    
+    private static class ManualClock extends Clock {
+        private long millis;
+        
+        ManualClock(long millis) {
+            this.millis = millis;
+        }
+        
+        void set(long millis) {
+            this.millis = millis;
+        }
+        
+        @Override
+        public long millis() {
+            return millis;
+        }
+        
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
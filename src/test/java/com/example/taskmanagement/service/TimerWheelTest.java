@@ -0,0 +1,70 @@
+package com.example.taskmanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimerWheel
+ */
+public class TimerWheelTest {
+    
+    @Test
+    public void testItemsExpireOnTheirTickEarliestFirst() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 0);
+        wheel.schedule("b", 250);
+        wheel.schedule("a", 210);
+        wheel.schedule("c", 1000);
+        
+        assertEquals(List.of(), wheel.advance(200));
+        assertEquals(List.of("a", "b"), wheel.advance(300));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("c"), wheel.advance(1000));
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    public void testDeadlinesBeyondOneRevolutionWaitForTheirTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 0);
+        wheel.schedule("later", 100 + 8 * 100);
+        
+        assertEquals(List.of(), wheel.advance(100));
+        assertEquals(List.of(), wheel.advance(800));
+        assertEquals(List.of("later"), wheel.advance(900));
+    }
+    
+    @Test
+    public void testPastDeadlinesExpireOnTheNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 500);
+        wheel.schedule("late", 100);
+        
+        assertEquals(List.of("late"), wheel.advance(600));
+    }
+    
+    @Test
+    public void testCancelledItemsNeverExpire() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 0);
+        TimerWheel.Timeout<String> timeout = wheel.schedule("cancelled", 300);
+        wheel.schedule("kept", 300);
+        
+        assertTrue(wheel.cancel(timeout));
+        assertFalse(wheel.cancel(timeout));
+        assertEquals(List.of("kept"), wheel.advance(300));
+    }
+    
+    @Test
+    public void testLongPauseExpiresEverythingDue() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(100, 8, 0);
+        for (int i = 1; i <= 40; i++) {
+            wheel.schedule(i, i * 100L);
+        }
+        
+        List<Integer> expired = wheel.advance(3000);
+        assertEquals(30, expired.size());
+        assertEquals(1, expired.get(0));
+        assertEquals(30, expired.get(29));
+        assertEquals(10, wheel.size());
+    }
+}